@@ -10,6 +10,8 @@ import java.time.temporal.TemporalAdjusters;
 import java.time.temporal.ChronoUnit; // Add this import
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -24,46 +26,75 @@ import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
-import org.acme.employeescheduling.domain.Availability;
 import org.acme.employeescheduling.domain.AvailabilityType;
 import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.ResidentYear;
 import org.acme.employeescheduling.domain.ScheduleState;
 import org.acme.employeescheduling.domain.Shift;
 import org.acme.employeescheduling.domain.Rotation;
+import org.acme.employeescheduling.domain.ShiftTemplate;
 
+import org.acme.employeescheduling.persistence.AvailabilityRangeMerger;
 import org.acme.employeescheduling.persistence.AvailabilityRepository;
 import org.acme.employeescheduling.persistence.EmployeeRepository;
 import org.acme.employeescheduling.persistence.ScheduleStateRepository;
 import org.acme.employeescheduling.persistence.ShiftRepository;
 import org.acme.employeescheduling.persistence.RotationRepository;
+import org.acme.employeescheduling.persistence.ShiftTemplateExpander;
+import org.acme.employeescheduling.persistence.ShiftTemplateRepository;
 
 import org.acme.employeescheduling.rest.EmployeeScheduleResource;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
 import io.quarkus.runtime.StartupEvent;
 
 @ApplicationScoped
 public class DemoDataGenerator {
 
+    private static final Logger LOGGER = Logger.getLogger(DemoDataGenerator.class);
+
+    // Same as quarkus.hibernate-orm.jdbc.statement-batch-size: every chunk goes out as one JDBC batch per table
+    private static final int INSERT_CHUNK_SIZE = 100;
+    private int unflushedInsertCount = 0;
+
     @ConfigProperty(name = "schedule.demoData", defaultValue = "SMALL")
     DemoData demoData;
+    // The only source of randomness, so the same seed always generates the same database
+    @ConfigProperty(name = "schedule.demoData.seed", defaultValue = "37")
+    long seed;
+
+    private Random random;
 
     public enum DemoData {
         NONE,
         SMALL,
-        LARGE
+        LARGE,
+        SYNTHETIC // Generated by the SyntheticDataGenerator from the schedule.synthetic properties
     }
 
+    @ConfigProperty(name = "schedule.synthetic.residents-per-year", defaultValue = "2,2,2")
+    int[] syntheticResidentsPerYear;
+    @ConfigProperty(name = "schedule.synthetic.horizon-years", defaultValue = "1")
+    int syntheticHorizonYears;
+    @ConfigProperty(name = "schedule.synthetic.leave-density", defaultValue = "0.05")
+    double syntheticLeaveDensity;
+    @ConfigProperty(name = "schedule.synthetic.holidays", defaultValue = "JULY_4,LABOR_DAY,THANKSGIVING,CHRISTMAS,NEW_YEAR,MEMORIAL_DAY")
+    Set<SyntheticDataGenerator.Holiday> syntheticHolidays;
+    @ConfigProperty(name = "schedule.synthetic.programs", defaultValue = "1")
+    int syntheticProgramCount;
+
     // Define a list of predefined employees with their required skills
     List<Employee> predefinedEmployeeList = List.of(
-    //    new Employee("R1a E", Set.of("RESIDENT"), "R1"),
-    //    new Employee("R1b V", Set.of("RESIDENT"), "R1"),
-        new Employee("R2a A", Set.of("RESIDENT"), "R2"),
-        new Employee("R2b K", Set.of("RESIDENT"), "R2"),
-        new Employee("R3a P", Set.of("RESIDENT"), "R3"),
-        new Employee("R3b M", Set.of("RESIDENT"), "R3"),
-        new Employee("R4a RC", Set.of("RESIDENT"), "R4"),
-        new Employee("R4b RS", Set.of("RESIDENT"), "R4")      
+    //    new Employee("R1a E", Set.of("RESIDENT"), ResidentYear.R1),
+    //    new Employee("R1b V", Set.of("RESIDENT"), ResidentYear.R1),
+        new Employee("R2a A", Set.of("RESIDENT"), ResidentYear.R2),
+        new Employee("R2b K", Set.of("RESIDENT"), ResidentYear.R2),
+        new Employee("R3a P", Set.of("RESIDENT"), ResidentYear.R3),
+        new Employee("R3b M", Set.of("RESIDENT"), ResidentYear.R3),
+        new Employee("R4a RC", Set.of("RESIDENT"), ResidentYear.R4),
+        new Employee("R4b RS", Set.of("RESIDENT"), ResidentYear.R4)      
         // ... other predefined employees ...
     );
 
@@ -115,9 +146,30 @@ public class DemoDataGenerator {
     ScheduleStateRepository scheduleStateRepository;
     @Inject
     RotationRepository rotationRepository;
+    @Inject
+    ShiftTemplateRepository shiftTemplateRepository;
+    @Inject
+    ShiftTemplateExpander shiftTemplateExpander;
 
     @Transactional
     public void generateDemoData(@Observes StartupEvent startupEvent) {
+        if (scheduleStateRepository.count() > 0) {
+            // A persistent database (see the persistent profile) already holds the schedules of an earlier start
+            LOGGER.info("Keeping the schedules already in the database, not generating demo data.");
+            return;
+        }
+        long startNanos = System.nanoTime();
+        generateDemoData();
+        flushInserts();
+        LOGGER.infof("Generated %s demo data in %d ms.", demoData, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private void generateDemoData() {
+        random = new Random(seed);
+        if (demoData == DemoData.SYNTHETIC) {
+            generateSyntheticData();
+            return;
+        }
 
         initializeUnavailableDatesMap();
 
@@ -126,7 +178,7 @@ public class DemoDataGenerator {
         scheduleState.setDraftLength(INITIAL_ROSTER_LENGTH_IN_DAYS);
         scheduleState.setPublishLength(365);
         scheduleState.setLastHistoricDate(START_DATE.minusDays(365));
-        scheduleState.setTenantId(EmployeeScheduleResource.SINGLETON_SCHEDULE_ID);
+        scheduleState.setTenantId(EmployeeScheduleResource.DEFAULT_TENANT_ID);
 
         scheduleStateRepository.persist(scheduleState);
 
@@ -137,17 +189,15 @@ public class DemoDataGenerator {
 
         // Persist predefined employees with their skills
         for (Employee employee : predefinedEmployeeList) {
+            employee.setTenantId(EmployeeScheduleResource.DEFAULT_TENANT_ID);
             employeeRepository.persist(employee);
         }
 
-        // Generate and persist only the unavailable dates for each predefined employee
+        // Generate and persist only the unavailable dates for each predefined employee, as merged ranges
+        AvailabilityRangeMerger merger = new AvailabilityRangeMerger(availabilityRepository,
+                EmployeeScheduleResource.DEFAULT_TENANT_ID, this::insert);
         for (Employee employee : predefinedEmployeeList) {
-            List<LocalDate> unavailableDates = employeeUnavailableDatesMap.get(employee.getName());
-            if (unavailableDates != null) {
-                for (LocalDate unavailableDate : unavailableDates) {
-                    availabilityRepository.persist(new Availability(employee, unavailableDate, AvailabilityType.UNAVAILABLE));
-                }
-            }
+            persistUnavailability(merger, employee, LocalDate.MIN, LocalDate.MAX);
         }
 
         // Update shift start times for "ED" location
@@ -161,18 +211,29 @@ public class DemoDataGenerator {
             }
         }
 
-        // Generate shifts for ED 
+        // Generate Rotations
 
-        for (LocalDate date = START_DATE; date.isBefore(START_DATE.plusDays(INITIAL_ROSTER_LENGTH_IN_DAYS - 1)); date = date.plusDays(1)) {
-            generateShiftsForDay(date, "ED cover");
-        }
+        generateRotationData();
 
-        // Generate Rotations and there block shifts
+        // Generate the ED cover and block shifts from their templates
 
-        generateRotationData();
+        generateTemplateShifts();
 
     }
 
+    // The programs are generated in parallel, then inserted table by table so every chunk is one full JDBC batch
+    private void generateSyntheticData() {
+        SyntheticDataGenerator.Parameters parameters = new SyntheticDataGenerator.Parameters(syntheticResidentsPerYear,
+                syntheticHorizonYears, syntheticLeaveDensity, syntheticHolidays, syntheticProgramCount,
+                EmployeeScheduleResource.DEFAULT_TENANT_ID, START_DATE, seed);
+        List<SyntheticDataGenerator.SyntheticProgram> programList = SyntheticDataGenerator.generate(parameters);
+        programList.forEach(program -> insert(program.scheduleState()));
+        programList.forEach(program -> program.employeeList().forEach(this::insert));
+        programList.forEach(program -> program.rotationList().forEach(this::insert));
+        programList.forEach(program -> program.availabilityList().forEach(this::insert));
+        programList.forEach(program -> program.shiftList().forEach(this::insert));
+    }
+
     private void initializeUnavailableDatesMap() {
         // Populate the map with unavailable dates for each resident
 
@@ -293,16 +354,14 @@ public class DemoDataGenerator {
         // ... other rotations ...
 
         // ... persist other rotations ...
+        for (Rotation rotation : List.of(rotationIR, nightShiftRotation, erDayShiftRotation, pedsRotation)) {
+            rotation.setTenantId(EmployeeScheduleResource.DEFAULT_TENANT_ID);
+        }
         rotationRepository.persist(rotationIR);
         rotationRepository.persist(nightShiftRotation);
         rotationRepository.persist(erDayShiftRotation);
         rotationRepository.persist(pedsRotation);
 
-       // generateBlockShifts("IR");
-        generateBlockShifts("Night Shift");
-       // generateBlockShifts("Day Shift");
-        generateBlockShifts("Peds");
-
     }
 
     private boolean isWeekend(LocalDate date) {
@@ -311,116 +370,80 @@ public class DemoDataGenerator {
     }
 
 
-    private void generateBlockShifts(String rotationName) {
-            LocalDate rosterEndDate = START_DATE.plusDays(INITIAL_ROSTER_LENGTH_IN_DAYS);
+    // SHIFT TEMPLATES
 
-            Set<String> assignedShiftsForRotation = switch (rotationName) {
-                case "IR" -> assignedIrShifts;
-                case "Night Shift" -> assignedNightShifts;
-                case "Day Shift" -> assignedDayShifts;
-                case "Peds" -> assignedPedsShifts;
-                default -> throw new IllegalArgumentException("Unknown rotation: " + rotationName);
-            };
+    // The coverage rules of the demo program, expanded over its first year
+    private void generateTemplateShifts() {
+        LocalDate lastEdCoverDate = START_DATE.plusDays(INITIAL_ROSTER_LENGTH_IN_DAYS - 2);
+        ShiftTemplate weekdayEdCover = new ShiftTemplate("ED cover weekday evening", Location.ED_COVER,
+                EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), EVENING_SHIFT_START_TIME, EVENING_SHIFT_LENGTH, START_DATE);
+        ShiftTemplate weekendEdCover = new ShiftTemplate("ED cover weekend", Location.ED_COVER,
+                EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), WEEKEND_SHIFT_START_TIME, WEEKEND_SHIFT_LENGTH, START_DATE);
+        for (ShiftTemplate edCover : List.of(weekdayEdCover, weekendEdCover)) {
+            edCover.setLastDate(lastEdCoverDate);
+            edCover.setExcludedDates(new HashSet<>(holidays));
+        }
+        // Monday 20:00 to Saturday 08:00
+        ShiftTemplate nightShift = new ShiftTemplate("Night Shift", Location.NIGHT_SHIFT, EnumSet.of(DayOfWeek.MONDAY),
+                NIGHT_SHIFT_START_TIME, Duration.ofDays(4).plusHours(12), START_DATE);
+        nightShift.setLastDate(LocalDate.of(2025, 6, 28));
+        // Two staggered series of twin blocks, from Sunday 10:00 to the Saturday evening two weeks later
+        ShiftTemplate firstPeds = new ShiftTemplate("Peds", Location.PEDS, EnumSet.of(DayOfWeek.SUNDAY), LocalTime.of(10, 0),
+                Duration.ofDays(13).plusHours(10), LocalDate.of(2024, 6, 30));
+        firstPeds.setLastDate(LocalDate.of(2025, 6, 27));
+        ShiftTemplate secondPeds = new ShiftTemplate("Peds staggered", Location.PEDS, EnumSet.of(DayOfWeek.SUNDAY),
+                LocalTime.of(10, 0), Duration.ofDays(13).plusHours(10), LocalDate.of(2024, 7, 7));
+        secondPeds.setLastDate(LocalDate.of(2025, 6, 20));
+        for (ShiftTemplate peds : List.of(firstPeds, secondPeds)) {
+            peds.setEveryWeeks(2);
+            peds.setSeats(2);
+            peds.setOptional(true);
+        }
+        List<ShiftTemplate> templateList = List.of(weekdayEdCover, weekendEdCover, nightShift, firstPeds, secondPeds);
+        for (ShiftTemplate template : templateList) {
+            template.setTenantId(EmployeeScheduleResource.DEFAULT_TENANT_ID);
+            shiftTemplateRepository.persist(template);
+        }
+        flushInserts();
+        // The first Peds block starts the day before START_DATE
+        List<Shift> shiftList = shiftTemplateExpander.expand(EmployeeScheduleResource.DEFAULT_TENANT_ID,
+                firstPeds.getFirstDate(), START_DATE.plusDays(INITIAL_ROSTER_LENGTH_IN_DAYS));
+        seedAssignments(shiftList, secondPeds.getId());
+    }
 
-            if ("Peds".equals(rotationName)) {
-                LocalDate firstPedsShiftStartDate = LocalDate.of(START_DATE.getYear(), 6, 30); // June 30th
-                LocalDate lastPedsShiftStartDate = LocalDate.of(rosterEndDate.getYear(), 6, 28); // Two weeks before the end of June
-                for (LocalDate date = firstPedsShiftStartDate; date.isBefore(lastPedsShiftStartDate); date = date.plusWeeks(2)) {
-                    LocalDateTime startDateTime = date.atTime(10, 0); // Assuming start time for Peds
-                    LocalDateTime endDateTime = date.plusDays(13).atTime(20, 0); // Two weeks later on Saturday evening
-
-                    List<Employee> eligibleEmployees = predefinedEmployeeList.stream()
-                        .filter(emp -> !assignedShiftsForRotation.contains(emp.getName()))
-                        .collect(Collectors.toList());
-
-                    createShift(startDateTime, endDateTime, rotationName, null, true);
-                    createShift(startDateTime, endDateTime, rotationName, null, true);
-                }
-                for (LocalDate date = firstPedsShiftStartDate.plusWeeks(1); date.isBefore(lastPedsShiftStartDate.minusWeeks(1)); date = date.plusWeeks(2)) {
-                    LocalDateTime startDateTime = date.atTime(10, 0); // Assuming start time for Peds
-                    LocalDateTime endDateTime = date.plusDays(13).atTime(20, 0); // Two weeks later on Saturday evening
-
-                    List<Employee> eligibleEmployees = predefinedEmployeeList.stream()
-                        .filter(emp -> !assignedShiftsForRotation.contains(emp.getName()))
-                        .collect(Collectors.toList());
-
-                    if (!eligibleEmployees.isEmpty()) {
-                        Employee selectedEmployee = pickRandomEmployee(eligibleEmployees);
-                        assignedShiftsForRotation.add(selectedEmployee.getName());
-                        createShift(startDateTime, endDateTime, rotationName, selectedEmployee, true); // Peds shifts are optional
-                        createShift(startDateTime, endDateTime, rotationName, selectedEmployee, true); // Peds shifts are optional
-                    } else {
-                        createShift(startDateTime, endDateTime, rotationName, null, true);
-                        createShift(startDateTime, endDateTime, rotationName, null, true);
-                    }
-                }                
-            } else if ("Night Shift".equals(rotationName)) {
-                LocalDate lastNightShiftStartDate = LocalDate.of(rosterEndDate.getYear(), 6, 29); // Last week of June
-                for (LocalDate date = START_DATE; date.isBefore(lastNightShiftStartDate); date = date.plusDays(7)) {
-                    LocalDateTime startDateTime = date.atTime(20, 0); // Start time for Night Shift
-                    LocalDateTime endDateTime = date.plusDays(5).atTime(8, 0); // Five days later in the morning
-
-                    List<Employee> eligibleEmployees = predefinedEmployeeList.stream()
-                        .filter(emp -> !assignedShiftsForRotation.contains(emp.getName()))
-                        .collect(Collectors.toList());
-
-                    if (!eligibleEmployees.isEmpty()) {
-                        Employee selectedEmployee = pickRandomEmployee(eligibleEmployees);
-                        assignedShiftsForRotation.add(selectedEmployee.getName());
-                        createShift(startDateTime, endDateTime, rotationName, selectedEmployee, false); // Night Shifts are not optional
-                    } else {
-                        createShift(startDateTime, endDateTime, rotationName, null, false);
-                    }
-                }
-            } else {
-                // Logic for other rotations...
-    
-                for (LocalDate date = START_DATE; date.isBefore(rosterEndDate); date = date.plusDays(7)) { // Weekly rotations
-                    LocalDateTime startDateTime = date.atTime(8, 0);
-                    LocalDateTime endDateTime = date.plusDays(4).atTime(14, 0);
-
-                    List<Employee> eEmployees = predefinedEmployeeList.stream()
-                            .filter(emp -> !assignedShiftsForRotation.contains(emp.getName()))
-                            .filter(emp -> {
-                                // Exclude R1 residents from Day and Night shifts
-                                /*
-                                if (("Day Shift".equals(rotationName) || "Night Shift".equals(rotationName)) && "R1".equals(emp.getEmployeeType())) {
-                                    return false;
-                                }*/
-                                return true;
-                            })
-                            .collect(Collectors.toList());
-
-                    if (!eEmployees.isEmpty()) {
-                        Employee sEmployee = pickRandomEmployee(eEmployees);
-                        assignedShiftsForRotation.add(sEmployee.getName());
-                        createShift(startDateTime, endDateTime, rotationName, sEmployee, rotationName.equals("IR")); // Assuming IR shifts are optional
-                    } else {
-                        // If no eligible employees left, continue creating shifts without assigning an employee
-                        createShift(startDateTime, endDateTime, rotationName, null, false);
-                    }
-                }
+    // The initial assignments: each resident gets at most one weekday and one weekend ED cover, one Night Shift block
+    // and both seats of one block of the staggered Peds series, in the order of the shifts
+    private void seedAssignments(List<Shift> shiftList, Long secondPedsTemplateId) {
+        Map<LocalDateTime, Employee> pedsEmployeeMap = new HashMap<>();
+        for (Shift shift : shiftList.stream().sorted(Comparator.comparing(Shift::getStart)).toList()) {
+            Employee employee = switch (shift.getLocation()) {
+                case ED_COVER -> pickUnassignedEmployee(isWeekend(shift.getStart().toLocalDate())
+                        ? assignedWeekendEdCoverResidents : assignedWeekdayEdCoverResidents);
+                case NIGHT_SHIFT -> pickUnassignedEmployee(assignedNightShifts);
+                case PEDS -> secondPedsTemplateId.equals(shift.getTemplateId())
+                        ? pedsEmployeeMap.computeIfAbsent(shift.getStart(), start -> pickUnassignedEmployee(assignedPedsShifts))
+                        : null;
+                default -> null;
+            };
+            if (employee != null) {
+                // The expansion may have cleared the shift from the session
+                shiftRepository.update("employee = ?1 where id = ?2", employee, shift.getId());
             }
-
         }
+    }
 
-
-    private void createShift(LocalDateTime start, LocalDateTime end, String rotationName, Employee assignedEmployee, boolean isOptional) {
-
-        // String requiredSkill = rotationName.equals("Night Shift") ? "RESIDENT" : null; // NIGHT shift requires type resident
-        String requiredSkill = "RESIDENT";
-
-        isOptional = rotationName.equals("IR"); // Set IR shifts as optional    
-        isOptional = rotationName.equals("Peds"); // Set Peds shifts as optional    
-
-        Shift blockShift; 
-
-        blockShift = new Shift(start, end, rotationName, requiredSkill, assignedEmployee);
-
-        blockShift.setOptional(isOptional);
-        shiftRepository.persist(blockShift);
+    private Employee pickUnassignedEmployee(Set<String> assignedNameSet) {
+        List<Employee> eligibleEmployees = predefinedEmployeeList.stream()
+                .filter(employee -> !assignedNameSet.contains(employee.getName()))
+                .toList();
+        if (eligibleEmployees.isEmpty()) {
+            return null;
+        }
+        Employee selectedEmployee = pickRandomEmployee(eligibleEmployees);
+        assignedNameSet.add(selectedEmployee.getName());
+        return selectedEmployee;
     }
-    
+
     private List<LocalDate> createDateRange(LocalDate start, LocalDate end) {
         List<LocalDate> dates = new ArrayList<>();
         while (!start.isAfter(end)) {
@@ -430,75 +453,10 @@ public class DemoDataGenerator {
         return dates;
     }
 
-    private void generateShiftsForDay(LocalDate date, String location) {
-        if (!location.equals("ED cover") || isHoliday(date)) {
-            return; // Skip or define alternative logic for other locations
-        }
-
-        List<Employee> eligibleEmployees = predefinedEmployeeList.stream()
-            .filter(emp -> emp.getSkillSet().contains("RESIDENT"))
-            .collect(Collectors.toList());
-
-        if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
-            // Generate a single 24-hour shift for the ED location on weekends
-            LocalDateTime shiftStartDateTime = date.atTime(WEEKEND_SHIFT_START_TIME);
-            LocalDateTime shiftEndDateTime = shiftStartDateTime.plusHours(WEEKEND_SHIFT_LENGTH.toHours());
-            Employee assignedEmployee = pickRandomEmployee(eligibleEmployees);
-            generateShiftForTimeslot(shiftStartDateTime, shiftEndDateTime, location, assignedEmployee);
-        } else {
-            // Generate updated evening shift for ED location
-            LocalDateTime eveningShiftStartDateTime = date.atTime(EVENING_SHIFT_START_TIME); // 2 PM start time
-            LocalDateTime eveningShiftEndDateTime = eveningShiftStartDateTime.plusHours(EVENING_SHIFT_LENGTH.toHours()); // 6-hour duration
-            Employee assignedEmployee = pickRandomEmployee(eligibleEmployees);
-
-            generateShiftForTimeslot(eveningShiftStartDateTime, eveningShiftEndDateTime, location, assignedEmployee);
-        }
-    }
-
-    private boolean isHoliday(LocalDate date) {
-        return holidays.contains(date);
-    }
-
     private Employee pickRandomEmployee(List<Employee> employees) {
-        return employees.get(new Random().nextInt(employees.size()));
+        return employees.get(random.nextInt(employees.size()));
     }
 
-    private void generateShiftForTimeslot(LocalDateTime start, LocalDateTime end, String location, Employee employee) {
-        String requiredSkill = "RESIDENT";
-        Shift newShift; // Declare the variable outside the if...else block
-
-        if (location.equals("ED cover")) {
-            boolean isWeekendShift = isWeekend(start.toLocalDate());
-            List<Employee> eligibleEmployees = predefinedEmployeeList.stream()
-                // .filter(emp -> !emp.getEmployeeType().equals("R1")) // Exclude R1 residents
-                // Check if the employee has not been assigned the current shift type (weekday or weekend)
-                .filter(emp -> (isWeekendShift && !assignedWeekendEdCoverResidents.contains(emp.getName())) || 
-                               (!isWeekendShift && !assignedWeekdayEdCoverResidents.contains(emp.getName())))
-                .collect(Collectors.toList());
-
-            if (!eligibleEmployees.isEmpty()) {
-                // Pick a random eligible employee who hasn't received the specific type of ED cover shift
-                Employee selectedEmployee = pickRandomEmployee(eligibleEmployees);
-                // Update tracking based on shift type
-                if (isWeekendShift) {
-                    assignedWeekendEdCoverResidents.add(selectedEmployee.getName());
-                } else {
-                    assignedWeekdayEdCoverResidents.add(selectedEmployee.getName());
-                }
-                newShift = new Shift(start, end, location, requiredSkill, selectedEmployee);
-            } else {
-                // If all eligible residents have been assigned or no specific logic is needed, create shift without assigning
-                newShift = new Shift(start, end, location, requiredSkill, null);
-            }
-        } else {
-            // Logic for non-ED cover shifts remains unchanged
-            newShift = new Shift(start, end, location, requiredSkill, employee);
-        }
-
-        shiftRepository.persist(newShift);
-    }    
-
-
     private <T> T pickRandom(T[] source, Random random) {
         return source[random.nextInt(source.length)];
     }
@@ -541,17 +499,54 @@ public class DemoDataGenerator {
 
     @Transactional
     public void generateDraftShifts(ScheduleState scheduleState) {
-        // Use predefinedEmployeeList instead of fetching from the repository
-        for (int i = 0; i < scheduleState.getPublishLength(); i++) {
-            LocalDate date = scheduleState.getFirstDraftDate().plusDays(i);
-
-            for (Employee employee : predefinedEmployeeList) {
-                List<LocalDate> unavailableDates = employeeUnavailableDatesMap.get(employee.getName());
-                if (unavailableDates != null && unavailableDates.contains(date)) {
-                    availabilityRepository.persist(new Availability(employee, date, AvailabilityType.UNAVAILABLE));
-                }
+        if (demoData == DemoData.SYNTHETIC || !EmployeeScheduleResource.DEFAULT_TENANT_ID.equals(scheduleState.getTenantId())) {
+            return; // The hard-coded leave dates only belong to the demo program
+        }
+        // Use predefinedEmployeeList instead of fetching from the repository.
+        // Leave already persisted at startup is covered, so the merger changes nothing for it.
+        AvailabilityRangeMerger merger = new AvailabilityRangeMerger(availabilityRepository,
+                scheduleState.getTenantId(), this::insert);
+        LocalDate from = scheduleState.getFirstDraftDate();
+        LocalDate to = from.plusDays(scheduleState.getPublishLength());
+        for (Employee employee : predefinedEmployeeList) {
+            persistUnavailability(merger, employee, from, to);
+        }
+        flushInserts();
+    }
+
+    // The employee's unavailable dates from inclusive to exclusive, one range per run of consecutive days
+    private void persistUnavailability(AvailabilityRangeMerger merger, Employee employee, LocalDate from, LocalDate to) {
+        List<LocalDate> unavailableDates = employeeUnavailableDatesMap.get(employee.getName());
+        if (unavailableDates == null) {
+            return;
+        }
+        List<LocalDate> sortedDates = unavailableDates.stream()
+                .filter(date -> !date.isBefore(from) && date.isBefore(to))
+                .distinct()
+                .sorted()
+                .toList();
+        int runStart = 0;
+        for (int i = 1; i <= sortedDates.size(); i++) {
+            if (i == sortedDates.size() || !sortedDates.get(i).equals(sortedDates.get(i - 1).plusDays(1))) {
+                merger.add(employee, sortedDates.get(runStart), sortedDates.get(i - 1), AvailabilityType.UNAVAILABLE);
+                runStart = i;
             }
         }
     }
 
+    // Persisting only assigns the id (from the pooled sequence), the rows are written per chunk.
+    // Clearing keeps the session small, nothing generated is modified after it's persisted.
+    private void insert(Object entity) {
+        shiftRepository.getEntityManager().persist(entity);
+        if (++unflushedInsertCount >= INSERT_CHUNK_SIZE) {
+            flushInserts();
+        }
+    }
+
+    private void flushInserts() {
+        shiftRepository.getEntityManager().flush();
+        shiftRepository.getEntityManager().clear();
+        unflushedInsertCount = 0;
+    }
+
 }
@@ -0,0 +1,361 @@
+package org.acme.employeescheduling.bootstrap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import org.acme.employeescheduling.domain.AvailabilityType;
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.ResidentYear;
+import org.acme.employeescheduling.domain.Rotation;
+import org.acme.employeescheduling.domain.ScheduleState;
+import org.acme.employeescheduling.domain.ShiftTemplate;
+import org.acme.employeescheduling.persistence.AvailabilityRangeMerger;
+import org.acme.employeescheduling.persistence.AvailabilityRepository;
+import org.acme.employeescheduling.persistence.EmployeeRepository;
+import org.acme.employeescheduling.persistence.RotationRepository;
+import org.acme.employeescheduling.persistence.ScheduleStateRepository;
+import org.acme.employeescheduling.persistence.ShiftRepository;
+import org.acme.employeescheduling.persistence.ShiftTemplateExpander;
+import org.acme.employeescheduling.persistence.ShiftTemplateRepository;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Loads a declarative roster definition (JSON) into a schedule, instead of the hard-coded demo data:
+ * <pre>
+ * {
+ *   "schedule": { "firstDraftDate": "2024-07-01", "draftLength": 365, "publishLength": 365 },
+ *   "holidays": [ "2024-07-04", "2024-09-02" ],
+ *   "residents": [
+ *     { "name": "R2a A", "year": "R2", "leave": [ { "from": "2024-08-24", "to": "2024-09-01" } ] }
+ *   ],
+ *   "rotations": [ { "residentType": "NightShiftType", "requiredBlocks": { "Night Shift": 8 } } ],
+ *   "shiftTemplates": [
+ *     { "location": "ED cover", "days": [ "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY" ],
+ *       "start": "14:00", "duration": "PT6H" },
+ *     { "location": "Peds", "days": [ "SUNDAY" ], "start": "10:00", "duration": "P13DT10H", "everyWeeks": 2,
+ *       "firstDate": "2024-06-30", "seats": 2, "optional": true, "skipHolidays": false }
+ *   ]
+ * }
+ * </pre>
+ * The file is parsed as a stream: each resident is inserted as soon as it's read, so its size doesn't matter.
+ * Loading is idempotent: residents are matched by name, leave is merged into the resident's ranges (see
+ * AvailabilityRangeMerger), rotations by resident type and shift templates by name, so loading the same file
+ * twice changes nothing.
+ */
+@ApplicationScoped
+public class RosterLoader {
+
+    private static final Logger LOGGER = Logger.getLogger(RosterLoader.class);
+
+    // Same as quarkus.hibernate-orm.jdbc.statement-batch-size
+    private static final int INSERT_CHUNK_SIZE = 100;
+
+    @Inject
+    ObjectMapper objectMapper;
+    @Inject
+    ScheduleStateRepository scheduleStateRepository;
+    @Inject
+    EmployeeRepository employeeRepository;
+    @Inject
+    AvailabilityRepository availabilityRepository;
+    @Inject
+    RotationRepository rotationRepository;
+    @Inject
+    ShiftRepository shiftRepository;
+    @Inject
+    ShiftTemplateRepository shiftTemplateRepository;
+    @Inject
+    ShiftTemplateExpander shiftTemplateExpander;
+
+    @ConfigProperty(name = "schedule.roster.file")
+    Optional<Path> rosterFile;
+    @ConfigProperty(name = "schedule.roster.tenant-id", defaultValue = "1")
+    Long rosterTenantId;
+
+    public record ScheduleDefinition(LocalDate firstDraftDate, Integer draftLength, Integer publishLength,
+            Integer spentLimitMinutes) {
+    }
+
+    public record LeaveDefinition(LocalDate from, LocalDate to, AvailabilityType type) {
+
+        public LeaveDefinition {
+            if (from == null || to == null || to.isBefore(from)) {
+                throw new IllegalArgumentException("The leave from (" + from + ") to (" + to + ") is not a date range.");
+            }
+            type = type == null ? AvailabilityType.UNAVAILABLE : type;
+        }
+    }
+
+    public record ResidentDefinition(String name, ResidentYear year, Set<String> skills, List<LeaveDefinition> leave) {
+
+        public ResidentDefinition {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("A resident has no name.");
+            }
+            name = name.strip();
+            skills = skills == null ? Set.of("RESIDENT") : skills;
+            leave = leave == null ? List.of() : leave;
+        }
+    }
+
+    public record RotationDefinition(String residentType, Map<String, Integer> requiredBlocks) {
+    }
+
+    // Every everyWeeks weeks from firstDate (the first draft date by default) up to lastDate (if any), on each of the days.
+    // The name identifies the template when the roster is loaded again, it defaults to the location, start and firstDate.
+    public record ShiftTemplateDefinition(String name, Location location, Set<DayOfWeek> days, LocalTime start,
+            Duration duration, Integer everyWeeks, LocalDate firstDate, LocalDate lastDate, Integer seats,
+            String requiredSkill, Boolean optional, Boolean skipHolidays) {
+
+        public ShiftTemplateDefinition {
+            if (location == null || days == null || days.isEmpty() || start == null || duration == null
+                    || duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("The shift template (" + location
+                        + ") needs a location, days, a start and a positive duration.");
+            }
+            everyWeeks = everyWeeks == null ? 1 : everyWeeks;
+            seats = seats == null ? 1 : seats;
+            if (everyWeeks < 1 || seats < 1) {
+                throw new IllegalArgumentException("The shift template (" + location + ") needs everyWeeks ("
+                        + everyWeeks + ") and seats (" + seats + ") of at least 1.");
+            }
+            requiredSkill = requiredSkill == null ? "RESIDENT" : requiredSkill;
+            optional = optional != null && optional;
+            skipHolidays = skipHolidays == null || skipHolidays;
+            name = name != null ? name.strip() : location + " " + start + (firstDate == null ? "" : " from " + firstDate);
+        }
+
+        ShiftTemplate toShiftTemplate(LocalDate defaultFirstDate, Set<LocalDate> holidaySet) {
+            ShiftTemplate template = new ShiftTemplate(name, location, days, start, duration,
+                    firstDate == null ? defaultFirstDate : firstDate);
+            template.setLastDate(lastDate);
+            template.setEveryWeeks(everyWeeks);
+            template.setSeats(seats);
+            template.setRequiredSkill(requiredSkill);
+            template.setOptional(optional);
+            template.setExcludedDates(skipHolidays ? new HashSet<>(holidaySet) : new HashSet<>());
+            return template;
+        }
+    }
+
+    public record Report(int residents, int leaveDays, int rotations, int shifts) {
+    }
+
+    private final class Load {
+
+        private final Long tenantId;
+        private final Map<String, Employee> employeeMap = new HashMap<>();
+        private final AvailabilityRangeMerger leaveMerger;
+        private ScheduleDefinition scheduleDefinition;
+        private final Set<LocalDate> holidaySet = new HashSet<>();
+        private final List<RotationDefinition> rotationDefinitionList = new ArrayList<>();
+        private final List<ShiftTemplateDefinition> shiftTemplateDefinitionList = new ArrayList<>();
+        private int residentCount = 0;
+        private int leaveDayCount = 0;
+        private int rotationCount = 0;
+        private int shiftCount = 0;
+        private int unflushedInsertCount = 0;
+
+        private Load(Long tenantId) {
+            this.tenantId = tenantId;
+            for (Employee employee : employeeRepository.listByTenant(tenantId)) {
+                employeeMap.put(employee.getName(), employee);
+            }
+            leaveMerger = new AvailabilityRangeMerger(availabilityRepository, tenantId, this::insert);
+        }
+
+        private void insert(Object entity) {
+            EntityManager entityManager = shiftRepository.getEntityManager();
+            entityManager.persist(entity);
+            if (++unflushedInsertCount >= INSERT_CHUNK_SIZE) {
+                entityManager.flush();
+                entityManager.clear();
+                unflushedInsertCount = 0;
+            }
+        }
+    }
+
+    // Runs after the DemoDataGenerator (default priority), before the ShiftCountProjection reads the shifts
+    void loadOnStartup(@Observes @Priority(Interceptor.Priority.APPLICATION + 550) StartupEvent startupEvent)
+            throws IOException {
+        if (rosterFile.isEmpty()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        Report report;
+        try (InputStream in = Files.newInputStream(rosterFile.get())) {
+            report = load(rosterTenantId, in);
+        }
+        LOGGER.infof("Loaded roster (%s) into schedule (%d) in %d ms: %s.", rosterFile.get(), rosterTenantId,
+                (System.nanoTime() - startNanos) / 1_000_000, report);
+    }
+
+    // Throws IllegalArgumentException (or a DateTimeException) for an invalid definition, nothing is loaded then
+    @Transactional(rollbackOn = IOException.class)
+    public Report load(Long tenantId, InputStream body) throws IOException {
+        Load load = new Load(tenantId);
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("A roster definition must be a JSON object.");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+                switch (fieldName) {
+                    case "schedule" -> load.scheduleDefinition = objectMapper.readValue(parser, ScheduleDefinition.class);
+                    case "holidays" -> load.holidaySet.addAll(List.of(objectMapper.readValue(parser, LocalDate[].class)));
+                    case "residents" -> {
+                        expectArray(parser, fieldName);
+                        // One resident at a time, the list itself is never held in memory
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            loadResident(load, objectMapper.readValue(parser, ResidentDefinition.class));
+                        }
+                    }
+                    case "rotations" -> load.rotationDefinitionList.addAll(
+                            List.of(objectMapper.readValue(parser, RotationDefinition[].class)));
+                    case "shiftTemplates" -> load.shiftTemplateDefinitionList.addAll(
+                            List.of(objectMapper.readValue(parser, ShiftTemplateDefinition[].class)));
+                    default -> throw new IllegalArgumentException("Unknown roster field (" + fieldName + ").");
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // Includes the exceptions of the definition constructors, wrapped by Jackson
+            Throwable cause = e.getCause() instanceof IllegalArgumentException ? e.getCause() : e;
+            throw new IllegalArgumentException("Invalid roster definition: " + (cause == e ? e.getOriginalMessage()
+                    : cause.getMessage()), e);
+        }
+        // The schedule, holidays and templates may come after the residents in the file
+        ScheduleState scheduleState = loadScheduleState(load);
+        loadRotations(load);
+        loadShifts(load, scheduleState);
+        shiftRepository.flush();
+        return new Report(load.residentCount, load.leaveDayCount, load.rotationCount, load.shiftCount);
+    }
+
+    private static void expectArray(JsonParser parser, String fieldName) {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("The roster field (" + fieldName + ") must be an array.");
+        }
+    }
+
+    private void loadResident(Load load, ResidentDefinition definition) {
+        Employee employee = load.employeeMap.get(definition.name());
+        if (employee == null) {
+            employee = new Employee(definition.name(), new HashSet<>(definition.skills()), definition.year());
+            employee.setTenantId(load.tenantId);
+            load.insert(employee);
+            load.employeeMap.put(employee.getName(), employee);
+        } else {
+            // Attached again, an earlier chunk may have cleared it
+            Employee attachedEmployee = employeeRepository.getEntityManager().find(Employee.class, employee.getId());
+            attachedEmployee.setEmployeeType(definition.year());
+            attachedEmployee.setSkillSet(new HashSet<>(definition.skills()));
+        }
+        load.residentCount++;
+        for (LeaveDefinition leave : definition.leave()) {
+            load.leaveDayCount += load.leaveMerger.add(employee, leave.from(), leave.to(), leave.type());
+        }
+    }
+
+    private ScheduleState loadScheduleState(Load load) {
+        ScheduleState scheduleState = scheduleStateRepository.findById(load.tenantId);
+        ScheduleDefinition definition = load.scheduleDefinition;
+        if (definition == null) {
+            if (scheduleState == null) {
+                throw new IllegalArgumentException("There is no schedule with id (" + load.tenantId
+                        + ") and the roster has no schedule field to create it.");
+            }
+            return scheduleState;
+        }
+        if (scheduleState == null) {
+            if (definition.firstDraftDate() == null || definition.draftLength() == null || definition.publishLength() == null) {
+                throw new IllegalArgumentException("A new schedule needs a firstDraftDate, draftLength and publishLength.");
+            }
+            scheduleState = new ScheduleState();
+            scheduleState.setTenantId(load.tenantId);
+            scheduleState.setLastHistoricDate(definition.firstDraftDate().minusDays(definition.publishLength()));
+            scheduleStateRepository.persist(scheduleState);
+        }
+        if (definition.firstDraftDate() != null) {
+            scheduleState.setFirstDraftDate(definition.firstDraftDate());
+        }
+        if (definition.draftLength() != null) {
+            scheduleState.setDraftLength(definition.draftLength());
+        }
+        if (definition.publishLength() != null) {
+            scheduleState.setPublishLength(definition.publishLength());
+        }
+        if (definition.spentLimitMinutes() != null) {
+            scheduleState.setSpentLimitMinutes(definition.spentLimitMinutes());
+        }
+        return scheduleState;
+    }
+
+    private void loadRotations(Load load) {
+        Map<String, Rotation> rotationMap = new HashMap<>();
+        for (Rotation rotation : rotationRepository.listByTenant(load.tenantId)) {
+            rotationMap.put(rotation.getResidentType(), rotation);
+        }
+        for (RotationDefinition definition : load.rotationDefinitionList) {
+            Rotation rotation = rotationMap.get(definition.residentType());
+            if (rotation == null) {
+                rotation = new Rotation(definition.residentType(), new HashMap<>(definition.requiredBlocks()));
+                rotation.setTenantId(load.tenantId);
+                rotationRepository.persist(rotation);
+                rotationMap.put(rotation.getResidentType(), rotation);
+            } else {
+                rotation.setRequiredBlocks(new HashMap<>(definition.requiredBlocks()));
+            }
+            load.rotationCount++;
+        }
+    }
+
+    // Stores the templates (matched by name) and expands them over the draft period: a new template only adds
+    // the seats that don't exist yet, a changed one also moves or removes its draft shifts (see ShiftTemplateExpander)
+    private void loadShifts(Load load, ScheduleState scheduleState) {
+        if (load.shiftTemplateDefinitionList.isEmpty()) {
+            return;
+        }
+        shiftRepository.flush();
+        LocalDate firstDate = scheduleState.getFirstDraftDate();
+        LocalDate endDate = firstDate.plusDays(scheduleState.getDraftLength());
+        for (ShiftTemplateDefinition definition : load.shiftTemplateDefinitionList) {
+            ShiftTemplate template = definition.toShiftTemplate(firstDate, load.holidaySet);
+            ShiftTemplate existing = shiftTemplateRepository.findByTenantAndName(load.tenantId, template.getName());
+            ShiftTemplateExpander.Reconciliation reconciliation = existing == null
+                    ? shiftTemplateExpander.create(load.tenantId, template, firstDate, endDate)
+                    : shiftTemplateExpander.update(existing.getId(), template, firstDate, endDate);
+            load.shiftCount += reconciliation.insertedList().size();
+        }
+    }
+}
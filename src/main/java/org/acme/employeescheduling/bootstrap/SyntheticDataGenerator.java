@@ -0,0 +1,319 @@
+package org.acme.employeescheduling.bootstrap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import org.acme.employeescheduling.domain.Availability;
+import org.acme.employeescheduling.domain.AvailabilityType;
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.ResidentYear;
+import org.acme.employeescheduling.domain.Rotation;
+import org.acme.employeescheduling.domain.ScheduleState;
+import org.acme.employeescheduling.domain.Shift;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Generates residency programs of any size with the same structure as the demo data: daily ED cover (weekday
+ * evenings, 24h on weekends, none on holidays), weekly Night Shift blocks and two staggered series of twin Peds blocks.
+ * All shifts are left unassigned. Leave comes in vacation sized ranges until the leave density is reached,
+ * plus one holiday off per resident and year.
+ * <p>
+ * The same parameters always give the same programs. Used by the SYNTHETIC demo data, by tests, and from the command
+ * line to write programs as JSON (the format GET /schedules/{id} returns), for example:
+ * <pre>
+ * mvn compile exec:java -Dexec.mainClass=org.acme.employeescheduling.bootstrap.SyntheticDataGenerator \
+ *     -Dexec.args="--residents=6,6,6 --years=2 --leave-density=0.08 --programs=2 --seed=37 --output=target/synthetic"
+ * </pre>
+ */
+public class SyntheticDataGenerator {
+
+    public static final ResidentYear[] RESIDENT_YEARS = { ResidentYear.R2, ResidentYear.R3, ResidentYear.R4 };
+
+    // Vacation lengths in days, a week with both weekends is the most common
+    private static final int[] LEAVE_LENGTHS = { 3, 5, 9, 9, 9, 16 };
+
+    public enum Holiday {
+        JULY_4,
+        LABOR_DAY,
+        THANKSGIVING,
+        CHRISTMAS,
+        NEW_YEAR,
+        MEMORIAL_DAY;
+
+        // The academic year runs from July to June, so the last two fall in the next calendar year
+        public LocalDate inAcademicYear(int startYear) {
+            return switch (this) {
+                case JULY_4 -> LocalDate.of(startYear, Month.JULY, 4);
+                case LABOR_DAY -> LocalDate.of(startYear, Month.SEPTEMBER, 1)
+                        .with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
+                case THANKSGIVING -> LocalDate.of(startYear, Month.NOVEMBER, 1)
+                        .with(TemporalAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY));
+                case CHRISTMAS -> LocalDate.of(startYear, Month.DECEMBER, 25);
+                case NEW_YEAR -> LocalDate.of(startYear + 1, Month.JANUARY, 1);
+                case MEMORIAL_DAY -> LocalDate.of(startYear + 1, Month.MAY, 1)
+                        .with(TemporalAdjusters.lastInMonth(DayOfWeek.MONDAY));
+            };
+        }
+    }
+
+    /**
+     * @param residentsPerYear the number of R2, R3 and R4 residents, in that order
+     * @param horizonYears the number of academic years, each starting on the anniversary of the start date
+     * @param leaveDensity the fraction of days each resident is on leave, for example 0.05
+     * @param programCount the number of programs, their tenant ids start at firstTenantId
+     */
+    public record Parameters(int[] residentsPerYear, int horizonYears, double leaveDensity, Set<Holiday> holidays,
+            int programCount, Long firstTenantId, LocalDate startDate, long seed) {
+
+        public Parameters {
+            if (residentsPerYear.length != RESIDENT_YEARS.length) {
+                throw new IllegalArgumentException("The residentsPerYear (" + Arrays.toString(residentsPerYear)
+                        + ") must have one count for each of " + Arrays.toString(RESIDENT_YEARS) + ".");
+            }
+            if (horizonYears < 1 || programCount < 1) {
+                throw new IllegalArgumentException("The horizonYears (" + horizonYears + ") and programCount ("
+                        + programCount + ") must be at least 1.");
+            }
+            if (leaveDensity < 0.0 || leaveDensity >= 1.0) {
+                throw new IllegalArgumentException("The leaveDensity (" + leaveDensity + ") must be in [0, 1).");
+            }
+            // Iterated in declaration order, whatever set was passed in
+            holidays = holidays.isEmpty() ? EnumSet.noneOf(Holiday.class) : EnumSet.copyOf(holidays);
+        }
+
+        // Like the demo program: 2 residents per year, 1 year from 2024-07-01, all holidays
+        public static Parameters of(int residentsPerYear, int horizonYears) {
+            int[] counts = new int[RESIDENT_YEARS.length];
+            Arrays.fill(counts, residentsPerYear);
+            return new Parameters(counts, horizonYears, 0.05, EnumSet.allOf(Holiday.class), 1, 1L,
+                    DemoDataGenerator.START_DATE, 37L);
+        }
+
+        public int residentCount() {
+            return Arrays.stream(residentsPerYear).sum();
+        }
+    }
+
+    public record SyntheticProgram(ScheduleState scheduleState, List<Employee> employeeList,
+            List<Availability> availabilityList, List<Shift> shiftList, List<Rotation> rotationList) {
+
+        // For use without a database: numbers the employees, availabilities and shifts that don't have an id yet
+        public EmployeeSchedule toSolution() {
+            long id = 0L;
+            for (Employee employee : employeeList) {
+                if (employee.getId() == null) {
+                    employee.setId(id++);
+                }
+            }
+            for (Availability availability : availabilityList) {
+                if (availability.getId() == null) {
+                    availability.setId(id++);
+                }
+            }
+            for (Shift shift : shiftList) {
+                if (shift.getId() == null) {
+                    shift.setId(id++);
+                }
+            }
+            return new EmployeeSchedule(scheduleState, availabilityList, employeeList, shiftList);
+        }
+    }
+
+    private SyntheticDataGenerator() {
+    }
+
+    // Programs are independent, so they're generated in parallel. The result doesn't depend on the thread count.
+    public static List<SyntheticProgram> generate(Parameters parameters) {
+        return IntStream.range(0, parameters.programCount())
+                .parallel()
+                .mapToObj(i -> generateProgram(parameters, parameters.firstTenantId() + i))
+                .toList();
+    }
+
+    // Each program draws from its own random, derived from the seed and its tenant id only
+    static SyntheticProgram generateProgram(Parameters parameters, Long tenantId) {
+        Random random = new Random(parameters.seed() * 31 + tenantId);
+        LocalDate startDate = parameters.startDate();
+        LocalDate endDate = startDate.plusYears(parameters.horizonYears());
+        int horizonDays = (int) ChronoUnit.DAYS.between(startDate, endDate);
+
+        ScheduleState scheduleState = new ScheduleState();
+        scheduleState.setTenantId(tenantId);
+        scheduleState.setFirstDraftDate(startDate);
+        scheduleState.setDraftLength(horizonDays);
+        scheduleState.setPublishLength(365);
+        scheduleState.setLastHistoricDate(startDate.minusDays(365));
+
+        List<Employee> employeeList = new ArrayList<>(parameters.residentCount());
+        for (int year = 0; year < RESIDENT_YEARS.length; year++) {
+            for (int i = 1; i <= parameters.residentsPerYear()[year]; i++) {
+                Employee employee = new Employee(String.format("%s-%02d", RESIDENT_YEARS[year], i), Set.of("RESIDENT"),
+                        RESIDENT_YEARS[year]);
+                employee.setTenantId(tenantId);
+                employeeList.add(employee);
+            }
+        }
+
+        List<LocalDate> holidayList = new ArrayList<>();
+        for (int year = 0; year < parameters.horizonYears(); year++) {
+            for (Holiday holiday : parameters.holidays()) {
+                holidayList.add(holiday.inAcademicYear(startDate.getYear() + year));
+            }
+        }
+        Set<LocalDate> holidaySet = new TreeSet<>(holidayList);
+
+        List<Availability> availabilityList = new ArrayList<>();
+        for (Employee employee : employeeList) {
+            BitSet leaveDays = new BitSet(horizonDays);
+            for (int year = 0; year < parameters.horizonYears(); year++) {
+                int yearStart = (int) ChronoUnit.DAYS.between(startDate, startDate.plusYears(year));
+                int yearEnd = (int) ChronoUnit.DAYS.between(startDate, startDate.plusYears(year + 1));
+                int targetDays = (int) Math.round(parameters.leaveDensity() * (yearEnd - yearStart));
+                while (leaveDays.get(yearStart, yearEnd).cardinality() < targetDays) {
+                    int length = Math.min(LEAVE_LENGTHS[random.nextInt(LEAVE_LENGTHS.length)],
+                            targetDays - leaveDays.get(yearStart, yearEnd).cardinality());
+                    int start = yearStart + random.nextInt(yearEnd - yearStart - length + 1);
+                    leaveDays.set(start, start + length);
+                }
+                if (!parameters.holidays().isEmpty()) {
+                    List<Holiday> holidays = new ArrayList<>(parameters.holidays());
+                    LocalDate holidayOff = holidays.get(random.nextInt(holidays.size()))
+                            .inAcademicYear(startDate.getYear() + year);
+                    long day = ChronoUnit.DAYS.between(startDate, holidayOff);
+                    if (day >= 0 && day < horizonDays) {
+                        leaveDays.set((int) day);
+                    }
+                }
+            }
+            // One range per run of leave days, so adjacent vacations end up merged like AvailabilityRangeMerger does
+            for (int day = leaveDays.nextSetBit(0); day >= 0; day = leaveDays.nextSetBit(day)) {
+                int runEnd = leaveDays.nextClearBit(day);
+                Availability availability = new Availability(employee, startDate.plusDays(day), startDate.plusDays(runEnd - 1),
+                        AvailabilityType.UNAVAILABLE);
+                day = runEnd;
+                availability.setTenantId(tenantId);
+                availabilityList.add(availability);
+            }
+        }
+
+        List<Shift> shiftList = new ArrayList<>();
+        for (LocalDate date = startDate; date.isBefore(endDate); date = date.plusDays(1)) {
+            if (holidaySet.contains(date)) {
+                continue;
+            }
+            boolean weekend = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+            LocalDateTime start = date.atTime(weekend ? DemoDataGenerator.WEEKEND_SHIFT_START_TIME
+                    : DemoDataGenerator.EVENING_SHIFT_START_TIME);
+            LocalDateTime end = start.plus(weekend ? DemoDataGenerator.WEEKEND_SHIFT_LENGTH
+                    : DemoDataGenerator.EVENING_SHIFT_LENGTH);
+            shiftList.add(shift(tenantId, start, end, Location.ED_COVER, false));
+        }
+        for (int year = 0; year < parameters.horizonYears(); year++) {
+            LocalDate yearStart = startDate.plusYears(year);
+            LocalDate yearEnd = startDate.plusYears(year + 1);
+            // Night Shift: weekly from the start of the year, 20:00 to 08:00 five days later
+            for (LocalDate date = yearStart; date.plusDays(5).isBefore(yearEnd); date = date.plusWeeks(1)) {
+                shiftList.add(shift(tenantId, date.atTime(20, 0), date.plusDays(5).atTime(8, 0), Location.NIGHT_SHIFT, false));
+            }
+            // Peds: two week blocks from the Sunday before, in two series a week apart, each block staffed twice
+            LocalDate firstPedsDate = yearStart.minusDays(1);
+            for (LocalDate date = firstPedsDate; date.plusDays(13).isBefore(yearEnd); date = date.plusWeeks(1)) {
+                LocalDateTime start = date.atTime(10, 0);
+                LocalDateTime end = date.plusDays(13).atTime(20, 0);
+                shiftList.add(shift(tenantId, start, end, Location.PEDS, true));
+                shiftList.add(shift(tenantId, start, end, Location.PEDS, true));
+            }
+        }
+
+        List<Rotation> rotationList = new ArrayList<>();
+        Map<String, Map<String, Integer>> rotationRequirements = new LinkedHashMap<>();
+        rotationRequirements.put("IRShiftType", Map.of("IR", 4));
+        rotationRequirements.put("NightShiftType", Map.of("Night Shift", 8));
+        rotationRequirements.put("ERDayShiftType", Map.of("Day Shift", 5));
+        rotationRequirements.put("PedsType", Map.of("Peds", 2));
+        rotationRequirements.forEach((residentType, requiredBlocks) -> {
+            Rotation rotation = new Rotation(residentType, new HashMap<>(requiredBlocks));
+            rotation.setTenantId(tenantId);
+            rotationList.add(rotation);
+        });
+
+        return new SyntheticProgram(scheduleState, employeeList, availabilityList, shiftList, rotationList);
+    }
+
+    private static Shift shift(Long tenantId, LocalDateTime start, LocalDateTime end, Location location, boolean optional) {
+        Shift shift = Shift.create(start, end, location, "RESIDENT", null, optional);
+        shift.setTenantId(tenantId);
+        return shift;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Parameters defaults = Parameters.of(2, 1);
+        int[] residentsPerYear = defaults.residentsPerYear();
+        int horizonYears = defaults.horizonYears();
+        double leaveDensity = defaults.leaveDensity();
+        Set<Holiday> holidays = defaults.holidays();
+        int programCount = defaults.programCount();
+        long seed = defaults.seed();
+        Path output = Path.of("target", "synthetic");
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("The argument (" + arg + ") is not of the form --key=value.");
+            }
+            String value = keyValue[1];
+            switch (keyValue[0]) {
+                case "--residents" -> residentsPerYear = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--years" -> horizonYears = Integer.parseInt(value);
+                case "--leave-density" -> leaveDensity = Double.parseDouble(value);
+                case "--holidays" -> {
+                    holidays = EnumSet.noneOf(Holiday.class);
+                    for (String holiday : value.split(",")) {
+                        if (!holiday.isBlank()) {
+                            holidays.add(Holiday.valueOf(holiday.strip()));
+                        }
+                    }
+                }
+                case "--programs" -> programCount = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--output" -> output = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown argument (" + keyValue[0] + ").");
+            }
+        }
+        Parameters parameters = new Parameters(residentsPerYear, horizonYears, leaveDensity, holidays, programCount,
+                defaults.firstTenantId(), defaults.startDate(), seed);
+
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Files.createDirectories(output);
+        for (SyntheticProgram program : generate(parameters)) {
+            Long tenantId = program.scheduleState().getTenantId();
+            Path file = output.resolve("program-" + tenantId + ".json");
+            objectMapper.writeValue(file.toFile(), program.toSolution());
+            System.out.printf("Program %d: %d residents, %d shifts, %d leave ranges, written to %s.%n", tenantId,
+                    program.employeeList().size(), program.shiftList().size(), program.availabilityList().size(), file);
+        }
+    }
+}
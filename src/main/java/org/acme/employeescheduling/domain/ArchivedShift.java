@@ -0,0 +1,95 @@
+package org.acme.employeescheduling.domain;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * A shift of an earlier academic year, moved out of the Shift table by the ShiftArchiver.
+ * It keeps the id and columns of its shift, but it isn't a planning entity: the solver only sees
+ * the per-resident totals of the archive (see HistoricShiftSummary).
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_archived_shift_tenant_start", columnList = "tenantId, start"),
+        @Index(name = "idx_archived_shift_employee", columnList = "employee_id")
+})
+public class ArchivedShift {
+
+    @Id
+    Long id; // The id the shift had, so the assignment history still finds it
+
+    Long tenantId;
+
+    LocalDateTime start;
+    @Column(name = "endDateTime") // "end" clashes with H2 syntax.
+    LocalDateTime end;
+
+    Location location;
+    String requiredSkill;
+
+    @ManyToOne
+    Employee employee;
+
+    boolean isOptional;
+
+    Long templateId;
+
+    public ArchivedShift() {
+    }
+
+    // A detached copy as it was when archived, for the counters that span every year (see ShiftCountProjection)
+    public Shift toShift() {
+        Shift shift = Shift.create(start, end, location, requiredSkill, employee, isOptional);
+        shift.setId(id);
+        shift.setTenantId(tenantId);
+        shift.setTemplateId(templateId);
+        return shift;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public Location getLocation() {
+        return location;
+    }
+
+    public String getRequiredSkill() {
+        return requiredSkill;
+    }
+
+    public Employee getEmployee() {
+        return employee;
+    }
+
+    public boolean isOptional() {
+        return isOptional;
+    }
+
+    public Long getTemplateId() {
+        return templateId;
+    }
+
+    @Override
+    public String toString() {
+        return location + " " + start + "-" + end;
+    }
+}
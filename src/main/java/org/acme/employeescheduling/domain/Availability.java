@@ -1,26 +1,43 @@
 package org.acme.employeescheduling.domain;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_availability_tenant_date", columnList = "tenantId, date"),
+        @Index(name = "idx_availability_employee_date", columnList = "employee_id, date")
+})
 public class Availability {
 
     @PlanningId
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "availability_seq")
+    @SequenceGenerator(name = "availability_seq", sequenceName = "Availability_SEQ", allocationSize = 100)
     Long id;
 
+    Long tenantId;
+
     @ManyToOne
     Employee employee;
 
+    // A range of days, both inclusive: one row per leave instead of one per day.
+    // Per employee, ranges never overlap (see AvailabilityRangeMerger).
     LocalDate date;
+    LocalDate endDate;
 
     AvailabilityType availabilityType;
 
@@ -28,8 +45,13 @@ public class Availability {
     }
 
     public Availability(Employee employee, LocalDate date, AvailabilityType availabilityType) {
+        this(employee, date, date, availabilityType);
+    }
+
+    public Availability(Employee employee, LocalDate date, LocalDate endDate, AvailabilityType availabilityType) {
         this.employee = employee;
         this.date = date;
+        this.endDate = endDate;
         this.availabilityType = availabilityType;
     }
 
@@ -41,6 +63,14 @@ public class Availability {
         this.id = id;
     }
 
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(Long tenantId) {
+        this.tenantId = tenantId;
+    }
+
     public Employee getEmployee() {
         return employee;
     }
@@ -57,6 +87,32 @@ public class Availability {
         this.date = localDate;
     }
 
+    // A single day when not set, as older clients only send the date
+    public LocalDate getEndDate() {
+        return endDate == null ? date : endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    @JsonIgnore
+    public LocalDate getEndDateExclusive() {
+        return getEndDate().plusDays(1);
+    }
+
+    @JsonIgnore
+    public boolean contains(LocalDate day) {
+        return !day.isBefore(date) && !day.isAfter(getEndDate());
+    }
+
+    // The number of days of this range within from and to, both inclusive
+    public int countOverlappingDays(LocalDate from, LocalDate to) {
+        LocalDate overlapStart = from.isAfter(date) ? from : date;
+        LocalDate overlapEnd = to.isBefore(getEndDate()) ? to : getEndDate();
+        return overlapEnd.isBefore(overlapStart) ? 0 : (int) ChronoUnit.DAYS.between(overlapStart, overlapEnd) + 1;
+    }
+
     public AvailabilityType getAvailabilityType() {
         return availabilityType;
     }
@@ -67,6 +123,6 @@ public class Availability {
 
     @Override
     public String toString() {
-        return availabilityType + "(" + employee + ", " + date + ")";
+        return availabilityType + "(" + employee + ", " + date + (getEndDate().equals(date) ? "" : ".." + getEndDate()) + ")";
     }
 }
@@ -0,0 +1,38 @@
+package org.acme.employeescheduling.domain;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.DiscriminatorValue;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Transient;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// An "ED cover" shift: a weekday evening or a 24h weekend day
+@Entity
+@DiscriminatorValue("ED")
+public class EdCoverShift extends Shift {
+
+    public static final Location LOCATION = Location.ED_COVER;
+
+    // The other day of its weekend (Saturday to Sunday and back), see WeekendPair. Not persisted, null on weekdays.
+    // Typed Shift so the solution cloner maps it to the cloned entity.
+    @Transient
+    Shift weekendPartner;
+
+    public EdCoverShift() {
+    }
+
+    public EdCoverShift(LocalDateTime start, LocalDateTime end, String requiredSkill, Employee employee) {
+        this(start, end, requiredSkill, employee, false);
+    }
+
+    public EdCoverShift(LocalDateTime start, LocalDateTime end, String requiredSkill, Employee employee, boolean isOptional) {
+        super(start, end, LOCATION, requiredSkill, employee, isOptional);
+    }
+
+    @JsonIgnore
+    public EdCoverShift getWeekendPartner() {
+        return (EdCoverShift) weekendPartner;
+    }
+}
@@ -2,34 +2,71 @@ package org.acme.employeescheduling.domain;
 
 import java.util.Set;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
 
 @Entity
+@Cacheable // Reference data: read on every load, rarely written
+// Names are only unique within a residency program
+@Table(indexes = @Index(name = "idx_employee_tenant_name", columnList = "tenantId, name", unique = true))
 public class Employee {
     @Id
     @PlanningId
+    @GeneratedValue
+    Long id;
+
+    Long tenantId;
+
     String name;
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = 100) // When not fetch joined, load the skill sets of up to 100 employees per select
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     Set<String> skillSet;
 
-    String employeeType;
+    @Enumerated(EnumType.STRING)
+    ResidentYear employeeType;
 
     public Employee() {
 
     }
 
-    public Employee(String name, Set<String> skillSet, String employeeType) {
+    public Employee(String name, Set<String> skillSet, ResidentYear employeeType) {
         this.name = name;
         this.skillSet = skillSet;
         this.employeeType = employeeType;
     }
 
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(Long tenantId) {
+        this.tenantId = tenantId;
+    }
+
     public String getName() {
         return name;
     }
@@ -46,13 +83,13 @@ public class Employee {
         this.skillSet = skillSet;
     }
 
-    public String getEmployeeType() {
+    public ResidentYear getEmployeeType() {
         return employeeType;
     }
 
-    public void setEmployeeType(String employeeType) {
+    public void setEmployeeType(ResidentYear employeeType) {
         this.employeeType = employeeType;
-    }    
+    }
 
     @Override
     public String toString() {
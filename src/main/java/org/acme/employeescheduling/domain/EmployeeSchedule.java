@@ -9,10 +9,13 @@ import ai.timefold.solver.core.api.domain.solution.PlanningEntityCollectionPrope
 import ai.timefold.solver.core.api.domain.solution.PlanningScore;
 import ai.timefold.solver.core.api.domain.solution.PlanningSolution;
 import ai.timefold.solver.core.api.domain.solution.ProblemFactCollectionProperty;
+import ai.timefold.solver.core.api.domain.solution.ProblemFactProperty;
 import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
 import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
 import ai.timefold.solver.core.api.solver.SolverStatus;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @PlanningSolution
 public class EmployeeSchedule {
     @ProblemFactCollectionProperty
@@ -25,6 +28,11 @@ public class EmployeeSchedule {
     @PlanningEntityCollectionProperty
     List<Shift> shiftList;
 
+    // The archived shifts of earlier academic years, only as per-resident counts. Never null:
+    // the counting constraints join it, so without it they'd match nothing.
+    @ProblemFactProperty
+    HistoricShiftSummary historicShiftSummary = new HistoricShiftSummary();
+
     @PlanningScore
     HardMediumSoftScore score;
 
@@ -42,6 +50,26 @@ public class EmployeeSchedule {
         this.availabilityList = availabilityList;
         this.employeeList = employeeList;
         this.shiftList = shiftList;
+        linkSeats();
+    }
+
+    // A read-only view over shifts of another solution (such as a published best solution):
+    // unlike the constructor it leaves their seat and weekend links alone, other readers still see them
+    public static EmployeeSchedule view(ScheduleState scheduleState, List<Availability> availabilityList,
+            List<Employee> employeeList, List<Shift> shiftList) {
+        EmployeeSchedule view = new EmployeeSchedule();
+        view.scheduleState = scheduleState;
+        view.availabilityList = availabilityList;
+        view.employeeList = employeeList;
+        view.shiftList = shiftList;
+        return view;
+    }
+
+    // Links the interchangeable seats of each slot and the 2 days of each weekend,
+    // again after shifts were added to a working solution
+    public void linkSeats() {
+        SeatLinker.link(shiftList);
+        WeekendPair.link(shiftList);
     }
 
     public ScheduleState getScheduleState() {
@@ -74,6 +102,16 @@ public class EmployeeSchedule {
 
     public void setShiftList(List<Shift> shiftList) {
         this.shiftList = shiftList;
+        linkSeats();
+    }
+
+    @JsonIgnore
+    public HistoricShiftSummary getHistoricShiftSummary() {
+        return historicShiftSummary;
+    }
+
+    public void setHistoricShiftSummary(HistoricShiftSummary historicShiftSummary) {
+        this.historicShiftSummary = historicShiftSummary;
     }
 
     public HardMediumSoftScore getScore() {
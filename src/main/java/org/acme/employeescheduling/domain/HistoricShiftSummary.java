@@ -0,0 +1,64 @@
+package org.acme.employeescheduling.domain;
+
+import java.time.DayOfWeek;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-resident counts of the archived shifts (see ArchivedShift), a single problem fact of the schedule.
+ * The annual quota and balancing constraints add these to the counts of the shifts the solver does see,
+ * so the archive keeps counting without its shifts going through every join and group-by.
+ * <p>
+ * Counted the same way as the constraints count: weekend and weekday are ED cover shifts by the day they start on.
+ */
+public class HistoricShiftSummary {
+
+    public record Totals(int weekend, int weekday, int nightFloat, int friday, int peds) {
+
+        public static final Totals EMPTY = new Totals(0, 0, 0, 0, 0);
+
+        public Totals plus(Totals other) {
+            return new Totals(weekend + other.weekend, weekday + other.weekday, nightFloat + other.nightFloat,
+                    friday + other.friday, peds + other.peds);
+        }
+    }
+
+    private final Map<Long, Totals> employeeTotalsMap = new HashMap<>();
+
+    public HistoricShiftSummary() {
+    }
+
+    // Adds count archived shifts of one resident, location and day of the week
+    public void add(Long employeeId, Location location, DayOfWeek dayOfWeek, int count) {
+        boolean edCover = location == Location.ED_COVER;
+        boolean weekend = dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+        Totals totals = new Totals(
+                edCover && weekend ? count : 0,
+                edCover && !weekend ? count : 0,
+                location == Location.NIGHT_SHIFT ? count : 0,
+                edCover && dayOfWeek == DayOfWeek.FRIDAY ? count : 0,
+                location == Location.PEDS ? count : 0);
+        employeeTotalsMap.merge(employeeId, totals, Totals::plus);
+    }
+
+    public Totals get(Employee employee) {
+        if (employee == null || employee.getId() == null) {
+            return Totals.EMPTY;
+        }
+        return employeeTotalsMap.getOrDefault(employee.getId(), Totals.EMPTY);
+    }
+
+    // Whether the archive holds any assigned shift of this resident
+    public boolean contains(Employee employee) {
+        return employee != null && employee.getId() != null && employeeTotalsMap.containsKey(employee.getId());
+    }
+
+    public boolean isEmpty() {
+        return employeeTotalsMap.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "HistoricShiftSummary(" + employeeTotalsMap.size() + " residents)";
+    }
+}
@@ -0,0 +1,60 @@
+package org.acme.employeescheduling.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Where (and so what type of) shift it is. The JSON and CSV forms stay the label the UI always showed,
+ * the database stores the short code (see LocationConverter).
+ * <p>
+ * Constraints index per-location counts by ordinal: append new locations, don't reorder.
+ */
+public enum Location {
+    ED_COVER("ED cover", "ED"),
+    NIGHT_SHIFT("Night Shift", "NF"),
+    PEDS("Peds", "PEDS"),
+    IR("IR", "IR"),
+    DAY_SHIFT("Day Shift", "DAY");
+
+    private final String label;
+    private final String code;
+
+    Location(String label, String code) {
+        this.label = label;
+        this.code = code;
+    }
+
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    // Accepts the label, the code or the constant name, so imports and query parameters may use either
+    @JsonCreator
+    public static Location of(String value) {
+        for (Location location : values()) {
+            if (location.label.equals(value) || location.code.equals(value) || location.name().equals(value)) {
+                return location;
+            }
+        }
+        throw new IllegalArgumentException("There is no location (" + value + ").");
+    }
+
+    public static Location ofCode(String code) {
+        for (Location location : values()) {
+            if (location.code.equals(code)) {
+                return location;
+            }
+        }
+        throw new IllegalArgumentException("There is no location code (" + code + ").");
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
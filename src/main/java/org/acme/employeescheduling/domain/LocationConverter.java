@@ -0,0 +1,19 @@
+package org.acme.employeescheduling.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Stores a Location as its short code, for every entity (Shift, ArchivedShift, ShiftTemplate)
+@Converter(autoApply = true)
+public class LocationConverter implements AttributeConverter<Location, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Location location) {
+        return location == null ? null : location.getCode();
+    }
+
+    @Override
+    public Location convertToEntityAttribute(String code) {
+        return code == null ? null : Location.ofCode(code);
+    }
+}
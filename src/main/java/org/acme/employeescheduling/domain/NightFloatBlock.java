@@ -0,0 +1,25 @@
+package org.acme.employeescheduling.domain;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.DiscriminatorValue;
+import jakarta.persistence.Entity;
+
+// A "Night Shift" block: a week of night float, Monday evening to Saturday morning
+@Entity
+@DiscriminatorValue("NF")
+public class NightFloatBlock extends Shift {
+
+    public static final Location LOCATION = Location.NIGHT_SHIFT;
+
+    public NightFloatBlock() {
+    }
+
+    public NightFloatBlock(LocalDateTime start, LocalDateTime end, String requiredSkill, Employee employee) {
+        this(start, end, requiredSkill, employee, false);
+    }
+
+    public NightFloatBlock(LocalDateTime start, LocalDateTime end, String requiredSkill, Employee employee, boolean isOptional) {
+        super(start, end, LOCATION, requiredSkill, employee, isOptional);
+    }
+}
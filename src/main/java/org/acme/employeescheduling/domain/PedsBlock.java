@@ -0,0 +1,25 @@
+package org.acme.employeescheduling.domain;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.DiscriminatorValue;
+import jakarta.persistence.Entity;
+
+// A "Peds" block: two weeks of the pediatric away rotation
+@Entity
+@DiscriminatorValue("PEDS")
+public class PedsBlock extends Shift {
+
+    public static final Location LOCATION = Location.PEDS;
+
+    public PedsBlock() {
+    }
+
+    public PedsBlock(LocalDateTime start, LocalDateTime end, String requiredSkill, Employee employee) {
+        this(start, end, requiredSkill, employee, false);
+    }
+
+    public PedsBlock(LocalDateTime start, LocalDateTime end, String requiredSkill, Employee employee, boolean isOptional) {
+        super(start, end, LOCATION, requiredSkill, employee, isOptional);
+    }
+}
@@ -0,0 +1,24 @@
+package org.acme.employeescheduling.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * Post-graduate year of a resident, stored and sent as its name ("R2").
+ * Constraints index their per-year quotas by ordinal: don't reorder.
+ */
+public enum ResidentYear {
+    R1,
+    R2,
+    R3,
+    R4;
+
+    @JsonCreator
+    public static ResidentYear of(String value) {
+        for (ResidentYear residentYear : values()) {
+            if (residentYear.name().equals(value)) {
+                return residentYear;
+            }
+        }
+        throw new IllegalArgumentException("There is no resident year (" + value + ").");
+    }
+}
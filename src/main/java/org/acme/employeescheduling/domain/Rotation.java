@@ -1,6 +1,7 @@
 package org.acme.employeescheduling.domain;
 
 import java.util.Map;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
@@ -8,18 +9,30 @@ import jakarta.persistence.ElementCollection;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.MapKeyColumn;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Table(indexes = @Index(name = "idx_rotation_tenant", columnList = "tenantId"))
 public class Rotation {
     @Id
     @GeneratedValue
     private Long id;
 
+    private Long tenantId;
+
     private String residentType;
 
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "rotation_blocks")
     @MapKeyColumn(name = "location")
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Map<String, Integer> requiredBlocks; // Key: Location, Value: Minimum number of blocks
 
     public Rotation() {
@@ -38,6 +51,14 @@ public class Rotation {
         this.id = id;
     }
 
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(Long tenantId) {
+        this.tenantId = tenantId;
+    }
+
     public String getResidentType() {
         return residentType;
     }
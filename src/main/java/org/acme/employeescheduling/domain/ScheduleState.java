@@ -4,12 +4,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
+@Cacheable // Read on every load, only written by publish
 public class ScheduleState {
 
     @Id
@@ -23,6 +25,8 @@ public class ScheduleState {
 
     LocalDate lastHistoricDate;
 
+    Integer spentLimitMinutes; // Optional per-program solving time limit, null uses the global termination config
+
     @JsonIgnore
     public boolean isHistoric(LocalDateTime dateTime) {
         return dateTime.isBefore(getFirstPublishedDate().atTime(LocalTime.MIDNIGHT));
@@ -98,6 +102,14 @@ public class ScheduleState {
         this.firstDraftDate = firstDraftDate;
     }
 
+    public Integer getSpentLimitMinutes() {
+        return spentLimitMinutes;
+    }
+
+    public void setSpentLimitMinutes(Integer spentLimitMinutes) {
+        this.spentLimitMinutes = spentLimitMinutes;
+    }
+
     public LocalDate getLastHistoricDate() {
         return lastHistoricDate;
     }
@@ -0,0 +1,46 @@
+package org.acme.employeescheduling.domain;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Detects the shifts that are seats of one slot: same type, location, times, skill and optionality,
+ * such as the twin seats of a Peds block. Any resident fits any of them equally, so 2 assignments that only
+ * differ by which seat a resident sits in are the same schedule. The seats are linked in id order,
+ * so the SeatSymmetryMoveFilter can keep the solver to one canonical order.
+ */
+final class SeatLinker {
+
+    private record SlotKey(Class<?> type, Location location, LocalDateTime start, LocalDateTime end,
+            String requiredSkill, boolean optional) {
+    }
+
+    private static final Comparator<Shift> SEAT_ORDER = Comparator.comparing(Shift::getId,
+            Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private SeatLinker() {
+    }
+
+    static void link(List<Shift> shiftList) {
+        if (shiftList == null) {
+            return;
+        }
+        Map<SlotKey, List<Shift>> slotMap = new LinkedHashMap<>();
+        for (Shift shift : shiftList) {
+            slotMap.computeIfAbsent(new SlotKey(shift.getClass(), shift.getLocation(), shift.getStart(), shift.getEnd(),
+                    shift.getRequiredSkill(), shift.isOptional()), key -> new ArrayList<>()).add(shift);
+        }
+        for (List<Shift> seatList : slotMap.values()) {
+            seatList.sort(SEAT_ORDER);
+            for (int i = 0; i < seatList.size(); i++) {
+                Shift seat = seatList.get(i);
+                seat.previousSeat = i == 0 ? null : seatList.get(i - 1);
+                seat.nextSeat = i == seatList.size() - 1 ? null : seatList.get(i + 1);
+            }
+        }
+    }
+}
@@ -4,28 +4,57 @@ import java.time.LocalDateTime;
 import java.time.Duration;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Inheritance;
+import jakarta.persistence.InheritanceType;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
 import ai.timefold.solver.core.api.domain.variable.PlanningVariable;
 
+import org.hibernate.annotations.DiscriminatorFormula;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_shift_tenant_start", columnList = "tenantId, start"),
+        // Matches the load order of ShiftRepository.listByTenant
+        @Index(name = "idx_shift_tenant_location_start", columnList = "tenantId, location, start, id"),
+        @Index(name = "idx_shift_employee", columnList = "employee_id"),
+        @Index(name = "idx_shift_template_start", columnList = "templateId, start")
+})
+// One table, the subclass follows from the location: constraints about one type of shift stream only that subclass
+// (forEach(PedsBlock.class)) instead of filtering every shift on its location.
+// The discriminator values are the location codes (see LocationConverter).
+@Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+@DiscriminatorFormula("case location when 'ED' then 'ED' when 'NF' then 'NF' when 'PEDS' then 'PEDS' else 'OTHER' end")
+@DiscriminatorValue("OTHER")
 @PlanningEntity(pinningFilter = ShiftPinningFilter.class)
 public class Shift {
     @Id
     @PlanningId
-    @GeneratedValue
+    // Pooled: one sequence call per 100 ids, so a JDBC batch of inserts needs no extra round trips
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shift_seq")
+    @SequenceGenerator(name = "shift_seq", sequenceName = "Shift_SEQ", allocationSize = 100)
     Long id;
 
+    Long tenantId;
+
     LocalDateTime start;
     @Column(name = "endDateTime") // "end" clashes with H2 syntax.
     LocalDateTime end;
 
-    String location;
+    Location location;
     String requiredSkill;
 
     @PlanningVariable(nullable=true)
@@ -34,21 +63,32 @@ public class Shift {
 
     private boolean isOptional;
 
+    // The ShiftTemplate this shift was expanded from, null for a shift created on its own
+    Long templateId;
+
+    // The neighbouring seats of the same slot, interchangeable twins such as the 2 seats of a Peds block.
+    // Linked when the schedule is built (see SeatLinker), null for a shift that is its slot's only seat.
+    @Transient
+    Shift previousSeat;
+    @Transient
+    Shift nextSeat;
+
     public Shift() {
     }
 
     // Modified constructors
     
-    public Shift(LocalDateTime start, LocalDateTime end, String location, String requiredSkill) {
+    public Shift(LocalDateTime start, LocalDateTime end, Location location, String requiredSkill) {
         this(start, end, location, requiredSkill, null, false); // Calling the full constructor
     }
     
-    public Shift(LocalDateTime start, LocalDateTime end, String location, String requiredSkill, Employee employee) {
+    public Shift(LocalDateTime start, LocalDateTime end, Location location, String requiredSkill, Employee employee) {
         this(start, end, location, requiredSkill, employee, false); // Calling the full constructor
     }
 
-    // This is the full constructor with all parameters including isOptional
-    public Shift(LocalDateTime start, LocalDateTime end, String location, String requiredSkill, Employee employee, boolean isOptional) {
+    // This is the full constructor with all parameters including isOptional.
+    // For a location that has its own subclass, use create() so the instance has the class it gets when loaded.
+    public Shift(LocalDateTime start, LocalDateTime end, Location location, String requiredSkill, Employee employee, boolean isOptional) {
         this.id = null; // id is not passed, so set to null
         this.start = start;
         this.end = end;
@@ -58,6 +98,20 @@ public class Shift {
         this.isOptional = isOptional;
     }
 
+    // An EdCoverShift, NightFloatBlock or PedsBlock for their location, a plain Shift for any other
+    public static Shift create(LocalDateTime start, LocalDateTime end, Location location, String requiredSkill,
+            Employee employee, boolean isOptional) {
+        if (location == null) {
+            return new Shift(start, end, null, requiredSkill, employee, isOptional);
+        }
+        return switch (location) {
+            case ED_COVER -> new EdCoverShift(start, end, requiredSkill, employee, isOptional);
+            case NIGHT_SHIFT -> new NightFloatBlock(start, end, requiredSkill, employee, isOptional);
+            case PEDS -> new PedsBlock(start, end, requiredSkill, employee, isOptional);
+            default -> new Shift(start, end, location, requiredSkill, employee, isOptional);
+        };
+    }
+
     public Long getId() {
         return id;
     }
@@ -66,6 +120,14 @@ public class Shift {
         this.id = id;
     }
 
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(Long tenantId) {
+        this.tenantId = tenantId;
+    }
+
     public LocalDateTime getStart() {
         return start;
     }
@@ -87,11 +149,12 @@ public class Shift {
         return (int) minutes; // Safe cast if the value is always within int range
     }
 
-    public String getLocation() {
+    public Location getLocation() {
         return location;
     }
 
-    public void setLocation(String location) {
+    // Changing it to the location of another subclass only takes effect when the shift is loaded again
+    public void setLocation(Location location) {
         this.location = location;
     }
 
@@ -119,6 +182,42 @@ public class Shift {
         this.isOptional = isOptional;
     }
 
+    public Long getTemplateId() {
+        return templateId;
+    }
+
+    public void setTemplateId(Long templateId) {
+        this.templateId = templateId;
+    }
+
+    @JsonIgnore
+    public Shift getPreviousSeat() {
+        return previousSeat;
+    }
+
+    @JsonIgnore
+    public Shift getNextSeat() {
+        return nextSeat;
+    }
+
+    // True for 2 different seats of one slot: swapping their residents gives the same schedule
+    public boolean isTwinOf(Shift other) {
+        if (other == this) {
+            return false;
+        }
+        for (Shift seat = previousSeat; seat != null; seat = seat.previousSeat) {
+            if (seat == other) {
+                return true;
+            }
+        }
+        for (Shift seat = nextSeat; seat != null; seat = seat.nextSeat) {
+            if (seat == other) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public String toString() {
         return location + " " + start + "-" + end;
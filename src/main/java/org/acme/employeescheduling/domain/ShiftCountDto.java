@@ -1,10 +1,15 @@
 package org.acme.employeescheduling.domain;
 
-import java.util.HashMap;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class ShiftCountDto {
-    private int totalShifts;
+    public static final LocalTime EVENING_SHIFT_START_TIME = LocalTime.of(14, 0);
+
     private int eveningShifts;
     private int weekendShifts;
     private int pedsShifts;
@@ -14,16 +19,57 @@ public class ShiftCountDto {
     private int saturdayShifts;
     private int sundayShifts;
     private int fridayShifts;    
-    private Map<String, Integer> shiftsByLocation;
-    private String employeeType;
+    private final int[] locationCounts; // Indexed by Location ordinal
+    private final ResidentYear employeeType;
 
-    public ShiftCountDto(String employeeType) {
-        this.shiftsByLocation = new HashMap<>();
+    public ShiftCountDto(ResidentYear employeeType) {
+        this.locationCounts = new int[Location.values().length];
         this.employeeType = employeeType;
     }
 
-    public void incrementTotalShifts() {
-        this.totalShifts++;
+    public ShiftCountDto(ShiftCountDto other) {
+        this.eveningShifts = other.eveningShifts;
+        this.weekendShifts = other.weekendShifts;
+        this.pedsShifts = other.pedsShifts;
+        this.nightShifts = other.nightShifts;
+        this.dayShifts = other.dayShifts;
+        this.irShifts = other.irShifts;
+        this.saturdayShifts = other.saturdayShifts;
+        this.sundayShifts = other.sundayShifts;
+        this.fridayShifts = other.fridayShifts;
+        this.locationCounts = other.locationCounts.clone();
+        this.employeeType = other.employeeType;
+    }
+
+    // Adds (delta 1) or removes (delta -1) one assigned shift, the single place that decides which counters a shift hits
+    public void add(Location location, LocalDateTime start, int delta) {
+        this.locationCounts[location.ordinal()] += delta;
+        DayOfWeek dayOfWeek = start.getDayOfWeek();
+        switch (location) {
+            case NIGHT_SHIFT -> this.nightShifts += delta;
+            case DAY_SHIFT -> this.dayShifts += delta;
+            case IR -> this.irShifts += delta;
+            case PEDS -> this.pedsShifts += delta;
+            case ED_COVER -> {
+                switch (dayOfWeek) {
+                    case SATURDAY -> this.saturdayShifts += delta;
+                    case SUNDAY -> this.sundayShifts += delta;
+                    case FRIDAY -> this.fridayShifts += delta;
+                    default -> {
+                    }
+                }
+            }
+        }
+        if (start.toLocalTime().equals(EVENING_SHIFT_START_TIME)) {
+            this.eveningShifts += delta;
+        }
+        if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+            this.weekendShifts += delta;
+        }
+    }
+
+    public boolean isEmpty() {
+        return Arrays.stream(locationCounts).allMatch(count -> count == 0);
     }
 
     public void incrementEveningShifts() {
@@ -62,12 +108,13 @@ public class ShiftCountDto {
         this.fridayShifts++;
     }
 
-    public void incrementShiftsByLocation(String location) {
-        this.shiftsByLocation.merge(location, 1, Integer::sum);
+    public void incrementShiftsByLocation(Location location) {
+        this.locationCounts[location.ordinal()]++;
     }
 
+    // Total call days: evening and weekend shifts
     public int getTotalShifts() {
-        return totalShifts;
+        return eveningShifts + weekendShifts;
     }
 
     public int getEveningShifts() {
@@ -106,11 +153,22 @@ public class ShiftCountDto {
         return fridayShifts;
     }
 
+    public int getShiftsByLocation(Location location) {
+        return locationCounts[location.ordinal()];
+    }
+
+    // For the JSON: the locations with at least one shift, by label
     public Map<String, Integer> getShiftsByLocation() {
+        Map<String, Integer> shiftsByLocation = new LinkedHashMap<>();
+        for (Location location : Location.values()) {
+            if (locationCounts[location.ordinal()] != 0) {
+                shiftsByLocation.put(location.getLabel(), locationCounts[location.ordinal()]);
+            }
+        }
         return shiftsByLocation;
     }
 
-    public String getEmployeeType() {
+    public ResidentYear getEmployeeType() {
         return employeeType;
     }
 }
\ No newline at end of file
@@ -0,0 +1,250 @@
+package org.acme.employeescheduling.domain;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import org.hibernate.annotations.BatchSize;
+
+/**
+ * A coverage rule, such as "ED cover on weekday evenings from 14:00 for 6 hours", that shifts are expanded from
+ * (see ShiftTemplateExpander). It occurs on each of its days, every everyWeeks weeks counted from firstDate,
+ * up to lastDate (if any), except on the excluded dates (the holidays). Each occurrence has seats shifts.
+ */
+@Entity
+// Names are only unique within a residency program
+@Table(indexes = @Index(name = "idx_shift_template_tenant_name", columnList = "tenantId, name", unique = true))
+public class ShiftTemplate {
+
+    @Id
+    @GeneratedValue
+    Long id;
+
+    Long tenantId;
+
+    String name;
+    Location location;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "shift_template_days")
+    @Enumerated(EnumType.STRING)
+    @BatchSize(size = 100)
+    Set<DayOfWeek> days;
+
+    LocalTime startTime;
+    Duration duration;
+
+    int everyWeeks = 1;
+    LocalDate firstDate;
+    LocalDate lastDate; // Inclusive, null for no end
+
+    int seats = 1;
+    String requiredSkill = "RESIDENT";
+    boolean optional;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "shift_template_excluded_dates")
+    @BatchSize(size = 100)
+    Set<LocalDate> excludedDates = new HashSet<>();
+
+    public ShiftTemplate() {
+    }
+
+    public ShiftTemplate(String name, Location location, Set<DayOfWeek> days, LocalTime startTime, Duration duration,
+            LocalDate firstDate) {
+        this.name = name;
+        this.location = location;
+        this.days = EnumSet.copyOf(days);
+        this.startTime = startTime;
+        this.duration = duration;
+        this.firstDate = firstDate;
+    }
+
+    // Throws IllegalArgumentException for a template that can't be expanded
+    public void validate() {
+        if (name == null || name.isBlank() || location == null || days == null || days.isEmpty() || startTime == null
+                || duration == null || duration.isNegative() || duration.isZero() || firstDate == null
+                || requiredSkill == null) {
+            throw new IllegalArgumentException("The shift template (" + name + ") needs a name, a location, days,"
+                    + " a start time, a positive duration, a first date and a required skill.");
+        }
+        if (everyWeeks < 1 || seats < 1) {
+            throw new IllegalArgumentException("The shift template (" + name + ") needs everyWeeks (" + everyWeeks
+                    + ") and seats (" + seats + ") of at least 1.");
+        }
+        if (lastDate != null && lastDate.isBefore(firstDate)) {
+            throw new IllegalArgumentException("The shift template (" + name + ") has a lastDate (" + lastDate
+                    + ") before its firstDate (" + firstDate + ").");
+        }
+    }
+
+    public boolean occursOn(LocalDate date) {
+        if (date.isBefore(firstDate) || (lastDate != null && date.isAfter(lastDate))
+                || !days.contains(date.getDayOfWeek()) || excludedDates.contains(date)) {
+            return false;
+        }
+        long weeks = ChronoUnit.DAYS.between(firstDate, date) / 7;
+        return weeks % everyWeeks == 0;
+    }
+
+    // The starts of the occurrences on a date from inclusive to exclusive, in order
+    public List<LocalDateTime> listStarts(LocalDate from, LocalDate to) {
+        List<LocalDateTime> startList = new ArrayList<>();
+        for (LocalDate date = from.isBefore(firstDate) ? firstDate : from; date.isBefore(to); date = date.plusDays(1)) {
+            if (occursOn(date)) {
+                startList.add(date.atTime(startTime));
+            }
+        }
+        return startList;
+    }
+
+    public Shift createShift(LocalDateTime start) {
+        Shift shift = Shift.create(start, start.plus(duration), location, requiredSkill, null, optional);
+        shift.setTenantId(tenantId);
+        shift.setTemplateId(id);
+        return shift;
+    }
+
+    // Whether an expanded shift still has the times and properties this template gives it
+    public boolean matches(Shift shift) {
+        return shift.getStart().toLocalTime().equals(startTime) && shift.getEnd().equals(shift.getStart().plus(duration))
+                && location == shift.getLocation() && requiredSkill.equals(shift.getRequiredSkill())
+                && optional == shift.isOptional();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(Long tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Location getLocation() {
+        return location;
+    }
+
+    public void setLocation(Location location) {
+        this.location = location;
+    }
+
+    public Set<DayOfWeek> getDays() {
+        return days;
+    }
+
+    public void setDays(Set<DayOfWeek> days) {
+        this.days = days;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    public int getEveryWeeks() {
+        return everyWeeks;
+    }
+
+    public void setEveryWeeks(int everyWeeks) {
+        this.everyWeeks = everyWeeks;
+    }
+
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    public void setFirstDate(LocalDate firstDate) {
+        this.firstDate = firstDate;
+    }
+
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    public void setLastDate(LocalDate lastDate) {
+        this.lastDate = lastDate;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public void setSeats(int seats) {
+        this.seats = seats;
+    }
+
+    public String getRequiredSkill() {
+        return requiredSkill;
+    }
+
+    public void setRequiredSkill(String requiredSkill) {
+        this.requiredSkill = requiredSkill;
+    }
+
+    public boolean isOptional() {
+        return optional;
+    }
+
+    public void setOptional(boolean optional) {
+        this.optional = optional;
+    }
+
+    public Set<LocalDate> getExcludedDates() {
+        return excludedDates;
+    }
+
+    public void setExcludedDates(Set<LocalDate> excludedDates) {
+        this.excludedDates = excludedDates == null ? new HashSet<>() : excludedDates;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,80 @@
+package org.acme.employeescheduling.domain;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A weekend of 24h ED cover, its Saturday and its Sunday shift, as one unit with 2 seats.
+ * Both days stay Shift entities (the constraints, the UI and the database see them as before): the pair only links
+ * them (EdCoverShift.getWeekendPartner()), so the solver can move whole weekends at once (see WeekendSwapMove).
+ * The Sunday starts when the Saturday ends. A weekend with several seats per day is paired seat by seat, in id order.
+ * <p>
+ * It's deliberately not a planning entity of its own. Every constraint counts weekend days as Shifts
+ * (minimum, maximum and balance per resident, overlaps, unavailability), so a second entity type would need a copy
+ * of each of those streams. The weekend rules (no24HourShiftAfter24HourShift, noShiftAfter24HourSundayShift)
+ * also hold across seats, which a per-pair check would miss. So they stay constraints over the 2 shifts.
+ */
+public record WeekendPair(EdCoverShift saturday, EdCoverShift sunday) {
+
+    private static final Duration WEEKEND_SHIFT_LENGTH = Duration.ofHours(24);
+
+    private static final Comparator<Shift> SEAT_ORDER = Comparator.comparing(Shift::getId,
+            Comparator.nullsLast(Comparator.naturalOrder()));
+
+    static void link(List<Shift> shiftList) {
+        if (shiftList == null) {
+            return;
+        }
+        Map<LocalDateTime, List<EdCoverShift>> saturdayMap = new HashMap<>(); // By end
+        Map<LocalDateTime, List<EdCoverShift>> sundayMap = new HashMap<>(); // By start
+        for (Shift shift : shiftList) {
+            if (shift instanceof EdCoverShift edCoverShift) {
+                edCoverShift.weekendPartner = null;
+                if (!Duration.between(shift.getStart(), shift.getEnd()).equals(WEEKEND_SHIFT_LENGTH)) {
+                    continue;
+                }
+                DayOfWeek dayOfWeek = shift.getStart().getDayOfWeek();
+                if (dayOfWeek == DayOfWeek.SATURDAY) {
+                    saturdayMap.computeIfAbsent(shift.getEnd(), end -> new ArrayList<>()).add(edCoverShift);
+                } else if (dayOfWeek == DayOfWeek.SUNDAY) {
+                    sundayMap.computeIfAbsent(shift.getStart(), start -> new ArrayList<>()).add(edCoverShift);
+                }
+            }
+        }
+        saturdayMap.forEach((end, saturdayList) -> {
+            List<EdCoverShift> sundayList = sundayMap.get(end);
+            if (sundayList == null) {
+                return;
+            }
+            saturdayList.sort(SEAT_ORDER);
+            sundayList.sort(SEAT_ORDER);
+            for (int i = 0; i < Math.min(saturdayList.size(), sundayList.size()); i++) {
+                saturdayList.get(i).weekendPartner = sundayList.get(i);
+                sundayList.get(i).weekendPartner = saturdayList.get(i);
+            }
+        });
+    }
+
+    // The linked weekends, in the order of their Saturdays in the shift list
+    public static List<WeekendPair> list(List<Shift> shiftList) {
+        List<WeekendPair> pairList = new ArrayList<>();
+        for (Shift shift : shiftList) {
+            if (shift instanceof EdCoverShift saturday && saturday.getWeekendPartner() != null
+                    && saturday.getStart().getDayOfWeek() == DayOfWeek.SATURDAY) {
+                pairList.add(new WeekendPair(saturday, saturday.getWeekendPartner()));
+            }
+        }
+        return pairList;
+    }
+
+    // Swapping the residents of 2 weekends that are seats of the same weekend changes nothing
+    public boolean isTwinOf(WeekendPair other) {
+        return saturday.isTwinOf(other.saturday);
+    }
+}
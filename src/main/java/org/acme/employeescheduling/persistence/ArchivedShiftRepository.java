@@ -0,0 +1,70 @@
+package org.acme.employeescheduling.persistence;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.TypedQuery;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
+import org.acme.employeescheduling.domain.ArchivedShift;
+import org.acme.employeescheduling.domain.HistoricShiftSummary;
+import org.acme.employeescheduling.domain.Location;
+import org.hibernate.jpa.HibernateHints;
+
+@ApplicationScoped
+public class ArchivedShiftRepository implements PanacheRepository<ArchivedShift> {
+
+    public List<ArchivedShift> listByTenantReadOnly(Long tenantId) {
+        return find("tenantId", Sort.by("start").and("id"), tenantId)
+                .withHint(HibernateHints.HINT_READ_ONLY, true).list();
+    }
+
+    // The same window as ShiftRepository.listByTenantAndWindow
+    public List<ArchivedShift> listByTenantAndWindowReadOnly(Long tenantId, LocalDateTime from, LocalDateTime to,
+            String employeeName, Location location) {
+        StringBuilder query = new StringBuilder("from ArchivedShift s");
+        Parameters parameters = ShiftRepository.appendWindow(query, tenantId, from, to, employeeName, location);
+        return find(query.toString(), Sort.by("location").and("start").and("id"), parameters)
+                .withHint(HibernateHints.HINT_READ_ONLY, true).list();
+    }
+
+    // The same rows as ShiftRepository.streamExportRows, off a database cursor within the transaction
+    public Stream<ShiftExportRow> streamExportRows(Long tenantId, LocalDateTime from, LocalDateTime to,
+            String employeeName, Location location) {
+        StringBuilder query = new StringBuilder("select new org.acme.employeescheduling.persistence.ShiftExportRow("
+                + "s.id, s.start, s.end, s.location, s.requiredSkill, e.name) from ArchivedShift s left join s.employee e");
+        Parameters parameters = ShiftRepository.appendWindow(query, tenantId, from, to, employeeName, location);
+        query.append(" order by s.start, s.location, s.id");
+        TypedQuery<ShiftExportRow> typedQuery = getEntityManager().createQuery(query.toString(), ShiftExportRow.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, ShiftRepository.EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        parameters.map().forEach(typedQuery::setParameter);
+        return typedQuery.getResultStream();
+    }
+
+    // One row per resident, location and day of the week, however many years the archive holds
+    public HistoricShiftSummary summarize(Long tenantId) {
+        List<Object[]> rowList = getEntityManager().createQuery(
+                "select a.employee.id, a.location, extract(day of week from a.start), count(a) from ArchivedShift a"
+                        + " where a.tenantId = :tenantId and a.employee is not null"
+                        + " group by a.employee.id, a.location, extract(day of week from a.start)", Object[].class)
+                .setParameter("tenantId", tenantId)
+                .getResultList();
+        HistoricShiftSummary summary = new HistoricShiftSummary();
+        for (Object[] row : rowList) {
+            summary.add((Long) row[0], (Location) row[1], toDayOfWeek(((Number) row[2]).intValue()),
+                    ((Number) row[3]).intValue());
+        }
+        return summary;
+    }
+
+    // HQL numbers the days of the week from 1 (Sunday) to 7 (Saturday)
+    static DayOfWeek toDayOfWeek(int hqlDayOfWeek) {
+        return DayOfWeek.SUNDAY.plus(hqlDayOfWeek - 1);
+    }
+}
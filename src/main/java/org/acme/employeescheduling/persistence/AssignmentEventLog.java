@@ -0,0 +1,354 @@
+package org.acme.employeescheduling.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Append-only audit trail of shift assignments, one directory of segment files per schedule.
+ * <p>
+ * Every append (a persisted best solution, a manual edit, a publish) gets the next version of its schedule and
+ * is written as fixed size binary records. All events are also kept in memory as primitive columns with an index
+ * per shift, so the history of a shift is a lookup and the state at any version is a single replay over arrays.
+ * Employees are recorded by id, -1 meaning unassigned.
+ */
+@ApplicationScoped
+public class AssignmentEventLog {
+
+    private static final Logger LOGGER = Logger.getLogger(AssignmentEventLog.class);
+
+    // version, shift id, old employee id, new employee id, epoch millis, cause
+    static final int RECORD_SIZE = 5 * Long.BYTES + 1;
+    static final long NO_EMPLOYEE = -1L;
+    private static final Pattern SEGMENT_FILE_PATTERN = Pattern.compile("(\\d{20})\\.log");
+    private static final Pattern SCHEDULE_DIRECTORY_PATTERN = Pattern.compile("schedule-(\\d+)");
+
+    @ConfigProperty(name = "schedule.history.directory", defaultValue = "history")
+    Path directory;
+    @ConfigProperty(name = "schedule.history.segment-size", defaultValue = "16777216")
+    long segmentSize;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    private final Map<Long, ScheduleLog> scheduleLogMap = new ConcurrentHashMap<>();
+
+    public enum Cause {
+        SOLVER,
+        MANUAL_EDIT,
+        PUBLISH
+    }
+
+    public record Change(Long shiftId, Long oldEmployeeId, Long newEmployeeId) {
+    }
+
+    public record Event(long version, Long shiftId, Long oldEmployeeId, Long newEmployeeId, Instant timestamp, Cause cause) {
+    }
+
+    // Replays every segment once, a torn record at the end of the last segment (a crash mid-append) is cut off
+    @PostConstruct
+    void open() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try (Stream<Path> pathStream = Files.list(directory)) {
+            for (Path scheduleDirectory : pathStream.toList()) {
+                Matcher matcher = SCHEDULE_DIRECTORY_PATTERN.matcher(scheduleDirectory.getFileName().toString());
+                if (matcher.matches()) {
+                    Long scheduleId = Long.valueOf(matcher.group(1));
+                    scheduleLogMap.put(scheduleId, ScheduleLog.load(scheduleDirectory, segmentSize));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        LOGGER.infof("Replayed the assignment history of %d schedules in %d ms.", scheduleLogMap.size(),
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    @PreDestroy
+    void close() {
+        scheduleLogMap.values().forEach(ScheduleLog::close);
+    }
+
+    // Returns the version of the append, or the current version when there's nothing to append
+    public long append(Long scheduleId, Cause cause, List<Change> changeList) {
+        ScheduleLog scheduleLog = scheduleLogMap.computeIfAbsent(scheduleId,
+                id -> new ScheduleLog(directory.resolve("schedule-" + id), segmentSize));
+        try {
+            return scheduleLog.append(cause, System.currentTimeMillis(), changeList);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Within a transaction: a rolled back edit never shows up in the history
+    public void appendAfterCommit(Long scheduleId, Cause cause, List<Change> changeList) {
+        if (changeList.isEmpty()) {
+            return;
+        }
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    try {
+                        append(scheduleId, cause, changeList);
+                    } catch (UncheckedIOException e) {
+                        // The change is committed already, so the history misses it rather than failing the request
+                        LOGGER.errorf(e, "Could not append %d %s events to the history of schedule (%d).",
+                                changeList.size(), cause, scheduleId);
+                    }
+                }
+            }
+        });
+    }
+
+    public long getVersion(Long scheduleId) {
+        ScheduleLog scheduleLog = scheduleLogMap.get(scheduleId);
+        return scheduleLog == null ? 0L : scheduleLog.getVersion();
+    }
+
+    public List<Event> listByShift(Long scheduleId, Long shiftId) {
+        ScheduleLog scheduleLog = scheduleLogMap.get(scheduleId);
+        return scheduleLog == null ? List.of() : scheduleLog.listByShift(shiftId);
+    }
+
+    // Shift id to employee id (null when unassigned) of every shift the history knows of, as of that version
+    public Map<Long, Long> getAssignmentsAt(Long scheduleId, long version) {
+        ScheduleLog scheduleLog = scheduleLogMap.get(scheduleId);
+        return scheduleLog == null ? Map.of() : scheduleLog.getAssignmentsAt(version);
+    }
+
+    static long toEmployeeId(Long employeeId) {
+        return employeeId == null ? NO_EMPLOYEE : employeeId;
+    }
+
+    static Long fromEmployeeId(long employeeId) {
+        return employeeId == NO_EMPLOYEE ? null : employeeId;
+    }
+
+    private static final class ScheduleLog {
+
+        private final Path directory;
+        private final long segmentSize;
+
+        // Columns, in append order and therefore in version order
+        private int size = 0;
+        private long[] versions = new long[1024];
+        private long[] shiftIds = new long[1024];
+        private long[] oldEmployeeIds = new long[1024];
+        private long[] newEmployeeIds = new long[1024];
+        private long[] timestamps = new long[1024];
+        private byte[] causes = new byte[1024];
+        private final Map<Long, IntList> shiftIndexMap = new HashMap<>();
+
+        private long version = 0L;
+        private FileChannel segmentChannel;
+        private long segmentLength;
+
+        private ScheduleLog(Path directory, long segmentSize) {
+            this.directory = directory;
+            this.segmentSize = segmentSize;
+        }
+
+        private static ScheduleLog load(Path directory, long segmentSize) throws IOException {
+            ScheduleLog scheduleLog = new ScheduleLog(directory, segmentSize);
+            List<Path> segmentList;
+            try (Stream<Path> pathStream = Files.list(directory)) {
+                segmentList = pathStream.filter(path -> SEGMENT_FILE_PATTERN.matcher(path.getFileName().toString()).matches())
+                        .sorted()
+                        .toList();
+            }
+            for (Path segment : segmentList) {
+                long wholeLength = Files.size(segment) / RECORD_SIZE * RECORD_SIZE;
+                try (InputStream fileIn = Files.newInputStream(segment);
+                        DataInputStream in = new DataInputStream(new BufferedInputStream(fileIn, 1 << 16))) {
+                    for (long position = 0L; position < wholeLength; position += RECORD_SIZE) {
+                        scheduleLog.add(in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                                in.readByte());
+                    }
+                } catch (EOFException e) {
+                    throw new IOException("Segment (" + segment + ") changed while replaying it.", e);
+                }
+                if (wholeLength != Files.size(segment)) {
+                    LOGGER.warnf("Cutting off a torn record at the end of segment (%s).", segment);
+                    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                        channel.truncate(wholeLength);
+                    }
+                }
+            }
+            if (scheduleLog.size > 0) {
+                scheduleLog.version = scheduleLog.versions[scheduleLog.size - 1];
+            }
+            return scheduleLog;
+        }
+
+        private synchronized long getVersion() {
+            return version;
+        }
+
+        private synchronized long append(Cause cause, long timestamp, List<Change> changeList) throws IOException {
+            if (changeList.isEmpty()) {
+                return version;
+            }
+            long newVersion = version + 1;
+            ByteBuffer buffer = ByteBuffer.allocate(changeList.size() * RECORD_SIZE);
+            for (Change change : changeList) {
+                buffer.putLong(newVersion)
+                        .putLong(change.shiftId())
+                        .putLong(toEmployeeId(change.oldEmployeeId()))
+                        .putLong(toEmployeeId(change.newEmployeeId()))
+                        .putLong(timestamp)
+                        .put((byte) cause.ordinal());
+            }
+            buffer.flip();
+            // A version never spans two segments
+            if (segmentChannel == null || segmentLength >= segmentSize) {
+                rollSegment(newVersion);
+            }
+            while (buffer.hasRemaining()) {
+                segmentLength += segmentChannel.write(buffer);
+            }
+            segmentChannel.force(false);
+            // Only indexed once it's durable
+            for (Change change : changeList) {
+                add(newVersion, change.shiftId(), toEmployeeId(change.oldEmployeeId()),
+                        toEmployeeId(change.newEmployeeId()), timestamp, (byte) cause.ordinal());
+            }
+            version = newVersion;
+            return newVersion;
+        }
+
+        // After a restart, appends continue in a new segment instead of reopening the last one
+        private void rollSegment(long firstVersion) throws IOException {
+            if (segmentChannel != null) {
+                segmentChannel.close();
+            }
+            Files.createDirectories(directory);
+            segmentChannel = FileChannel.open(directory.resolve(String.format("%020d.log", firstVersion)),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            segmentLength = segmentChannel.size();
+        }
+
+        private void add(long version, long shiftId, long oldEmployeeId, long newEmployeeId, long timestamp, byte cause) {
+            if (size == versions.length) {
+                int capacity = size * 2;
+                versions = Arrays.copyOf(versions, capacity);
+                shiftIds = Arrays.copyOf(shiftIds, capacity);
+                oldEmployeeIds = Arrays.copyOf(oldEmployeeIds, capacity);
+                newEmployeeIds = Arrays.copyOf(newEmployeeIds, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                causes = Arrays.copyOf(causes, capacity);
+            }
+            versions[size] = version;
+            shiftIds[size] = shiftId;
+            oldEmployeeIds[size] = oldEmployeeId;
+            newEmployeeIds[size] = newEmployeeId;
+            timestamps[size] = timestamp;
+            causes[size] = cause;
+            shiftIndexMap.computeIfAbsent(shiftId, id -> new IntList()).add(size);
+            size++;
+        }
+
+        private synchronized List<Event> listByShift(Long shiftId) {
+            IntList indexList = shiftIndexMap.get(shiftId);
+            if (indexList == null) {
+                return List.of();
+            }
+            List<Event> eventList = new ArrayList<>(indexList.size);
+            for (int i = 0; i < indexList.size; i++) {
+                eventList.add(event(indexList.values[i]));
+            }
+            return eventList;
+        }
+
+        private synchronized Map<Long, Long> getAssignmentsAt(long version) {
+            int end = endIndex(version);
+            Map<Long, Long> assignmentMap = new LinkedHashMap<>();
+            for (int i = 0; i < end; i++) {
+                assignmentMap.put(shiftIds[i], fromEmployeeId(newEmployeeIds[i]));
+            }
+            return assignmentMap;
+        }
+
+        // Index of the first event after that version, by binary search over the version column
+        private int endIndex(long version) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (versions[middle] <= version) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private Event event(int index) {
+            return new Event(versions[index], shiftIds[index], fromEmployeeId(oldEmployeeIds[index]),
+                    fromEmployeeId(newEmployeeIds[index]), Instant.ofEpochMilli(timestamps[index]),
+                    Cause.values()[causes[index]]);
+        }
+
+        private synchronized void close() {
+            if (segmentChannel != null) {
+                try {
+                    segmentChannel.close();
+                } catch (IOException e) {
+                    LOGGER.warnf(e, "Could not close a history segment in (%s).", directory);
+                }
+                segmentChannel = null;
+            }
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size = 0;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
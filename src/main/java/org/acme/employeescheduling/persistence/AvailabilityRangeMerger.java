@@ -0,0 +1,151 @@
+package org.acme.employeescheduling.persistence;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import jakarta.persistence.EntityManager;
+
+import org.acme.employeescheduling.domain.Availability;
+import org.acme.employeescheduling.domain.AvailabilityType;
+import org.acme.employeescheduling.domain.Employee;
+
+/**
+ * Keeps the availability ranges of a schedule normalized while they're written: per resident, ranges never overlap,
+ * and adjacent or overlapping ranges of the same type are merged into one.
+ * <p>
+ * A new range wins over the days it overlaps of a range of another type, which is trimmed or split around it.
+ * Existing rows are changed with statements by id, as the caller may clear the persistence context between
+ * inserts. Use one merger per transaction.
+ */
+public class AvailabilityRangeMerger {
+
+    private static final Comparator<Availability> DATE_COMPARATOR = Comparator.comparing(Availability::getDate);
+
+    private final AvailabilityRepository availabilityRepository;
+    private final Long tenantId;
+    private final Consumer<Availability> inserter;
+    // Sorted by date per employee id
+    private final Map<Long, List<Availability>> employeeRangeMap = new HashMap<>();
+
+    // Identity semantics: Availability doesn't override equals
+    private final Set<Availability> insertedSet = new LinkedHashSet<>();
+    private final Set<Availability> updatedSet = new LinkedHashSet<>();
+    private final Set<Availability> removedSet = new LinkedHashSet<>();
+
+    public AvailabilityRangeMerger(AvailabilityRepository availabilityRepository, Long tenantId,
+            Consumer<Availability> inserter) {
+        this.availabilityRepository = availabilityRepository;
+        this.tenantId = tenantId;
+        this.inserter = inserter;
+        for (Availability availability : availabilityRepository.listByTenant(tenantId)) {
+            employeeRangeMap.computeIfAbsent(availability.getEmployee().getId(), id -> new ArrayList<>()).add(availability);
+        }
+    }
+
+    /**
+     * @param from inclusive
+     * @param to inclusive
+     * @return the number of days that weren't already of that type
+     */
+    public int add(Employee employee, LocalDate from, LocalDate to, AvailabilityType availabilityType) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The end date (" + to + ") is before the date (" + from + ").");
+        }
+        List<Availability> rangeList = employeeRangeMap.computeIfAbsent(employee.getId(), id -> new ArrayList<>());
+        int dayCount = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        int coveredDayCount = 0;
+        for (Availability range : rangeList) {
+            if (range.getAvailabilityType() == availabilityType) {
+                coveredDayCount += range.countOverlappingDays(from, to);
+            }
+        }
+        if (coveredDayCount == dayCount) {
+            return 0;
+        }
+        LocalDate mergedFrom = from;
+        LocalDate mergedTo = to;
+        for (Availability range : new ArrayList<>(rangeList)) {
+            if (range.getAvailabilityType() == availabilityType) {
+                // Adjacent counts too, so a range one day after another extends it
+                if (!range.getDate().isAfter(to.plusDays(1)) && !range.getEndDate().isBefore(from.minusDays(1))) {
+                    mergedFrom = range.getDate().isBefore(mergedFrom) ? range.getDate() : mergedFrom;
+                    mergedTo = range.getEndDate().isAfter(mergedTo) ? range.getEndDate() : mergedTo;
+                    remove(rangeList, range);
+                }
+            } else if (range.countOverlappingDays(from, to) > 0) {
+                boolean keepsHead = range.getDate().isBefore(from);
+                boolean keepsTail = range.getEndDate().isAfter(to);
+                if (keepsHead && keepsTail) {
+                    LocalDate tailEnd = range.getEndDate();
+                    update(range, range.getDate(), from.minusDays(1));
+                    insert(rangeList, range.getEmployee(), to.plusDays(1), tailEnd, range.getAvailabilityType());
+                } else if (keepsHead) {
+                    update(range, range.getDate(), from.minusDays(1));
+                } else if (keepsTail) {
+                    update(range, to.plusDays(1), range.getEndDate());
+                } else {
+                    remove(rangeList, range);
+                }
+            }
+        }
+        insert(rangeList, employee, mergedFrom, mergedTo, availabilityType);
+        return dayCount - coveredDayCount;
+    }
+
+    public List<Availability> getInsertedList() {
+        return new ArrayList<>(insertedSet);
+    }
+
+    // Doesn't include the inserted ranges that were changed again, they're inserted with their last values
+    public List<Availability> getUpdatedList() {
+        return new ArrayList<>(updatedSet);
+    }
+
+    public List<Availability> getRemovedList() {
+        return new ArrayList<>(removedSet);
+    }
+
+    private void insert(List<Availability> rangeList, Employee employee, LocalDate from, LocalDate to,
+            AvailabilityType availabilityType) {
+        Availability availability = new Availability(employee, from, to, availabilityType);
+        availability.setTenantId(tenantId);
+        inserter.accept(availability);
+        rangeList.add(availability);
+        rangeList.sort(DATE_COMPARATOR);
+        insertedSet.add(availability);
+    }
+
+    private void update(Availability range, LocalDate from, LocalDate to) {
+        EntityManager entityManager = availabilityRepository.getEntityManager();
+        if (!entityManager.contains(range)) {
+            availabilityRepository.update("date = ?1, endDate = ?2 where id = ?3", from, to, range.getId());
+        }
+        range.setDate(from);
+        range.setEndDate(to);
+        if (!insertedSet.contains(range)) {
+            updatedSet.add(range);
+        }
+    }
+
+    private void remove(List<Availability> rangeList, Availability range) {
+        EntityManager entityManager = availabilityRepository.getEntityManager();
+        if (entityManager.contains(range)) {
+            entityManager.remove(range);
+        } else {
+            availabilityRepository.delete("id", range.getId());
+        }
+        rangeList.remove(range);
+        if (!insertedSet.remove(range)) {
+            updatedSet.remove(range);
+            removedSet.add(range);
+        }
+    }
+}
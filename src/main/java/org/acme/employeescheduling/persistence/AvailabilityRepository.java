@@ -1,11 +1,44 @@
 package org.acme.employeescheduling.persistence;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import jakarta.enterprise.context.ApplicationScoped;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
 import org.acme.employeescheduling.domain.Availability;
+import org.hibernate.jpa.HibernateHints;
 
 @ApplicationScoped
 public class AvailabilityRepository implements PanacheRepository<Availability> {
 
+    public List<Availability> listByTenant(Long tenantId) {
+        return list("tenantId", Sort.by("date").and("id"), tenantId);
+    }
+
+    // Load the employees first (see EmployeeRepository.listByTenantReadOnly) so they resolve from the session
+    public List<Availability> listByTenantReadOnly(Long tenantId) {
+        return find("tenantId", Sort.by("date").and("id"), tenantId).withHint(HibernateHints.HINT_READ_ONLY, true).list();
+    }
+
+    // Ranges overlapping the window, from is inclusive, to is exclusive, every argument except tenantId is optional
+    public List<Availability> listByTenantAndWindow(Long tenantId, LocalDate from, LocalDate to, String employeeName) {
+        StringBuilder query = new StringBuilder("from Availability a where a.tenantId = :tenantId");
+        Parameters parameters = Parameters.with("tenantId", tenantId);
+        if (from != null) {
+            query.append(" and a.endDate >= :from");
+            parameters.and("from", from);
+        }
+        if (to != null) {
+            query.append(" and a.date < :to");
+            parameters.and("to", to);
+        }
+        if (employeeName != null) {
+            query.append(" and a.employee.name = :employeeName");
+            parameters.and("employeeName", employeeName);
+        }
+        return list(query.toString(), Sort.by("date").and("id"), parameters);
+    }
 }
@@ -1,11 +1,33 @@
 package org.acme.employeescheduling.persistence;
 
+import java.util.List;
+
 import jakarta.enterprise.context.ApplicationScoped;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import org.acme.employeescheduling.domain.Employee;
+import org.hibernate.jpa.HibernateHints;
 
 @ApplicationScoped
 public class EmployeeRepository implements PanacheRepository<Employee> {
 
+    private static final String LIST_BY_TENANT_QUERY =
+            "from Employee e left join fetch e.skillSet where e.tenantId = ?1 order by e.name";
+
+    // The skillSet comes in the same select, instead of one extra select per employee.
+    // Cached: a repeated call resolves the employees and their skill sets from the second-level cache.
+    public List<Employee> listByTenant(Long tenantId) {
+        return find(LIST_BY_TENANT_QUERY, tenantId).withHint(HibernateHints.HINT_CACHEABLE, true).list();
+    }
+
+    // For building a planning solution: no dirty checking snapshots, the entities are only read
+    public List<Employee> listByTenantReadOnly(Long tenantId) {
+        return find(LIST_BY_TENANT_QUERY, tenantId)
+                .withHint(HibernateHints.HINT_CACHEABLE, true)
+                .withHint(HibernateHints.HINT_READ_ONLY, true).list();
+    }
+
+    public Employee findByTenantAndName(Long tenantId, String name) {
+        return find("tenantId = ?1 and name = ?2", tenantId, name).firstResult();
+    }
 }
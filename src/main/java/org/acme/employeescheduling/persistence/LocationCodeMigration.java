@@ -0,0 +1,50 @@
+package org.acme.employeescheduling.persistence;
+
+import java.util.List;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.Transactional;
+
+import io.quarkus.runtime.StartupEvent;
+import org.acme.employeescheduling.domain.Location;
+import org.jboss.logging.Logger;
+
+/**
+ * Rewrites the location labels ("ED cover") of rows stored before the Location enum into their short codes ("ED"),
+ * so the LocationConverter and the Shift discriminator can read them. Runs before anything else loads a shift,
+ * a no-op once migrated (and on a database created from scratch). Resident years were already stored as "R2".
+ */
+@ApplicationScoped
+public class LocationCodeMigration {
+
+    private static final Logger LOGGER = Logger.getLogger(LocationCodeMigration.class);
+    private static final List<String> ENTITY_NAMES = List.of("Shift", "ArchivedShift", "ShiftTemplate");
+
+    @Inject
+    ShiftRepository shiftRepository;
+
+    @Transactional
+    void migrateOnStartup(@Observes @Priority(Interceptor.Priority.APPLICATION + 100) StartupEvent startupEvent) {
+        int migratedCount = 0;
+        for (String entityName : ENTITY_NAMES) {
+            for (Location location : Location.values()) {
+                if (location.getLabel().equals(location.getCode())) {
+                    continue;
+                }
+                // The cast compares the stored column as is, bypassing the converter
+                migratedCount += shiftRepository.getEntityManager().createQuery("update " + entityName
+                        + " e set e.location = :location where cast(e.location as String) = :label")
+                        .setParameter("location", location)
+                        .setParameter("label", location.getLabel())
+                        .executeUpdate();
+            }
+        }
+        if (migratedCount > 0) {
+            LOGGER.infof("Migrated the location of %d rows to its short code.", migratedCount);
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package org.acme.employeescheduling.persistence;
 
+import java.util.List;
+
 import jakarta.enterprise.context.ApplicationScoped;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import org.acme.employeescheduling.domain.Rotation;
+import org.hibernate.jpa.HibernateHints;
 
 @ApplicationScoped
 public class RotationRepository implements PanacheRepository<Rotation> {
     // The implementation of the PanacheRepository interface provides 
     // basic CRUD operations. Additional custom methods can be defined here if needed.
-}
\ No newline at end of file
+
+    // The requiredBlocks come in the same select, a repeated call is served by the second-level cache
+    public List<Rotation> listByTenant(Long tenantId) {
+        return find("from Rotation r left join fetch r.requiredBlocks where r.tenantId = ?1", tenantId)
+                .withHint(HibernateHints.HINT_CACHEABLE, true).list();
+    }
+}
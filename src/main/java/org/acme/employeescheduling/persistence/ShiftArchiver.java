@@ -0,0 +1,76 @@
+package org.acme.employeescheduling.persistence;
+
+import java.time.LocalDate;
+import java.time.Month;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.Transactional;
+
+import io.quarkus.runtime.StartupEvent;
+import org.acme.employeescheduling.domain.ScheduleState;
+
+/**
+ * Moves the historic shifts of earlier academic years into the ArchivedShift table, so the shifts the solver loads
+ * stay about one academic year (plus the draft period) however many years a schedule has run.
+ * The archive only counts through its per-resident totals (see ArchivedShiftRepository.summarize).
+ */
+@ApplicationScoped
+public class ShiftArchiver {
+
+    // Academic years start on July 1
+    private static final Month ACADEMIC_YEAR_START_MONTH = Month.JULY;
+    // The longest shift (a Peds block) is 2 weeks: pairwise rules (overlap, rest, 24h after 24h) never need older shifts
+    private static final int PAIRWISE_LOOK_BACK_DAYS = 14;
+
+    @Inject
+    ShiftRepository shiftRepository;
+    @Inject
+    ScheduleStateRepository scheduleStateRepository;
+
+    // Runs after the RosterLoader, before the ShiftCountProjection reads the shifts
+    @Transactional
+    void archiveOnStartup(@Observes @Priority(Interceptor.Priority.APPLICATION + 580) StartupEvent startupEvent) {
+        for (ScheduleState scheduleState : scheduleStateRepository.listAll()) {
+            archive(scheduleState);
+        }
+    }
+
+    /**
+     * Shifts that ended before the returned date get archived: the start of the academic year of the first draft date,
+     * but never a published shift, and with a margin for the pairwise rules.
+     */
+    public static LocalDate getArchiveDate(ScheduleState scheduleState) {
+        LocalDate firstDraftDate = scheduleState.getFirstDraftDate();
+        LocalDate academicYearStart = LocalDate.of(firstDraftDate.getYear(), ACADEMIC_YEAR_START_MONTH, 1);
+        if (academicYearStart.isAfter(firstDraftDate)) {
+            academicYearStart = academicYearStart.minusYears(1);
+        }
+        LocalDate firstPublishedDate = scheduleState.getFirstPublishedDate();
+        LocalDate archiveDate = firstPublishedDate.isBefore(academicYearStart) ? firstPublishedDate : academicYearStart;
+        return archiveDate.minusDays(PAIRWISE_LOOK_BACK_DAYS);
+    }
+
+    // Two bulk statements, nothing goes through the persistence context. Returns the number of archived shifts.
+    @Transactional
+    public int archive(ScheduleState scheduleState) {
+        Long tenantId = scheduleState.getTenantId();
+        LocalDate archiveDate = getArchiveDate(scheduleState);
+        shiftRepository.flush();
+        int archivedCount = shiftRepository.getEntityManager().createQuery(
+                "insert into ArchivedShift (id, tenantId, start, end, location, requiredSkill, employee, isOptional,"
+                        + " templateId) select s.id, s.tenantId, s.start, s.end, s.location, s.requiredSkill,"
+                        + " s.employee, s.isOptional, s.templateId from Shift s"
+                        + " where s.tenantId = :tenantId and s.end <= :archiveDate")
+                .setParameter("tenantId", tenantId)
+                .setParameter("archiveDate", archiveDate.atStartOfDay())
+                .executeUpdate();
+        if (archivedCount > 0) {
+            shiftRepository.delete("from Shift s where s.tenantId = ?1 and s.end <= ?2", tenantId, archiveDate.atStartOfDay());
+        }
+        return archivedCount;
+    }
+}
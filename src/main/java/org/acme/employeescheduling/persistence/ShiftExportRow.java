@@ -0,0 +1,10 @@
+package org.acme.employeescheduling.persistence;
+
+import java.time.LocalDateTime;
+
+import org.acme.employeescheduling.domain.Location;
+
+// A shift flattened for export, employeeName is null for an unassigned shift
+public record ShiftExportRow(Long id, LocalDateTime start, LocalDateTime end, Location location, String requiredSkill,
+        String employeeName) {
+}
@@ -1,11 +1,78 @@
 package org.acme.employeescheduling.persistence;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.TypedQuery;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
+import org.acme.employeescheduling.domain.Location;
 import org.acme.employeescheduling.domain.Shift;
+import org.hibernate.jpa.HibernateHints;
 
 @ApplicationScoped
 public class ShiftRepository implements PanacheRepository<Shift> {
 
+    static final int EXPORT_FETCH_SIZE = 500;
+
+    public List<Shift> listByTenant(Long tenantId) {
+        return list("tenantId", Sort.by("location").and("start").and("id"), tenantId);
+    }
+
+    // Load the employees first (see EmployeeRepository.listByTenantReadOnly) so they resolve from the session
+    public List<Shift> listByTenantReadOnly(Long tenantId) {
+        return find("tenantId", Sort.by("location").and("start").and("id"), tenantId)
+                .withHint(HibernateHints.HINT_READ_ONLY, true).list();
+    }
+
+    // Every argument except tenantId is optional, a shift matches the window if it overlaps it
+    public List<Shift> listByTenantAndWindow(Long tenantId, LocalDateTime from, LocalDateTime to,
+            String employeeName, Location location) {
+        StringBuilder query = new StringBuilder("from Shift s");
+        Parameters parameters = appendWindow(query, tenantId, from, to, employeeName, location);
+        return list(query.toString(), Sort.by("location").and("start").and("id"), parameters);
+    }
+
+    // Scalar rows off a database cursor: nothing enters the persistence context, so memory stays flat however
+    // long the schedule is. Must be consumed (and closed) within the transaction.
+    public Stream<ShiftExportRow> streamExportRows(Long tenantId, LocalDateTime from, LocalDateTime to,
+            String employeeName, Location location) {
+        StringBuilder query = new StringBuilder("select new org.acme.employeescheduling.persistence.ShiftExportRow("
+                + "s.id, s.start, s.end, s.location, s.requiredSkill, e.name) from Shift s left join s.employee e");
+        Parameters parameters = appendWindow(query, tenantId, from, to, employeeName, location);
+        query.append(" order by s.start, s.location, s.id");
+        TypedQuery<ShiftExportRow> typedQuery = getEntityManager().createQuery(query.toString(), ShiftExportRow.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        parameters.map().forEach(typedQuery::setParameter);
+        return typedQuery.getResultStream();
+    }
+
+    // Also the window of the archived shifts, so the query must name its shift "s"
+    static Parameters appendWindow(StringBuilder query, Long tenantId, LocalDateTime from, LocalDateTime to,
+            String employeeName, Location location) {
+        query.append(" where s.tenantId = :tenantId");
+        Parameters parameters = Parameters.with("tenantId", tenantId);
+        if (from != null) {
+            query.append(" and s.end > :from");
+            parameters.and("from", from);
+        }
+        if (to != null) {
+            query.append(" and s.start < :to");
+            parameters.and("to", to);
+        }
+        if (employeeName != null) {
+            query.append(" and s.employee.name = :employeeName");
+            parameters.and("employeeName", employeeName);
+        }
+        if (location != null) {
+            query.append(" and s.location = :location");
+            parameters.and("location", location);
+        }
+        return parameters;
+    }
 }
@@ -0,0 +1,172 @@
+package org.acme.employeescheduling.persistence;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import io.quarkus.panache.common.Sort;
+import org.acme.employeescheduling.domain.Shift;
+import org.acme.employeescheduling.domain.ShiftTemplate;
+
+/**
+ * Creates the shifts of the {@link ShiftTemplate}s for a window of days on demand (at startup for the draft period,
+ * at publish for the days it brings into the draft period), instead of materializing the whole horizon up front.
+ * <p>
+ * Expanding is idempotent: a shift remembers its template, so only the seats that don't exist yet are inserted.
+ * Inserts go out in chunks of one JDBC batch, the persistence context is cleared after each chunk.
+ */
+@ApplicationScoped
+public class ShiftTemplateExpander {
+
+    // Same as quarkus.hibernate-orm.jdbc.statement-batch-size
+    private static final int INSERT_CHUNK_SIZE = 100;
+
+    @Inject
+    ShiftTemplateRepository shiftTemplateRepository;
+    @Inject
+    ShiftRepository shiftRepository;
+
+    public record Reconciliation(List<Shift> insertedList, List<Shift> updatedList, List<Shift> removedList) {
+
+        public Report toReport() {
+            return new Report(insertedList.size(), updatedList.size(), removedList.size());
+        }
+    }
+
+    public record Report(int inserted, int updated, int removed) {
+    }
+
+    private record SeatKey(Long templateId, LocalDateTime start) {
+    }
+
+    // Every template of the schedule, for the shifts starting on a date from inclusive to exclusive
+    @Transactional
+    public List<Shift> expand(Long tenantId, LocalDate from, LocalDate to) {
+        Map<SeatKey, Long> existingCountMap = new HashMap<>();
+        List<Object[]> rowList = shiftRepository.getEntityManager().createQuery(
+                "select s.templateId, s.start, count(s) from Shift s where s.tenantId = :tenantId"
+                        + " and s.templateId is not null and s.start >= :from and s.start < :to"
+                        + " group by s.templateId, s.start", Object[].class)
+                .setParameter("tenantId", tenantId)
+                .setParameter("from", from.atStartOfDay())
+                .setParameter("to", to.atStartOfDay())
+                .getResultList();
+        for (Object[] row : rowList) {
+            existingCountMap.put(new SeatKey((Long) row[0], (LocalDateTime) row[1]), (Long) row[2]);
+        }
+        List<Shift> insertedList = new ArrayList<>();
+        for (ShiftTemplate template : shiftTemplateRepository.listByTenant(tenantId)) {
+            for (LocalDateTime start : template.listStarts(from, to)) {
+                long existingCount = existingCountMap.getOrDefault(new SeatKey(template.getId(), start), 0L);
+                for (long seat = existingCount; seat < template.getSeats(); seat++) {
+                    insertedList.add(template.createShift(start));
+                }
+            }
+        }
+        insert(insertedList);
+        return insertedList;
+    }
+
+    /**
+     * Brings the shifts of a changed template, starting on a date from inclusive to exclusive, in line with it:
+     * shifts keep their id and assignment where the template still has them (their times may move within the day),
+     * surplus seats and dates the template no longer occurs on are removed and missing seats are inserted.
+     * Shifts outside the window, such as published ones, aren't touched.
+     */
+    @Transactional
+    public Reconciliation reconcile(ShiftTemplate template, LocalDate from, LocalDate to) {
+        Map<LocalDate, List<Shift>> existingMap = new LinkedHashMap<>();
+        for (Shift shift : shiftRepository.list("templateId = ?1 and start >= ?2 and start < ?3",
+                Sort.by("start").and("id"), template.getId(), from.atStartOfDay(), to.atStartOfDay())) {
+            existingMap.computeIfAbsent(shift.getStart().toLocalDate(), date -> new ArrayList<>()).add(shift);
+        }
+        List<Shift> insertedList = new ArrayList<>();
+        List<Shift> updatedList = new ArrayList<>();
+        List<Shift> removedList = new ArrayList<>();
+        for (LocalDateTime start : template.listStarts(from, to)) {
+            List<Shift> existingList = existingMap.remove(start.toLocalDate());
+            int existingCount = existingList == null ? 0 : existingList.size();
+            for (int seat = 0; seat < Math.max(existingCount, template.getSeats()); seat++) {
+                if (seat >= existingCount) {
+                    insertedList.add(template.createShift(start));
+                } else if (seat >= template.getSeats()) {
+                    removedList.add(existingList.get(seat));
+                } else {
+                    Shift shift = existingList.get(seat);
+                    Shift expected = template.createShift(start);
+                    if (shift.getClass() != expected.getClass()) {
+                        // The location moved to another type of shift (say ED cover to Peds): a new row of that type
+                        removedList.add(shift);
+                        insertedList.add(expected);
+                    } else if (!shift.getStart().equals(start) || !template.matches(shift)) {
+                        shift.setStart(expected.getStart());
+                        shift.setEnd(expected.getEnd());
+                        shift.setLocation(expected.getLocation());
+                        shift.setRequiredSkill(expected.getRequiredSkill());
+                        shift.setOptional(expected.isOptional());
+                        updatedList.add(shift);
+                    }
+                }
+            }
+        }
+        existingMap.values().forEach(removedList::addAll);
+        removedList.forEach(shiftRepository::delete);
+        // The updates and removals are written before the first chunk of inserts clears the persistence context
+        shiftRepository.flush();
+        insert(insertedList);
+        return new Reconciliation(insertedList, updatedList, removedList);
+    }
+
+    @Transactional
+    public Reconciliation create(Long tenantId, ShiftTemplate template, LocalDate from, LocalDate to) {
+        template.validate();
+        if (shiftTemplateRepository.findByTenantAndName(tenantId, template.getName()) != null) {
+            throw new IllegalArgumentException("There already is a shift template (" + template.getName() + ").");
+        }
+        template.setId(null);
+        template.setTenantId(tenantId);
+        shiftTemplateRepository.persist(template);
+        return reconcile(template, from, to);
+    }
+
+    // Copies everything but the id and tenant from the changes into the template, then reconciles its shifts
+    @Transactional
+    public Reconciliation update(Long templateId, ShiftTemplate changes, LocalDate from, LocalDate to) {
+        changes.validate();
+        ShiftTemplate template = shiftTemplateRepository.findById(templateId);
+        template.setName(changes.getName());
+        template.setLocation(changes.getLocation());
+        template.setDays(changes.getDays());
+        template.setStartTime(changes.getStartTime());
+        template.setDuration(changes.getDuration());
+        template.setEveryWeeks(changes.getEveryWeeks());
+        template.setFirstDate(changes.getFirstDate());
+        template.setLastDate(changes.getLastDate());
+        template.setSeats(changes.getSeats());
+        template.setRequiredSkill(changes.getRequiredSkill());
+        template.setOptional(changes.isOptional());
+        template.setExcludedDates(changes.getExcludedDates());
+        return reconcile(template, from, to);
+    }
+
+    private void insert(List<Shift> shiftList) {
+        EntityManager entityManager = shiftRepository.getEntityManager();
+        for (int i = 0; i < shiftList.size(); i++) {
+            entityManager.persist(shiftList.get(i));
+            if ((i + 1) % INSERT_CHUNK_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+    }
+}
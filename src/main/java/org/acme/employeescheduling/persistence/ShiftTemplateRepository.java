@@ -0,0 +1,21 @@
+package org.acme.employeescheduling.persistence;
+
+import java.util.List;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import org.acme.employeescheduling.domain.ShiftTemplate;
+
+@ApplicationScoped
+public class ShiftTemplateRepository implements PanacheRepository<ShiftTemplate> {
+
+    public List<ShiftTemplate> listByTenant(Long tenantId) {
+        return list("tenantId", Sort.by("id"), tenantId);
+    }
+
+    public ShiftTemplate findByTenantAndName(Long tenantId, String name) {
+        return find("tenantId = ?1 and name = ?2", tenantId, name).firstResult();
+    }
+}
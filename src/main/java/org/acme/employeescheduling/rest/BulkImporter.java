@@ -0,0 +1,262 @@
+package org.acme.employeescheduling.rest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.MediaType;
+
+import org.acme.employeescheduling.domain.Availability;
+import org.acme.employeescheduling.domain.AvailabilityType;
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.Shift;
+import org.acme.employeescheduling.persistence.AvailabilityRangeMerger;
+import org.acme.employeescheduling.persistence.AvailabilityRepository;
+import org.acme.employeescheduling.persistence.EmployeeRepository;
+import org.acme.employeescheduling.persistence.ScheduleStateRepository;
+import org.acme.employeescheduling.persistence.ShiftRepository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads CSV (with a header line) or NDJSON bodies one line at a time, validates every row on its own
+ * and inserts the valid ones in JDBC batches. Invalid rows are reported by line number and don't stop the import.
+ * <p>
+ * Availability columns: employee, date, endDate (optional, inclusive, the date by default), availabilityType.
+ * Shift columns: start, end, location, requiredSkill, employee (optional), optional (optional).
+ */
+@ApplicationScoped
+public class BulkImporter {
+
+    public static final String TEXT_CSV = "text/csv";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    // Matches quarkus.hibernate-orm.jdbc.statement-batch-size, the persistence context is cleared after every batch
+    static final int BATCH_SIZE = 100;
+
+    @Inject
+    ObjectMapper objectMapper;
+    @Inject
+    ScheduleStateRepository scheduleStateRepository;
+    @Inject
+    EmployeeRepository employeeRepository;
+    @Inject
+    AvailabilityRepository availabilityRepository;
+    @Inject
+    ShiftRepository shiftRepository;
+
+    public record RowError(long line, String message) {
+    }
+
+    public record Report(long rows, int inserted, int updated, int removed, List<RowError> errors) {
+    }
+
+    public record Result<T>(Report report, List<T> insertedList, List<T> updatedList, List<T> removedList) {
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void handle(long line, Map<String, String> row);
+    }
+
+    private record ImportedRange(long line, LocalDate from, LocalDate to) {
+    }
+
+    // A range is merged into the existing ones (see AvailabilityRangeMerger),
+    // a range overlapping an earlier one of the same resident within the body is an error
+    @Transactional
+    public Result<Availability> importAvailability(Long tenantId, MediaType mediaType, InputStream body) throws IOException {
+        Map<String, Employee> employeeMap = findEmployeeMap(tenantId);
+        int[] insertCount = {0};
+        AvailabilityRangeMerger merger = new AvailabilityRangeMerger(availabilityRepository, tenantId, availability -> {
+            availabilityRepository.persist(availability);
+            if (++insertCount[0] % BATCH_SIZE == 0) {
+                availabilityRepository.flush();
+                availabilityRepository.getEntityManager().clear();
+            }
+        });
+        Map<String, List<ImportedRange>> importedRangeMap = new HashMap<>();
+        List<RowError> errorList = new ArrayList<>();
+        long rows = readRows(mediaType, body, errorList, (line, row) -> {
+            Employee employee = findEmployee(employeeMap, required(row, "employee"));
+            LocalDate date = LocalDate.parse(required(row, "date"));
+            String endDateValue = row.get("endDate");
+            LocalDate endDate = endDateValue == null || endDateValue.isBlank() ? date : LocalDate.parse(endDateValue.strip());
+            AvailabilityType availabilityType = AvailabilityType.valueOf(required(row, "availabilityType"));
+            if (endDate.isBefore(date)) {
+                throw new IllegalArgumentException("The endDate (" + endDate + ") is before the date (" + date + ").");
+            }
+            List<ImportedRange> importedRangeList = importedRangeMap.computeIfAbsent(employee.getName(), name -> new ArrayList<>());
+            for (ImportedRange importedRange : importedRangeList) {
+                if (!importedRange.from().isAfter(endDate) && !importedRange.to().isBefore(date)) {
+                    throw new IllegalArgumentException("Overlaps line (" + importedRange.line() + ") for ("
+                            + employee.getName() + ", " + date + ".." + endDate + ").");
+                }
+            }
+            importedRangeList.add(new ImportedRange(line, date, endDate));
+            merger.add(employee, date, endDate, availabilityType);
+        });
+        availabilityRepository.flush();
+        List<Availability> insertedList = merger.getInsertedList();
+        List<Availability> updatedList = merger.getUpdatedList();
+        List<Availability> removedList = merger.getRemovedList();
+        return new Result<>(new Report(rows, insertedList.size(), updatedList.size(), removedList.size(), errorList),
+                insertedList, updatedList, removedList);
+    }
+
+    @Transactional
+    public Result<Shift> importShifts(Long tenantId, MediaType mediaType, InputStream body) throws IOException {
+        Map<String, Employee> employeeMap = findEmployeeMap(tenantId);
+        List<Shift> insertedList = new ArrayList<>();
+        List<RowError> errorList = new ArrayList<>();
+        long rows = readRows(mediaType, body, errorList, (line, row) -> {
+            LocalDateTime start = LocalDateTime.parse(required(row, "start"));
+            LocalDateTime end = LocalDateTime.parse(required(row, "end"));
+            if (!end.isAfter(start)) {
+                throw new IllegalArgumentException("The end (" + end + ") must be after the start (" + start + ").");
+            }
+            String employeeName = row.get("employee");
+            Employee employee = employeeName == null || employeeName.isBlank() ? null : findEmployee(employeeMap, employeeName);
+            String optional = row.get("optional");
+            Shift shift = Shift.create(start, end, Location.of(required(row, "location")), required(row, "requiredSkill"), employee,
+                    optional != null && Boolean.parseBoolean(optional.strip()));
+            shift.setTenantId(tenantId);
+            shiftRepository.persist(shift);
+            insertedList.add(shift);
+            if (insertedList.size() % BATCH_SIZE == 0) {
+                shiftRepository.flush();
+                shiftRepository.getEntityManager().clear();
+            }
+        });
+        shiftRepository.flush();
+        return new Result<>(new Report(rows, insertedList.size(), 0, 0, errorList), insertedList, List.of(), List.of());
+    }
+
+    private Map<String, Employee> findEmployeeMap(Long tenantId) {
+        if (scheduleStateRepository.findById(tenantId) == null) {
+            throw new NotFoundException("There is no schedule with id (" + tenantId + ").");
+        }
+        Map<String, Employee> employeeMap = new HashMap<>();
+        for (Employee employee : employeeRepository.listByTenant(tenantId)) {
+            employeeMap.put(employee.getName(), employee);
+        }
+        return employeeMap;
+    }
+
+    private static Employee findEmployee(Map<String, Employee> employeeMap, String employeeName) {
+        Employee employee = employeeMap.get(employeeName.strip());
+        if (employee == null) {
+            throw new IllegalArgumentException("There is no resident (" + employeeName.strip() + ").");
+        }
+        return employee;
+    }
+
+    private static String required(Map<String, String> row, String column) {
+        String value = row.get(column);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("The column (" + column + ") is missing or empty.");
+        }
+        return value.strip();
+    }
+
+    // Returns the number of data rows, blank lines and the CSV header don't count
+    private long readRows(MediaType mediaType, InputStream body, List<RowError> errorList, RowHandler rowHandler)
+            throws IOException {
+        boolean csv = mediaType != null && MediaType.valueOf(TEXT_CSV).isCompatible(mediaType);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<String> header = null;
+        long lineNumber = 0;
+        long rows = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (csv && header == null) {
+                header = splitCsvLine(line);
+                continue;
+            }
+            rows++;
+            try {
+                rowHandler.handle(lineNumber, csv ? toRow(header, splitCsvLine(line)) : parseJsonLine(line));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                errorList.add(new RowError(lineNumber, e.getMessage()));
+            }
+        }
+        return rows;
+    }
+
+    private Map<String, String> parseJsonLine(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object.");
+        }
+        Map<String, String> row = new HashMap<>();
+        node.fields().forEachRemaining(field -> row.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText()));
+        return row;
+    }
+
+    private static Map<String, String> toRow(List<String> header, List<String> valueList) {
+        if (valueList.size() > header.size()) {
+            throw new IllegalArgumentException("Expected at most (" + header.size() + ") columns, but got ("
+                    + valueList.size() + ").");
+        }
+        Map<String, String> row = new LinkedHashMap<>();
+        for (int i = 0; i < valueList.size(); i++) {
+            row.put(header.get(i), valueList.get(i));
+        }
+        return row;
+    }
+
+    // Comma separated, a value in double quotes may contain commas and doubled quotes
+    private static List<String> splitCsvLine(String line) {
+        List<String> valueList = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                valueList.add(value.toString().strip());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        valueList.add(value.toString().strip());
+        return valueList;
+    }
+}
@@ -0,0 +1,117 @@
+package org.acme.employeescheduling.rest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+
+import org.acme.employeescheduling.domain.Availability;
+import org.acme.employeescheduling.domain.AvailabilityType;
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.ScheduleState;
+import org.acme.employeescheduling.domain.Shift;
+import org.acme.employeescheduling.domain.ShiftCountDto;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+/**
+ * Columnar form of an {@link EmployeeSchedule}: employees, locations and skills are sent once as dictionaries,
+ * shifts and availabilities as parallel arrays of indexes into them.
+ * Times are minutes since the epoch and dates days since the epoch, both of the schedule's local time (as if UTC).
+ * An employee index of -1 means unassigned. See decodeCompactSchedule() in app.js.
+ */
+public record CompactSchedule(ScheduleState scheduleState, String score, SolverStatus solverStatus,
+        List<Employee> employees, List<Location> locations, List<String> skills, List<AvailabilityType> availabilityTypes,
+        ShiftColumns shifts, AvailabilityColumns availabilities, Map<String, ShiftCountDto> shiftCounts) {
+
+    public static final String MEDIA_TYPE = "application/vnd.employee-schedule.compact+json";
+    private static final MediaType PARSED_MEDIA_TYPE = MediaType.valueOf(MEDIA_TYPE);
+
+    public record ShiftColumns(long[] id, int[] start, int[] end, int[] location, int[] requiredSkill, int[] employee,
+            boolean[] optional) {
+    }
+
+    public record AvailabilityColumns(long[] id, int[] date, int[] endDate, int[] employee, int[] availabilityType) {
+    }
+
+    // Either ?format=compact or an Accept header naming the compact media type explicitly (*/* doesn't count)
+    public static boolean isRequested(String format, HttpHeaders headers) {
+        if (format != null) {
+            return "compact".equalsIgnoreCase(format);
+        }
+        return headers.getAcceptableMediaTypes().stream()
+                .anyMatch(mediaType -> PARSED_MEDIA_TYPE.getType().equalsIgnoreCase(mediaType.getType())
+                        && PARSED_MEDIA_TYPE.getSubtype().equalsIgnoreCase(mediaType.getSubtype()));
+    }
+
+    public static CompactSchedule of(EmployeeSchedule schedule) {
+        List<Employee> employeeList = schedule.getEmployeeList();
+        Map<String, Integer> employeeIndexMap = new HashMap<>(employeeList.size() * 2);
+        for (int i = 0; i < employeeList.size(); i++) {
+            employeeIndexMap.put(employeeList.get(i).getName(), i);
+        }
+        Dictionary skills = new Dictionary();
+
+        List<Shift> shiftList = schedule.getShiftList();
+        int shiftCount = shiftList.size();
+        ShiftColumns shiftColumns = new ShiftColumns(new long[shiftCount], new int[shiftCount], new int[shiftCount],
+                new int[shiftCount], new int[shiftCount], new int[shiftCount], new boolean[shiftCount]);
+        for (int i = 0; i < shiftCount; i++) {
+            Shift shift = shiftList.get(i);
+            shiftColumns.id()[i] = shift.getId();
+            shiftColumns.start()[i] = epochMinute(shift.getStart());
+            shiftColumns.end()[i] = epochMinute(shift.getEnd());
+            shiftColumns.location()[i] = shift.getLocation().ordinal();
+            shiftColumns.requiredSkill()[i] = skills.indexOf(shift.getRequiredSkill());
+            shiftColumns.employee()[i] = employeeIndex(employeeIndexMap, shift.getEmployee());
+            shiftColumns.optional()[i] = shift.isOptional();
+        }
+
+        List<Availability> availabilityList = schedule.getAvailabilityList();
+        int availabilityCount = availabilityList.size();
+        AvailabilityColumns availabilityColumns = new AvailabilityColumns(new long[availabilityCount],
+                new int[availabilityCount], new int[availabilityCount], new int[availabilityCount], new int[availabilityCount]);
+        for (int i = 0; i < availabilityCount; i++) {
+            Availability availability = availabilityList.get(i);
+            availabilityColumns.id()[i] = availability.getId();
+            availabilityColumns.date()[i] = (int) availability.getDate().toEpochDay();
+            availabilityColumns.endDate()[i] = (int) availability.getEndDate().toEpochDay();
+            availabilityColumns.employee()[i] = employeeIndex(employeeIndexMap, availability.getEmployee());
+            availabilityColumns.availabilityType()[i] = availability.getAvailabilityType().ordinal();
+        }
+
+        return new CompactSchedule(schedule.getScheduleState(),
+                schedule.getScore() == null ? null : schedule.getScore().toString(), schedule.getSolverStatus(),
+                employeeList, List.of(Location.values()), skills.values, List.of(AvailabilityType.values()),
+                shiftColumns, availabilityColumns, schedule.getShiftCounts());
+    }
+
+    private static int epochMinute(LocalDateTime dateTime) {
+        return (int) (dateTime.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    private static int employeeIndex(Map<String, Integer> employeeIndexMap, Employee employee) {
+        // A filtered read only drops residents whose shifts and availabilities are dropped too
+        return employee == null ? -1 : employeeIndexMap.getOrDefault(employee.getName(), -1);
+    }
+
+    private static final class Dictionary {
+
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> indexMap = new HashMap<>();
+
+        private int indexOf(String value) {
+            return indexMap.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+    }
+}
@@ -1,49 +1,113 @@
 package org.acme.employeescheduling.rest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.time.DateTimeException;
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
 import java.time.temporal.WeekFields;
+import java.util.function.Supplier;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseBroadcaster;
+import jakarta.ws.rs.sse.SseEventSink;
 
 import org.acme.employeescheduling.bootstrap.DemoDataGenerator;
+import org.acme.employeescheduling.bootstrap.RosterLoader;
+import org.acme.employeescheduling.domain.ArchivedShift;
+import org.acme.employeescheduling.domain.Availability;
 import org.acme.employeescheduling.domain.EmployeeSchedule;
 import org.acme.employeescheduling.domain.ScheduleState;
 import org.acme.employeescheduling.domain.Employee;
 import org.acme.employeescheduling.domain.Shift;
 import org.acme.employeescheduling.domain.ShiftCountDto;
+import org.acme.employeescheduling.domain.ShiftTemplate;
 import org.acme.employeescheduling.domain.Rotation;
 
 
+import org.acme.employeescheduling.persistence.ArchivedShiftRepository;
+import org.acme.employeescheduling.persistence.AssignmentEventLog;
 import org.acme.employeescheduling.persistence.AvailabilityRepository;
 import org.acme.employeescheduling.persistence.EmployeeRepository;
 import org.acme.employeescheduling.persistence.ScheduleStateRepository;
+import org.acme.employeescheduling.persistence.ShiftArchiver;
 import org.acme.employeescheduling.persistence.ShiftRepository;
+import org.acme.employeescheduling.persistence.ShiftTemplateExpander;
+import org.acme.employeescheduling.persistence.ShiftTemplateRepository;
 import org.acme.employeescheduling.persistence.RotationRepository;
-
+import org.acme.employeescheduling.solver.BestSolutionPipeline;
+import org.acme.employeescheduling.solver.BulkImportProblemChange;
+import org.acme.employeescheduling.solver.IncrementalScoreDirector;
+import org.acme.employeescheduling.solver.ScheduleSnapshotCache;
+import org.acme.employeescheduling.solver.ShiftCountProjection;
+import org.acme.employeescheduling.solver.SolverCheckpointStore;
+import org.acme.employeescheduling.solver.WhatIfScorer;
+
+import ai.timefold.solver.core.api.score.ScoreExplanation;
 import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
 import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
 import ai.timefold.solver.core.api.solver.SolverManager;
 import ai.timefold.solver.core.api.solver.SolverStatus;
 
-import io.quarkus.panache.common.Sort;
+import io.smallrye.common.annotation.NonBlocking;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
-@Path("/schedule")
+// Endpoints touching the database run on virtual threads, so a slow load doesn't hold on to a worker thread.
+// Endpoints that only read in-memory state (solver status, counts, SSE) stay on the event loop.
+@Path("/schedules/{tenantId}")
 public class EmployeeScheduleResource {
 
-    public static final Long SINGLETON_SCHEDULE_ID = 1L;
-    
-    static final LocalTime EVENING_SHIFT_START_TIME = LocalTime.of(14, 0); 
+    private static final Logger LOGGER = Logger.getLogger(EmployeeScheduleResource.class);
 
+    // The residency program the demo data is generated for
+    public static final Long DEFAULT_TENANT_ID = 1L;
+    
     @Inject
     AvailabilityRepository availabilityRepository;
     @Inject
@@ -54,207 +118,683 @@ public class EmployeeScheduleResource {
     ScheduleStateRepository scheduleStateRepository;
     @Inject
     RotationRepository rotationRepository;
+    @Inject
+    ShiftTemplateRepository shiftTemplateRepository;
+    @Inject
+    ShiftTemplateExpander shiftTemplateExpander;
+    @Inject
+    ArchivedShiftRepository archivedShiftRepository;
+    @Inject
+    ShiftArchiver shiftArchiver;
 
     @Inject
     DemoDataGenerator dataGenerator;
+    @Inject
+    RosterLoader rosterLoader;
 
     @Inject
     SolverManager<EmployeeSchedule, Long> solverManager;
     @Inject
+    SolverFactory<EmployeeSchedule> solverFactory;
+    @Inject
     SolutionManager<EmployeeSchedule, HardMediumSoftScore> solutionManager;
+    @Inject
+    ScheduleSnapshotCache snapshotCache;
+    @Inject
+    ShiftCountProjection shiftCountProjection;
+    @Inject
+    ScheduleVersions scheduleVersions;
+    @Inject
+    BulkImporter bulkImporter;
+    @Inject
+    ScheduleExporter scheduleExporter;
+    @Inject
+    WhatIfScorer whatIfScorer;
+    @Inject
+    SolverCheckpointStore checkpointStore;
+    @Inject
+    AssignmentEventLog assignmentEventLog;
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @ConfigProperty(name = "schedule.pipeline.persist-interval", defaultValue = "5s")
+    Duration persistInterval;
+    @ConfigProperty(name = "schedule.pipeline.snapshot-interval", defaultValue = "500ms")
+    Duration snapshotInterval;
+    @ConfigProperty(name = "schedule.pipeline.push-interval", defaultValue = "1s")
+    Duration pushInterval;
+    @ConfigProperty(name = "schedule.pipeline.explain-interval", defaultValue = "30s")
+    Duration explainInterval;
+    @ConfigProperty(name = "schedule.checkpoint.interval", defaultValue = "1m")
+    Duration checkpointInterval;
+
+    private BestSolutionPipeline bestSolutionPipeline;
+
+    private final Map<Long, SseBroadcaster> sseBroadcasterMap = new ConcurrentHashMap<>();
+    private volatile Sse sse;
+
+    // Enforces the per-tenant ScheduleState.spentLimitMinutes on top of the global termination config
+    private final ScheduledExecutorService spentLimitExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "schedule-spent-limit");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<Long, ScheduledFuture<?>> spentLimitFutureMap = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initBestSolutionPipeline() {
+        bestSolutionPipeline = new BestSolutionPipeline()
+                .addStage("persist", persistInterval, (scheduleId, solution) -> {
+                    save(solution);
+                    shiftCountProjection.apply(scheduleId, solution.getShiftList());
+                    scheduleVersions.increment(scheduleId);
+                })
+                .addStage("snapshot", snapshotInterval, (scheduleId, solution) -> {
+                    snapshotCache.publish(scheduleId, solution);
+                    scheduleVersions.increment(scheduleId);
+                })
+                .addStage("push", pushInterval, this::pushBestSolution)
+                .addStage("explain", explainInterval, this::logExplanation)
+                .addStage("checkpoint", checkpointInterval, checkpointStore::write);
+    }
 
-    // To try, open http://localhost:8080/schedule
+    @PreDestroy
+    void closeBestSolutionPipeline() {
+        bestSolutionPipeline.close();
+        spentLimitExecutor.shutdownNow();
+    }
 
-    @GET
-    public EmployeeSchedule getSchedule() {
-        SolverStatus solverStatus = getSolverStatus();
-        EmployeeSchedule solution = findById(SINGLETON_SCHEDULE_ID);
-        solutionManager.update(solution); // Sets the score
-        solution.setSolverStatus(solverStatus);
-        
-        // Calculate shift counts
-        Map<String, ShiftCountDto> shiftCounts = calculateShiftCounts(solution.getShiftList());
-        solution.setShiftCounts(shiftCounts);
+    // To try, open http://localhost:8080/schedules/1
 
-        return solution;
+    // The unfiltered schedule as an entity, for the tests in this package
+    EmployeeSchedule getSchedule(Long tenantId) {
+        return loadSchedule(tenantId, ScheduleFilter.NONE);
     }
 
+    // For example http://localhost:8080/schedules/1?from=2024-07-01&to=2024-07-08
+    // Only the lists are filtered, the shift counts always cover the whole schedule.
+    // A window reaching before the archive date also lists the shifts of the archived years.
+    // Add ?format=compact (or Accept: CompactSchedule.MEDIA_TYPE) for the columnar representation.
     @GET
-    @Path("/rotations")
-    public List<Rotation> getAllRotations() {
-        return rotationRepository.listAll();
+    @Produces({ MediaType.APPLICATION_JSON, CompactSchedule.MEDIA_TYPE })
+    @RunOnVirtualThread
+    public Response getSchedule(@PathParam("tenantId") Long tenantId,
+            @QueryParam("from") String from, @QueryParam("to") String to,
+            @QueryParam("employee") String employeeName, @QueryParam("location") String location,
+            @QueryParam("format") String format, @Context HttpHeaders headers, @Context Request request) {
+        ScheduleFilter filter = ScheduleFilter.of(from, to, employeeName, location);
+        if (CompactSchedule.isRequested(format, headers)) {
+            return conditionalGet(tenantId, request, CompactSchedule.MEDIA_TYPE,
+                    () -> CompactSchedule.of(loadSchedule(tenantId, filter)));
+        }
+        return conditionalGet(tenantId, request, MediaType.APPLICATION_JSON, () -> loadSchedule(tenantId, filter));
     }
 
-    private Map<String, ShiftCountDto> calculateShiftCounts(List<Shift> shifts) {
-        Map<String, ShiftCountDto> shiftCounts = new HashMap<>();
-        for (Shift shift : shifts) {
-            Employee employee = shift.getEmployee();
-            if (employee != null) {
-                // Existing logic when employee is not null
-                String employeeName = employee.getName();
-                String employeeType = employee.getEmployeeType();
-                ShiftCountDto countDto = shiftCounts.computeIfAbsent(employeeName, k -> new ShiftCountDto(employeeType));
+    // Answers 304 from the in-memory version alone, the entity is only loaded (and scored) when it changed.
+    // The tag is taken before loading, so a concurrent change can only make the client download once more.
+    private Response conditionalGet(Long tenantId, Request request, String mediaType, Supplier<Object> entitySupplier) {
+        EntityTag entityTag = scheduleVersions.entityTag(tenantId, getSolverStatus(tenantId), mediaType);
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true); // Cacheable, but always revalidated
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        if (notModified != null) {
+            return notModified.cacheControl(cacheControl).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+        }
+        return Response.ok(entitySupplier.get(), mediaType).tag(entityTag).cacheControl(cacheControl)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+    }
 
-                countDto.incrementShiftsByLocation(shift.getLocation());
+    private EmployeeSchedule loadSchedule(Long tenantId, ScheduleFilter filter) {
+        SolverStatus solverStatus = getSolverStatus(tenantId);
+        // While solving, serve the latest best solution instead of reloading and rescoring from the database
+        EmployeeSchedule snapshot = snapshotCache.get(tenantId);
+        EmployeeSchedule solution;
+        if (snapshot != null) {
+            solution = filterSnapshot(snapshot, filter);
+        } else if (filter.isUnfiltered()) {
+            solution = findById(tenantId);
+            solutionManager.update(solution); // Sets the score
+            solution.setShiftCounts(shiftCountProjection.get(tenantId));
+        } else {
+            // A window can't be scored on its own, the score is only known for the full schedule
+            solution = findWindow(tenantId, filter);
+        }
+        solution.setSolverStatus(solverStatus);
+        return solution;
+    }
 
-                if ("Night Shift".equals(shift.getLocation())) {
-                    countDto.incrementNightShifts();
-                }
+    // The snapshot is shared with other readers and what-if sessions, so its shifts are only viewed, never relinked
+    private EmployeeSchedule filterSnapshot(EmployeeSchedule snapshot, ScheduleFilter filter) {
+        EmployeeSchedule solution = EmployeeSchedule.view(snapshot.getScheduleState(),
+                snapshot.getAvailabilityList().stream().filter(filter::matches).toList(),
+                snapshot.getEmployeeList().stream().filter(filter::matches).toList(),
+                withArchivedShifts(findArchivedWindow(snapshot.getScheduleState(), filter),
+                        snapshot.getShiftList().stream().filter(filter::matches).toList()));
+        solution.setScore(snapshot.getScore());
+        solution.setShiftCounts(shiftCountProjection.get(snapshot.getScheduleState().getTenantId()));
+        return solution;
+    }
 
-                if ("Day Shift".equals(shift.getLocation())) {
-                    countDto.incrementDayShifts();
-                }
+    @Transactional
+    protected EmployeeSchedule findWindow(Long tenantId, ScheduleFilter filter) {
+        ScheduleState scheduleState = scheduleStateRepository.findById(tenantId);
+        if (scheduleState == null) {
+            throw new NotFoundException("There is no schedule with id (" + tenantId + ").");
+        }
+        List<Employee> employeeList;
+        if (filter.employeeName() == null) {
+            employeeList = employeeRepository.listByTenant(tenantId);
+        } else {
+            Employee employee = employeeRepository.findByTenantAndName(tenantId, filter.employeeName());
+            employeeList = employee == null ? List.of() : List.of(employee);
+        }
+        EmployeeSchedule solution = new EmployeeSchedule(scheduleState,
+                availabilityRepository.listByTenantAndWindow(tenantId, filter.from(), filter.to(), filter.employeeName()),
+                employeeList,
+                withArchivedShifts(findArchivedWindow(scheduleState, filter),
+                        shiftRepository.listByTenantAndWindow(tenantId, filter.fromDateTime(), filter.toDateTime(),
+                                filter.employeeName(), filter.location())));
+        solution.setShiftCounts(shiftCountProjection.get(tenantId));
+        return solution;
+    }
 
-                if ("IR".equals(shift.getLocation())) {
-                    countDto.incrementIRShifts();
-                }
+    // A window reaching before the archive date also lists the archived shifts, as detached copies.
+    // The unfiltered schedule is what the solver sees, so it leaves them out.
+    @Transactional
+    protected List<Shift> findArchivedWindow(ScheduleState scheduleState, ScheduleFilter filter) {
+        if (filter.isUnfiltered()
+                || (filter.from() != null && !filter.from().isBefore(ShiftArchiver.getArchiveDate(scheduleState)))) {
+            return List.of();
+        }
+        return archivedShiftRepository.listByTenantAndWindowReadOnly(scheduleState.getTenantId(),
+                filter.fromDateTime(), filter.toDateTime(), filter.employeeName(), filter.location())
+                .stream().map(ArchivedShift::toShift).toList();
+    }
 
-                if ("Peds".equals(shift.getLocation())) {
-                    countDto.incrementPedsShifts();
-                }
+    private static List<Shift> withArchivedShifts(List<Shift> archivedShiftList, List<Shift> shiftList) {
+        if (archivedShiftList.isEmpty()) {
+            return shiftList;
+        }
+        List<Shift> combinedShiftList = new ArrayList<>(archivedShiftList);
+        combinedShiftList.addAll(shiftList);
+        return combinedShiftList;
+    }
 
-                if ("ED cover".equals(shift.getLocation()) && isSaturday(shift)) {
-                    countDto.incrementSaturdayShifts();
-                }
+    @GET
+    @Path("counts")
+    @NonBlocking
+    public Response getShiftCounts(@PathParam("tenantId") Long tenantId, @Context Request request) {
+        return conditionalGet(tenantId, request, MediaType.APPLICATION_JSON, () -> shiftCountProjection.get(tenantId));
+    }
 
-                if ("ED cover".equals(shift.getLocation()) && isSunday(shift)) {
-                    countDto.incrementSundayShifts();
-                }
+    @GET
+    @Path("/rotations")
+    @RunOnVirtualThread
+    public Response getAllRotations(@PathParam("tenantId") Long tenantId, @Context Request request) {
+        return conditionalGet(tenantId, request, MediaType.APPLICATION_JSON, () -> rotationRepository.listByTenant(tenantId));
+    }
 
-                if ("ED cover".equals(shift.getLocation()) && isFriday(shift)) {
-                    countDto.incrementFridayShifts();
-                }
+    // Persisted shifts only, archived years included, for example http://localhost:8080/schedules/1/export.csv?from=2024-07-01&to=2025-07-01
+    @GET
+    @Path("export.csv")
+    @Produces(BulkImporter.TEXT_CSV)
+    @RunOnVirtualThread
+    public Response exportCsv(@PathParam("tenantId") Long tenantId,
+            @QueryParam("from") String from, @QueryParam("to") String to,
+            @QueryParam("employee") String employeeName, @QueryParam("location") String location) {
+        ScheduleFilter filter = ScheduleFilter.of(from, to, employeeName, location);
+        requireSchedule(tenantId);
+        StreamingOutput output = outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            scheduleExporter.writeCsv(tenantId, filter, writer);
+        };
+        return Response.ok(output)
+                .header("Content-Disposition", "attachment; filename=\"schedule-" + tenantId + ".csv\"")
+                .build();
+    }
 
-                if (isEveningShift(shift)) {
-                    countDto.incrementTotalShifts();
-                    countDto.incrementEveningShifts();
-                }
+    // Subscribe to it from a calendar app, for example http://localhost:8080/schedules/1/residents/R2a%20A/calendar.ics
+    @GET
+    @Path("residents/{name}/calendar.ics")
+    @Produces(ScheduleExporter.TEXT_CALENDAR)
+    @RunOnVirtualThread
+    public Response exportCalendar(@PathParam("tenantId") Long tenantId, @PathParam("name") String employeeName,
+            @QueryParam("from") String from, @QueryParam("to") String to) {
+        ScheduleFilter filter = ScheduleFilter.of(from, to, null, null);
+        requireSchedule(tenantId);
+        if (employeeRepository.findByTenantAndName(tenantId, employeeName) == null) {
+            throw new NotFoundException("There is no resident (" + employeeName + ") in schedule (" + tenantId + ").");
+        }
+        if (filter.isUnfiltered()) {
+            return Response.ok(scheduleExporter.getCalendar(tenantId, employeeName)).build();
+        }
+        StreamingOutput output = outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            scheduleExporter.writeCalendar(tenantId, employeeName, filter, writer);
+        };
+        return Response.ok(output).build();
+    }
 
-                if (isWeekend(shift)) {
-                    countDto.incrementTotalShifts();
-                    countDto.incrementWeekendShifts();
-                }
-            } else {
-                // Handling for shifts where the employee is null
-                // You can choose to ignore these shifts, count them separately, or handle as needed
-            }
+    // Checked before streaming starts, once the status line is sent an error can't be reported anymore
+    private void requireSchedule(Long tenantId) {
+        if (scheduleStateRepository.findById(tenantId) == null) {
+            throw new NotFoundException("There is no schedule with id (" + tenantId + ").");
         }
-        return shiftCounts;
     }
 
+    // Cheap polling alternative to the full schedule, for example http://localhost:8080/schedules/1/status
+    @GET
+    @Path("status")
+    @NonBlocking
+    public ScheduleStatus getStatus(@PathParam("tenantId") Long tenantId) {
+        EmployeeSchedule snapshot = snapshotCache.get(tenantId);
+        return new ScheduleStatus(getSolverStatus(tenantId), scheduleVersions.get(tenantId),
+                snapshot == null || snapshot.getScore() == null ? null : snapshot.getScore().toString());
+    }
 
-    private boolean isEveningShift(Shift shift) {
-            return shift.getStart().toLocalTime().equals(EVENING_SHIFT_START_TIME);
+    // For example http://localhost:8080/schedules/1/history?shift=42 for every change of one shift,
+    // or ?version=17 for the assignments as of that history version (not the ETag version, which restarts with the JVM)
+    @GET
+    @Path("history")
+    @RunOnVirtualThread
+    public ScheduleHistory getHistory(@PathParam("tenantId") Long tenantId, @QueryParam("shift") Long shiftId,
+            @QueryParam("version") Long version) {
+        if ((shiftId == null) == (version == null)) {
+            throw new BadRequestException("Pass either a shift or a version.");
+        }
+        long latestVersion = assignmentEventLog.getVersion(tenantId);
+        Map<Long, String> employeeNameMap = new HashMap<>();
+        employeeRepository.listByTenant(tenantId).forEach(employee -> employeeNameMap.put(employee.getId(), employee.getName()));
+        if (shiftId != null) {
+            return ScheduleHistory.ofEvents(latestVersion, assignmentEventLog.listByShift(tenantId, shiftId), employeeNameMap);
+        }
+        if (version < 0 || version > latestVersion) {
+            throw new BadRequestException("The version (" + version + ") is not between 0 and " + latestVersion + ".");
+        }
+        return ScheduleHistory.ofAssignments(latestVersion, version, assignmentEventLog.getAssignmentsAt(tenantId, version),
+                employeeNameMap);
     }
 
-    private boolean isWeekend(Shift shift) {
-        DayOfWeek day = shift.getStart().getDayOfWeek();
-        return day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+    public SolverStatus getSolverStatus(Long tenantId) {
+        return solverManager.getSolverStatus(tenantId);
     }
 
-    private boolean isSaturday(Shift shift) {
-        DayOfWeek day = shift.getStart().getDayOfWeek();
-        return day == DayOfWeek.SATURDAY;
+    @POST
+    @Path("solve")
+    @RunOnVirtualThread
+    public void solve(@PathParam("tenantId") Long tenantId) {
+        solve(tenantId, findById(tenantId));
     }
 
-    private boolean isSunday(Shift shift) {
-        DayOfWeek day = shift.getStart().getDayOfWeek();
-        return day == DayOfWeek.SUNDAY;
+    // Continues a solve that was cut short by a crash or shutdown from its latest checkpoint, see SolverCheckpointStore
+    public void resume(Long tenantId) {
+        EmployeeSchedule problem = findById(tenantId);
+        checkpointStore.findLatest(tenantId).ifPresentOrElse(checkpoint -> {
+            int appliedCount = SolverCheckpointStore.apply(checkpoint, problem);
+            LOGGER.infof("Resuming schedule (%d) from its checkpoint with score (%s), %d of %d shifts restored.",
+                    tenantId, checkpoint.score(), appliedCount, problem.getShiftList().size());
+        }, () -> LOGGER.infof("Resuming schedule (%d) without a checkpoint.", tenantId));
+        solve(tenantId, problem);
     }
 
-    private boolean isFriday(Shift shift) {
-        DayOfWeek day = shift.getStart().getDayOfWeek();
-        return day == DayOfWeek.FRIDAY;
+    private void solve(Long tenantId, EmployeeSchedule problem) {
+        checkpointStore.markSolving(tenantId);
+        // Every tenant is its own problem id, so several programs solve concurrently on the same SolverManager
+        solverManager.solveAndListen(tenantId,
+                id -> problem,
+                // Runs on the solver thread: only hands the solution over to the pipeline
+                solution -> bestSolutionPipeline.offer(tenantId, solution),
+                solution -> {
+                    cancelSpentLimit(tenantId);
+                    bestSolutionPipeline.flush(tenantId, solution);
+                    checkpointStore.markFinished(tenantId);
+                },
+                (id, throwable) -> {
+                    cancelSpentLimit(id);
+                    checkpointStore.markFinished(id);
+                    LOGGER.errorf(throwable, "Solving failed for schedule (%d).", id);
+                });
+        Integer spentLimitMinutes = problem.getScheduleState().getSpentLimitMinutes();
+        if (spentLimitMinutes != null) {
+            ScheduledFuture<?> previous = spentLimitFutureMap.put(tenantId, spentLimitExecutor.schedule(
+                    () -> solverManager.terminateEarly(tenantId), spentLimitMinutes, TimeUnit.MINUTES));
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        }
+    }
+
+    private void cancelSpentLimit(Long tenantId) {
+        ScheduledFuture<?> future = spentLimitFutureMap.remove(tenantId);
+        if (future != null) {
+            future.cancel(false);
+        }
     }
 
-    public SolverStatus getSolverStatus() {
-        return solverManager.getSolverStatus(SINGLETON_SCHEDULE_ID);
+    @GET
+    @Path("events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @NonBlocking
+    public void events(@PathParam("tenantId") Long tenantId, @Context SseEventSink eventSink, @Context Sse sse) {
+        this.sse = sse;
+        sseBroadcasterMap.computeIfAbsent(tenantId, id -> sse.newBroadcaster()).register(eventSink);
+    }
+
+    private void pushBestSolution(Long scheduleId, EmployeeSchedule solution) {
+        SseBroadcaster broadcaster = sseBroadcasterMap.get(scheduleId);
+        if (broadcaster == null) {
+            return; // Nobody is listening
+        }
+        broadcaster.broadcast(sse.newEventBuilder()
+                .name("bestSolution")
+                .data(String.class, String.valueOf(solution.getScore()))
+                .build());
     }
 
+    // Explaining recalculates and sets the score, so it works on its own clone of the published solution
+    private void logExplanation(Long scheduleId, EmployeeSchedule solution) {
+        ScoreExplanation<EmployeeSchedule, HardMediumSoftScore> explanation =
+                solutionManager.explain(IncrementalScoreDirector.cloneSolution(solverFactory, solution));
+        LOGGER.infof("New best solution for schedule (%d): %s", scheduleId, explanation.getScore());
+        if (LOGGER.isDebugEnabled()) {
+            explanation.getConstraintMatchTotalMap().forEach((constraintId, constraintMatchTotal) -> {
+                LOGGER.debugf("Constraint: %s, score impact: %s", constraintId, constraintMatchTotal.getScore());
+                constraintMatchTotal.getConstraintMatchSet().forEach(constraintMatch ->
+                        LOGGER.debugf("    Justification: %s, score: %s",
+                                constraintMatch.getJustificationList(), constraintMatch.getScore()));
+            });
+        }
+    }
+
+    // For example [{"shiftId": 42, "employee": "R3b M"}], an empty employee proposes to unassign the shift.
+    // Nothing is saved: the proposals are scored and undone.
     @POST
-    @Path("solve")
-    public void solve() {
-        solverManager.solveAndListen(SINGLETON_SCHEDULE_ID,
-                this::findById,
-                solution -> {
-                    // After solving, save the solution
-                    save(solution);
-                    // Then, explain the solution
-
-
-                    System.out.println("-------------------------------NEW SOLUTION---------------------------");
-                    System.out.println("----------------------------------------------------------------------");
-                    System.out.println("----------------------------------------------------------------------");
-                    System.out.println("----------------------------------------------------------------------");
-                    System.out.println("----------------------------------------------------------------------");
-                    System.out.println("----------------------------------------------------------------------");
-                    System.out.println("----------------------------------------------------------------------");
-                    System.out.println("----------------------------------------------------------------------");
-                    System.out.println("Score:");
-                    System.out.println(solutionManager.explain(solution).getScore());
-                    System.out.println("----------------------------------------------------------------------");
-                    System.out.println("----------------------------------------------------------------------");
-
-                    solutionManager.explain(solution).getConstraintMatchTotalMap().forEach((constraintId, constraintMatchTotal) -> {
-
-                        System.out.println("Constraint: " + constraintId);
-                        System.out.println("  Score impact: " + constraintMatchTotal.getScore());
-                        constraintMatchTotal.getConstraintMatchSet().forEach(constraintMatch -> {
-                            // System.out.println("    Match: " + constraintMatch);
-                            System.out.println("    Justification: " + constraintMatch.getJustificationList());
-                            System.out.println("    Score: " + constraintMatch.getScore());
-                        });
-                    });
-                    System.out.println("----------------------------------------------------------------------");
-                    System.out.println("----------------------------------------------------------------------");
-                    System.out.println("----------------------------------------------------------------------");
-                    System.out.println("----------------------------------------------------------------------");
-                    System.out.println("----------------------------------------------------------------------");
-                    System.out.println("----------------------------------------------------------------------");
-                });
+    @Path("whatif")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public WhatIfScorer.Result whatIf(@PathParam("tenantId") Long tenantId, List<WhatIfScorer.Proposal> proposalList) {
+        if (proposalList == null || proposalList.isEmpty()) {
+            throw new BadRequestException("Propose at least one (shiftId, employee) change.");
+        }
+        try {
+            return whatIfScorer.score(tenantId, snapshotCache.get(tenantId), () -> findById(tenantId), proposalList);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
     }
 
     @POST
     @Transactional
     @Path("publish")
-    public void publish() {
-        if (!getSolverStatus().equals(SolverStatus.NOT_SOLVING)) {
-            throw new IllegalStateException("Cannot publish a schedule while solving is in progress.");
+    @RunOnVirtualThread
+    public void publish(@PathParam("tenantId") Long tenantId) {
+        if (!getSolverStatus(tenantId).equals(SolverStatus.NOT_SOLVING)) {
+            throw new ClientErrorException("Cannot publish a schedule while solving is in progress.", Response.Status.CONFLICT);
+        }
+        ScheduleState scheduleState = scheduleStateRepository.findById(tenantId);
+        if (scheduleState == null) {
+            throw new NotFoundException("There is no schedule with id (" + tenantId + ").");
         }
-        ScheduleState scheduleState = scheduleStateRepository.findById(SINGLETON_SCHEDULE_ID);
         LocalDate newHistoricDate = scheduleState.getFirstDraftDate();
         LocalDate newDraftDate = scheduleState.getFirstDraftDate().plusDays(scheduleState.getPublishLength());
 
+        // The history records who each newly published shift went out with
+        LocalDateTime publishedFrom = newHistoricDate.atStartOfDay();
+        LocalDateTime publishedTo = newDraftDate.atStartOfDay();
+        List<AssignmentEventLog.Change> changeList = new ArrayList<>();
+        for (Shift shift : shiftRepository.listByTenantAndWindow(tenantId, publishedFrom, publishedTo, null, null)) {
+            if (!shift.getStart().isBefore(publishedFrom) && shift.getStart().isBefore(publishedTo)) {
+                Long employeeId = shift.getEmployee() == null ? null : shift.getEmployee().getId();
+                changeList.add(new AssignmentEventLog.Change(shift.getId(), employeeId, employeeId));
+            }
+        }
+        assignmentEventLog.appendAfterCommit(tenantId, AssignmentEventLog.Cause.PUBLISH, changeList);
+
         scheduleState.setLastHistoricDate(newHistoricDate);
         scheduleState.setFirstDraftDate(newDraftDate);
+        // Archived shifts keep their id, so the counters of the ShiftCountProjection stay as they are
+        shiftArchiver.archive(scheduleState);
 
+        // The shifts of the days the draft period now extends over (they're unassigned, so no counts change)
+        shiftTemplateExpander.expand(tenantId, newDraftDate, newDraftDate.plusDays(scheduleState.getDraftLength()));
         dataGenerator.generateDraftShifts(scheduleState);
+        afterCommit(() -> invalidate(tenantId));
+    }
+
+    @PUT
+    @Transactional
+    @Path("shifts/{shiftId}/employee")
+    @Consumes(MediaType.TEXT_PLAIN)
+    @RunOnVirtualThread
+    public Shift assignShift(@PathParam("tenantId") Long tenantId, @PathParam("shiftId") Long shiftId, String employeeName) {
+        if (!getSolverStatus(tenantId).equals(SolverStatus.NOT_SOLVING)) {
+            throw new ClientErrorException("Cannot edit a schedule while solving is in progress.", Response.Status.CONFLICT);
+        }
+        Shift shift = shiftRepository.findById(shiftId);
+        if (shift == null || !tenantId.equals(shift.getTenantId())) {
+            throw new NotFoundException("There is no shift (" + shiftId + ") in schedule (" + tenantId + ").");
+        }
+        Employee employee = null; // An empty body unassigns the shift
+        if (employeeName != null && !employeeName.isBlank()) {
+            employee = employeeRepository.findByTenantAndName(tenantId, employeeName.strip());
+            if (employee == null) {
+                throw new NotFoundException("There is no resident (" + employeeName.strip() + ") in schedule (" + tenantId + ").");
+            }
+        }
+        Long oldEmployeeId = shift.getEmployee() == null ? null : shift.getEmployee().getId();
+        Long newEmployeeId = employee == null ? null : employee.getId();
+        if (!Objects.equals(oldEmployeeId, newEmployeeId)) {
+            assignmentEventLog.appendAfterCommit(tenantId, AssignmentEventLog.Cause.MANUAL_EDIT,
+                    List.of(new AssignmentEventLog.Change(shiftId, oldEmployeeId, newEmployeeId)));
+        }
+        shift.setEmployee(employee);
+        afterCommit(() -> {
+            shiftCountProjection.apply(tenantId, shift);
+            invalidate(tenantId);
+        });
+        return shift;
+    }
+
+    // For example: curl -H "Content-Type: text/csv" --data-binary @leave.csv localhost:8080/schedules/1/availability:bulk
+    @POST
+    @Path("availability:bulk")
+    @Consumes({ BulkImporter.TEXT_CSV, BulkImporter.APPLICATION_NDJSON })
+    @RunOnVirtualThread
+    public BulkImporter.Report importAvailability(@PathParam("tenantId") Long tenantId, @Context HttpHeaders headers,
+            InputStream body) throws IOException {
+        BulkImporter.Result<Availability> result = bulkImporter.importAvailability(tenantId, headers.getMediaType(), body);
+        if (!result.insertedList().isEmpty() || !result.updatedList().isEmpty() || !result.removedList().isEmpty()) {
+            afterImport(tenantId, BulkImportProblemChange.ofAvailability(result.insertedList(), result.updatedList(),
+                    result.removedList()));
+        }
+        return result.report();
+    }
+
+    @POST
+    @Path("shifts:bulk")
+    @Consumes({ BulkImporter.TEXT_CSV, BulkImporter.APPLICATION_NDJSON })
+    @RunOnVirtualThread
+    public BulkImporter.Report importShifts(@PathParam("tenantId") Long tenantId, @Context HttpHeaders headers,
+            InputStream body) throws IOException {
+        BulkImporter.Result<Shift> result = bulkImporter.importShifts(tenantId, headers.getMediaType(), body);
+        if (!result.insertedList().isEmpty()) {
+            afterCommit(() -> shiftCountProjection.apply(tenantId, result.insertedList()));
+            afterImport(tenantId, BulkImportProblemChange.ofShifts(result.insertedList()));
+        }
+        return result.report();
+    }
+
+    // Loads a roster definition (see RosterLoader), for example for a new academic year:
+    // curl -H "Content-Type: application/json" --data-binary @roster.json localhost:8080/schedules/1/roster
+    @POST
+    @Path("roster")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public RosterLoader.Report loadRoster(@PathParam("tenantId") Long tenantId, InputStream body) throws IOException {
+        if (!getSolverStatus(tenantId).equals(SolverStatus.NOT_SOLVING)) {
+            throw new ClientErrorException("Cannot load a roster while solving is in progress.", Response.Status.CONFLICT);
+        }
+        RosterLoader.Report report;
+        try {
+            report = rosterLoader.load(tenantId, body);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        shiftCountProjection.rebuild(tenantId);
+        afterCommit(() -> invalidate(tenantId));
+        return report;
+    }
+
+    @GET
+    @Path("shift-templates")
+    @RunOnVirtualThread
+    public List<ShiftTemplate> getShiftTemplates(@PathParam("tenantId") Long tenantId) {
+        return shiftTemplateRepository.listByTenant(tenantId);
+    }
+
+    // Expands the new template over the draft period
+    @POST
+    @Path("shift-templates")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public ShiftTemplateExpander.Report createShiftTemplate(@PathParam("tenantId") Long tenantId, ShiftTemplate template) {
+        ScheduleState scheduleState = findScheduleStateForTemplateChange(tenantId);
+        ShiftTemplateExpander.Reconciliation reconciliation;
+        try {
+            reconciliation = shiftTemplateExpander.create(tenantId, template, scheduleState.getFirstDraftDate(),
+                    scheduleState.getFirstDraftDate().plusDays(scheduleState.getDraftLength()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        afterTemplateChange(tenantId, reconciliation);
+        return reconciliation.toReport();
+    }
+
+    // Only the draft shifts of the template change, published and historic ones stay as they went out
+    @PUT
+    @Path("shift-templates/{templateId}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public ShiftTemplateExpander.Report updateShiftTemplate(@PathParam("tenantId") Long tenantId,
+            @PathParam("templateId") Long templateId, ShiftTemplate changes) {
+        ScheduleState scheduleState = findScheduleStateForTemplateChange(tenantId);
+        ShiftTemplate template = shiftTemplateRepository.findById(templateId);
+        if (template == null || !tenantId.equals(template.getTenantId())) {
+            throw new NotFoundException("There is no shift template (" + templateId + ") in schedule (" + tenantId + ").");
+        }
+        ShiftTemplateExpander.Reconciliation reconciliation;
+        try {
+            reconciliation = shiftTemplateExpander.update(templateId, changes, scheduleState.getFirstDraftDate(),
+                    scheduleState.getFirstDraftDate().plusDays(scheduleState.getDraftLength()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        afterTemplateChange(tenantId, reconciliation);
+        return reconciliation.toReport();
+    }
+
+    private ScheduleState findScheduleStateForTemplateChange(Long tenantId) {
+        if (!getSolverStatus(tenantId).equals(SolverStatus.NOT_SOLVING)) {
+            throw new ClientErrorException("Cannot change a shift template while solving is in progress.", Response.Status.CONFLICT);
+        }
+        ScheduleState scheduleState = scheduleStateRepository.findById(tenantId);
+        if (scheduleState == null) {
+            throw new NotFoundException("There is no schedule with id (" + tenantId + ").");
+        }
+        return scheduleState;
+    }
+
+    // The counts follow the changed shifts
+    private void afterTemplateChange(Long tenantId, ShiftTemplateExpander.Reconciliation reconciliation) {
+        afterCommit(() -> {
+            reconciliation.removedList().forEach(shift -> shiftCountProjection.remove(tenantId, shift.getId()));
+            shiftCountProjection.apply(tenantId, reconciliation.updatedList());
+            invalidate(tenantId);
+        });
+    }
+
+    // The import is committed by now: a running solve gets it as one problem change, otherwise reads reload it.
+    // What-if sessions start over either way, replaying best solutions into them can't pick up new facts.
+    private void afterImport(Long tenantId, BulkImportProblemChange problemChange) {
+        if (getSolverStatus(tenantId) != SolverStatus.NOT_SOLVING) {
+            solverManager.addProblemChange(tenantId, problemChange);
+            afterCommit(() -> {
+                whatIfScorer.evict(tenantId);
+                scheduleVersions.increment(tenantId);
+            });
+        } else {
+            afterCommit(() -> invalidate(tenantId));
+        }
+    }
+
+    // Drops everything derived from the persisted schedule, so the next read or what-if reloads it
+    private void invalidate(Long tenantId) {
+        snapshotCache.evict(tenantId);
+        whatIfScorer.evict(tenantId);
+        scheduleVersions.increment(tenantId);
+    }
+
+    // Within a transaction: the in-memory state must not show the change before the commit, nor a rolled back one.
+    // Outside of one the change is committed already, so it runs right away.
+    private void afterCommit(Runnable action) {
+        if (transactionSynchronizationRegistry.getTransactionStatus() == Status.STATUS_NO_TRANSACTION) {
+            action.run();
+            return;
+        }
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
     }
 
     @POST
     @Path("stopSolving")
-    public void stopSolving() {
-        solverManager.terminateEarly(SINGLETON_SCHEDULE_ID);
+    @NonBlocking
+    public void stopSolving(@PathParam("tenantId") Long tenantId) {
+        solverManager.terminateEarly(tenantId);
     }
 
     @Transactional
-    protected EmployeeSchedule findById(Long id) {
-        if (!SINGLETON_SCHEDULE_ID.equals(id)) {
-            throw new IllegalStateException("There is no schedule with id (" + id + ").");
+    protected EmployeeSchedule findById(Long tenantId) {
+        ScheduleState scheduleState = scheduleStateRepository.findById(tenantId);
+        if (scheduleState == null) {
+            throw new NotFoundException("There is no schedule with id (" + tenantId + ").");
         }
-        return new EmployeeSchedule(
-                scheduleStateRepository.findById(SINGLETON_SCHEDULE_ID),
-                availabilityRepository.listAll(Sort.by("date").and("id")),
-                employeeRepository.listAll(Sort.by("name")),
-                shiftRepository.listAll(Sort.by("location").and("start").and("id")));
+        // Employees first, so the availabilities and shifts find them in the session without extra selects.
+        // A StatelessSession would be cheaper still, but it would hand every shift its own copy of its employee.
+        List<Employee> employeeList = employeeRepository.listByTenantReadOnly(tenantId);
+        EmployeeSchedule schedule = new EmployeeSchedule(
+                scheduleState,
+                availabilityRepository.listByTenantReadOnly(tenantId),
+                employeeList,
+                shiftRepository.listByTenantReadOnly(tenantId));
+        // Earlier academic years only count, they aren't loaded shift by shift
+        schedule.setHistoricShiftSummary(archivedShiftRepository.summarize(tenantId));
+        return schedule;
     }
 
     @Transactional
     protected void save(EmployeeSchedule schedule) {
+        List<AssignmentEventLog.Change> changeList = new ArrayList<>();
         for (Shift shift : schedule.getShiftList()) {
             // TODO this is awfully naive: optimistic locking causes issues if called by the SolverManager
             Shift attachedShift = shiftRepository.findById(shift.getId());
+            Long oldEmployeeId = attachedShift.getEmployee() == null ? null : attachedShift.getEmployee().getId();
+            Long newEmployeeId = shift.getEmployee() == null ? null : shift.getEmployee().getId();
+            if (!Objects.equals(oldEmployeeId, newEmployeeId)) {
+                changeList.add(new AssignmentEventLog.Change(shift.getId(), oldEmployeeId, newEmployeeId));
+            }
             attachedShift.setEmployee(shift.getEmployee());
         }
+        assignmentEventLog.appendAfterCommit(schedule.getScheduleState().getTenantId(), AssignmentEventLog.Cause.SOLVER,
+                changeList);
     }
 }
@@ -0,0 +1,134 @@
+package org.acme.employeescheduling.rest;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import org.acme.employeescheduling.persistence.ArchivedShiftRepository;
+import org.acme.employeescheduling.persistence.ShiftExportRow;
+import org.acme.employeescheduling.persistence.ShiftRepository;
+
+/**
+ * Writes shifts straight from a database cursor as CSV or iCalendar, one row at a time, archived years included.
+ * The unfiltered calendar of a resident (the URL calendar apps subscribe to) is cached per schedule version.
+ */
+@ApplicationScoped
+public class ScheduleExporter {
+
+    public static final String TEXT_CALENDAR = "text/calendar";
+
+    private static final String CSV_HEADER = "id,start,end,location,requiredSkill,employee";
+    private static final String CRLF = "\r\n";
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    @Inject
+    ShiftRepository shiftRepository;
+    @Inject
+    ArchivedShiftRepository archivedShiftRepository;
+    @Inject
+    ScheduleVersions scheduleVersions;
+
+    private record CalendarKey(Long tenantId, String employeeName) {
+    }
+
+    private record CachedCalendar(long version, String body) {
+    }
+
+    private final Map<CalendarKey, CachedCalendar> calendarCache = new ConcurrentHashMap<>();
+
+    // Same columns as the shifts:bulk import, so an export can be edited and imported again
+    @Transactional
+    public void writeCsv(Long tenantId, ScheduleFilter filter, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write(CRLF);
+        try (Stream<ShiftExportRow> rowStream = streamRows(tenantId, filter)) {
+            for (Iterator<ShiftExportRow> it = rowStream.iterator(); it.hasNext();) {
+                ShiftExportRow row = it.next();
+                writer.write(row.id() + "," + row.start() + "," + row.end() + "," + csvValue(row.location().getLabel()) + ","
+                        + csvValue(row.requiredSkill()) + "," + csvValue(row.employeeName()) + CRLF);
+            }
+        }
+        writer.flush();
+    }
+
+    public String getCalendar(Long tenantId, String employeeName) {
+        CalendarKey key = new CalendarKey(tenantId, employeeName);
+        // Read before rendering: a concurrent change leaves an outdated version behind, never an outdated body
+        long version = scheduleVersions.get(tenantId);
+        CachedCalendar cachedCalendar = calendarCache.get(key);
+        if (cachedCalendar != null && cachedCalendar.version() == version) {
+            return cachedCalendar.body();
+        }
+        StringWriter writer = new StringWriter();
+        try {
+            writeCalendar(tenantId, employeeName, ScheduleFilter.NONE, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // A StringWriter doesn't throw
+        }
+        String body = writer.toString();
+        calendarCache.put(key, new CachedCalendar(version, body));
+        return body;
+    }
+
+    // Times are floating local times, like the schedule itself
+    @Transactional
+    public void writeCalendar(Long tenantId, String employeeName, ScheduleFilter filter, Writer writer) throws IOException {
+        String timestamp = LocalDateTime.now(ZoneOffset.UTC).format(ICS_DATE_TIME) + "Z";
+        writer.write("BEGIN:VCALENDAR" + CRLF
+                + "VERSION:2.0" + CRLF
+                + "PRODID:-//Residency Schedule//Schedule " + tenantId + "//EN" + CRLF
+                + "CALSCALE:GREGORIAN" + CRLF
+                + "X-WR-CALNAME:" + icsText(employeeName) + CRLF);
+        ScheduleFilter residentFilter = new ScheduleFilter(filter.from(), filter.to(), employeeName, filter.location());
+        try (Stream<ShiftExportRow> rowStream = streamRows(tenantId, residentFilter)) {
+            for (Iterator<ShiftExportRow> it = rowStream.iterator(); it.hasNext();) {
+                ShiftExportRow row = it.next();
+                writer.write("BEGIN:VEVENT" + CRLF
+                        + "UID:shift-" + row.id() + "@schedule-" + tenantId + CRLF
+                        + "DTSTAMP:" + timestamp + CRLF
+                        + "DTSTART:" + row.start().format(ICS_DATE_TIME) + CRLF
+                        + "DTEND:" + row.end().format(ICS_DATE_TIME) + CRLF
+                        + "SUMMARY:" + icsText(row.location().getLabel()) + CRLF
+                        + "END:VEVENT" + CRLF);
+            }
+        }
+        writer.write("END:VCALENDAR" + CRLF);
+        writer.flush();
+    }
+
+    // The archived years first: they ended before the shifts still in the Shift table
+    private Stream<ShiftExportRow> streamRows(Long tenantId, ScheduleFilter filter) {
+        return Stream.concat(
+                archivedShiftRepository.streamExportRows(tenantId, filter.fromDateTime(), filter.toDateTime(),
+                        filter.employeeName(), filter.location()),
+                shiftRepository.streamExportRows(tenantId, filter.fromDateTime(), filter.toDateTime(),
+                        filter.employeeName(), filter.location()));
+    }
+
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    // RFC 5545 TEXT escaping
+    private static String icsText(String value) {
+        return value.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n");
+    }
+}
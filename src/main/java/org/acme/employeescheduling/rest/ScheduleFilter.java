@@ -0,0 +1,82 @@
+package org.acme.employeescheduling.rest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import jakarta.ws.rs.BadRequestException;
+
+import org.acme.employeescheduling.domain.Availability;
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.Shift;
+
+/**
+ * Optional window and resident/location filter of a schedule read.
+ * {@code from} is inclusive, {@code to} is exclusive, a shift matches if it overlaps the window.
+ */
+public record ScheduleFilter(LocalDate from, LocalDate to, String employeeName, Location location) {
+
+    public static final ScheduleFilter NONE = new ScheduleFilter(null, null, null, null);
+
+    public static ScheduleFilter of(String from, String to, String employeeName, String location) {
+        return new ScheduleFilter(parseDate("from", from), parseDate("to", to), blankToNull(employeeName),
+                parseLocation(blankToNull(location)));
+    }
+
+    public boolean isUnfiltered() {
+        return from == null && to == null && employeeName == null && location == null;
+    }
+
+    public LocalDateTime fromDateTime() {
+        return from == null ? null : from.atStartOfDay();
+    }
+
+    public LocalDateTime toDateTime() {
+        return to == null ? null : to.atStartOfDay();
+    }
+
+    public boolean matches(Shift shift) {
+        return (from == null || shift.getEnd().isAfter(fromDateTime()))
+                && (to == null || shift.getStart().isBefore(toDateTime()))
+                && (employeeName == null || (shift.getEmployee() != null && employeeName.equals(shift.getEmployee().getName())))
+                && (location == null || location == shift.getLocation());
+    }
+
+    public boolean matches(Availability availability) {
+        // Ranges overlapping the window
+        return (from == null || !availability.getEndDate().isBefore(from))
+                && (to == null || availability.getDate().isBefore(to))
+                && matches(availability.getEmployee());
+    }
+
+    public boolean matches(Employee employee) {
+        return employeeName == null || employeeName.equals(employee.getName());
+    }
+
+    private static LocalDate parseDate(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Query parameter (" + name + ") must be an ISO date, not (" + value + ").");
+        }
+    }
+
+    private static Location parseLocation(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Location.of(value.strip());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Query parameter (location) must be a location, not (" + value + ").");
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,40 @@
+package org.acme.employeescheduling.rest;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.acme.employeescheduling.persistence.AssignmentEventLog;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Either the events of one shift or the assignments as of one version, with residents by name
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ScheduleHistory(long latestVersion, Long version, List<Entry> events, Map<Long, String> assignments) {
+
+    public record Entry(long version, Long shiftId, String oldEmployee, String newEmployee, Instant timestamp,
+            AssignmentEventLog.Cause cause) {
+    }
+
+    public static ScheduleHistory ofEvents(long latestVersion, List<AssignmentEventLog.Event> eventList,
+            Map<Long, String> employeeNameMap) {
+        return new ScheduleHistory(latestVersion, null, eventList.stream()
+                .map(event -> new Entry(event.version(), event.shiftId(), name(event.oldEmployeeId(), employeeNameMap),
+                        name(event.newEmployeeId(), employeeNameMap), event.timestamp(), event.cause()))
+                .toList(), null);
+    }
+
+    // An unassigned shift maps to null
+    public static ScheduleHistory ofAssignments(long latestVersion, long version, Map<Long, Long> assignmentMap,
+            Map<Long, String> employeeNameMap) {
+        Map<Long, String> assignments = new LinkedHashMap<>();
+        assignmentMap.forEach((shiftId, employeeId) -> assignments.put(shiftId, name(employeeId, employeeNameMap)));
+        return new ScheduleHistory(latestVersion, version, null, assignments);
+    }
+
+    // A resident that no longer exists keeps its id
+    private static String name(Long employeeId, Map<Long, String> employeeNameMap) {
+        return employeeId == null ? null : employeeNameMap.getOrDefault(employeeId, "#" + employeeId);
+    }
+}
@@ -0,0 +1,7 @@
+package org.acme.employeescheduling.rest;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+// The score is the latest best score while solving, null otherwise (reading it would need a database load)
+public record ScheduleStatus(SolverStatus solverStatus, long version, String score) {
+}
@@ -0,0 +1,37 @@
+package org.acme.employeescheduling.rest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.core.EntityTag;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+/**
+ * In-memory version per schedule, incremented whenever what the read endpoints return can change:
+ * a new best solution snapshot or save, a publish and a manual edit.
+ */
+@ApplicationScoped
+public class ScheduleVersions {
+
+    // Versions restart at 0 with the JVM, so the tag also carries the boot to never reuse an old tag
+    private final String bootId = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final Map<Long, AtomicLong> versionMap = new ConcurrentHashMap<>();
+
+    public long get(Long tenantId) {
+        return versionMap.computeIfAbsent(tenantId, id -> new AtomicLong()).get();
+    }
+
+    public long increment(Long tenantId) {
+        return versionMap.computeIfAbsent(tenantId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    // The solver status is part of every schedule payload, so starting or stopping a solve changes the tag too.
+    // Each representation (JSON or compact) of the same version gets its own tag.
+    public EntityTag entityTag(Long tenantId, SolverStatus solverStatus, String mediaType) {
+        return new EntityTag(bootId + "-" + tenantId + "-" + get(tenantId) + "-" + solverStatus
+                + "-" + Integer.toHexString(mediaType.hashCode()));
+    }
+}
@@ -0,0 +1,56 @@
+package org.acme.employeescheduling.rest;
+
+import java.util.List;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.ws.rs.NotFoundException;
+
+import org.acme.employeescheduling.solver.SolverCheckpointStore;
+import org.jboss.logging.Logger;
+
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Restarts the solves that were still running when the JVM stopped, from their latest checkpoint.
+ * <p>
+ * A checkpoint only holds the assignments, the problem is reloaded from the database. So resuming needs a
+ * persistent datasource (see the persistent profile): on an in-memory or drop-and-create database only the demo data
+ * (regenerated from the same seed) lines up with it, imports and edits are gone. That's why it's off there,
+ * unless schedule.checkpoint.resume is set explicitly.
+ */
+@ApplicationScoped
+public class SolverCheckpointResumer {
+
+    private static final Logger LOGGER = Logger.getLogger(SolverCheckpointResumer.class);
+
+    @Inject
+    SolverCheckpointStore checkpointStore;
+    @Inject
+    EmployeeScheduleResource employeeScheduleResource;
+
+    // Runs after the DemoDataGenerator and the ShiftCountProjection
+    void resumeOnStartup(@Observes @Priority(Interceptor.Priority.APPLICATION + 700) StartupEvent startupEvent) {
+        if (!checkpointStore.isEnabled()) {
+            return;
+        }
+        List<Long> unfinishedTenantIdList = checkpointStore.findUnfinished();
+        if (!unfinishedTenantIdList.isEmpty() && !checkpointStore.isPersistentDatasource()) {
+            LOGGER.warnf("Resuming %d schedules on a datasource that doesn't survive a restart:"
+                    + " only shifts with the same id, start and resident get their checkpointed assignment.",
+                    unfinishedTenantIdList.size());
+        }
+        for (Long tenantId : unfinishedTenantIdList) {
+            try {
+                employeeScheduleResource.resume(tenantId);
+            } catch (NotFoundException e) {
+                // The schedule is gone, for example an in-memory database that was regenerated without it
+                LOGGER.warnf("Not resuming schedule (%d): %s", tenantId, e.getMessage());
+                checkpointStore.markFinished(tenantId);
+            }
+        }
+    }
+}
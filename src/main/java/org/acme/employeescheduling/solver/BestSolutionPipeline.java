@@ -0,0 +1,141 @@
+package org.acme.employeescheduling.solver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.jboss.logging.Logger;
+
+/**
+ * Single-slot hand-off between the solver's best solution consumer and the slow downstream work
+ * (persistence, snapshot publication, SSE push, explanation).
+ * <p>
+ * Every stage keeps at most one pending solution per schedule id: a newer best solution replaces
+ * an older one that hasn't been processed yet. Each stage runs on its own thread and at most once
+ * per its configured interval, so {@link #offer(Long, EmployeeSchedule)} never blocks the solver thread.
+ * {@link #flush(Long, EmployeeSchedule)} bypasses the interval so the final best solution always goes through,
+ * and {@link #close()} still hands every pending solution to its stage before the threads stop.
+ * <p>
+ * All stages get the same solution instance, which is also published to readers: a stage must not change it,
+ * a stage that has to (scoring sets the score) works on its own clone.
+ */
+public class BestSolutionPipeline implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(BestSolutionPipeline.class);
+
+    // How long close() waits for the stages to finish their pending solutions, persisting one can take a while
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final List<Stage> stages = new ArrayList<>();
+
+    public BestSolutionPipeline addStage(String name, Duration minInterval, BiConsumer<Long, EmployeeSchedule> action) {
+        stages.add(new Stage(name, minInterval, action));
+        return this;
+    }
+
+    // Called from the solver thread for every new best solution
+    public void offer(Long scheduleId, EmployeeSchedule solution) {
+        for (Stage stage : stages) {
+            stage.offer(scheduleId, solution, false);
+        }
+    }
+
+    // Called once solving has terminated, ignores the stage intervals
+    public void flush(Long scheduleId, EmployeeSchedule solution) {
+        for (Stage stage : stages) {
+            stage.offer(scheduleId, solution, true);
+        }
+    }
+
+    // Drains the pending solutions of every stage, waiting at most CLOSE_TIMEOUT for all of them together
+    @Override
+    public void close() {
+        for (Stage stage : stages) {
+            stage.shutdown();
+        }
+        long deadlineNanos = System.nanoTime() + CLOSE_TIMEOUT.toNanos();
+        for (Stage stage : stages) {
+            try {
+                if (!stage.executor.awaitTermination(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    LOGGER.warnf("Best solution stage (%s) didn't finish within %s, dropping its pending solutions.",
+                            stage.name, CLOSE_TIMEOUT);
+                    stage.executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stage.executor.shutdownNow();
+            }
+        }
+    }
+
+    private static final class Stage {
+
+        private final String name;
+        private final long minIntervalNanos;
+        private final BiConsumer<Long, EmployeeSchedule> action;
+        private final ScheduledThreadPoolExecutor executor;
+
+        private final Map<Long, EmployeeSchedule> pendingMap = new ConcurrentHashMap<>();
+        private final Map<Long, Long> lastRunNanosMap = new ConcurrentHashMap<>();
+        private final Set<Long> scheduledIdSet = ConcurrentHashMap.newKeySet();
+
+        private Stage(String name, Duration minInterval, BiConsumer<Long, EmployeeSchedule> action) {
+            this.name = name;
+            this.minIntervalNanos = minInterval.toNanos();
+            this.action = action;
+            this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "best-solution-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            // A delayed drain must not hold up the shutdown, shutdown() drains every pending solution right away instead
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        }
+
+        private void offer(Long scheduleId, EmployeeSchedule solution, boolean immediately) {
+            // Replaces any older solution this stage hasn't picked up yet
+            pendingMap.put(scheduleId, solution);
+            try {
+                if (immediately) {
+                    executor.execute(() -> drain(scheduleId));
+                } else if (scheduledIdSet.add(scheduleId)) {
+                    Long lastRunNanos = lastRunNanosMap.get(scheduleId);
+                    long delayNanos = lastRunNanos == null ? 0L
+                            : Math.max(0L, lastRunNanos + minIntervalNanos - System.nanoTime());
+                    executor.schedule(() -> drain(scheduleId), delayNanos, TimeUnit.NANOSECONDS);
+                }
+            } catch (RejectedExecutionException e) {
+                // A solver still running while the application stops, its later best solutions are dropped
+            }
+        }
+
+        private void shutdown() {
+            for (Long scheduleId : pendingMap.keySet()) {
+                executor.execute(() -> drain(scheduleId));
+            }
+            executor.shutdown();
+        }
+
+        private void drain(Long scheduleId) {
+            scheduledIdSet.remove(scheduleId);
+            EmployeeSchedule solution = pendingMap.remove(scheduleId);
+            if (solution == null) {
+                return; // Already handled by a flush
+            }
+            lastRunNanosMap.put(scheduleId, System.nanoTime());
+            try {
+                action.accept(scheduleId, solution);
+            } catch (RuntimeException e) {
+                LOGGER.errorf(e, "Best solution stage (%s) failed for schedule (%d).", name, scheduleId);
+            }
+        }
+    }
+}
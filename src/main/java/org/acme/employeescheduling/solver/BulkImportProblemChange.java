@@ -0,0 +1,85 @@
+package org.acme.employeescheduling.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.employeescheduling.domain.Availability;
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.Shift;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+/**
+ * Hands a whole bulk import to a running solver at once, instead of one problem change per row.
+ * The imported rows are already persisted, so they carry their ids.
+ */
+public class BulkImportProblemChange implements ProblemChange<EmployeeSchedule> {
+
+    private final List<Availability> insertedAvailabilityList;
+    private final List<Availability> updatedAvailabilityList;
+    private final List<Availability> removedAvailabilityList;
+    private final List<Shift> insertedShiftList;
+
+    public BulkImportProblemChange(List<Availability> insertedAvailabilityList, List<Availability> updatedAvailabilityList,
+            List<Availability> removedAvailabilityList, List<Shift> insertedShiftList) {
+        this.insertedAvailabilityList = insertedAvailabilityList;
+        this.updatedAvailabilityList = updatedAvailabilityList;
+        this.removedAvailabilityList = removedAvailabilityList;
+        this.insertedShiftList = insertedShiftList;
+    }
+
+    // Merging ranges (see AvailabilityRangeMerger) also updates and removes existing ones
+    public static BulkImportProblemChange ofAvailability(List<Availability> insertedList, List<Availability> updatedList,
+            List<Availability> removedList) {
+        return new BulkImportProblemChange(insertedList, updatedList, removedList, List.of());
+    }
+
+    public static BulkImportProblemChange ofShifts(List<Shift> insertedList) {
+        return new BulkImportProblemChange(List.of(), List.of(), List.of(), insertedList);
+    }
+
+    @Override
+    public void doChange(EmployeeSchedule workingSolution, ProblemChangeDirector problemChangeDirector) {
+        if (!removedAvailabilityList.isEmpty()) {
+            workingSolution.setAvailabilityList(new ArrayList<>(workingSolution.getAvailabilityList()));
+            for (Availability availability : removedAvailabilityList) {
+                problemChangeDirector.removeProblemFact(problemChangeDirector.lookUpWorkingObjectOrFail(availability),
+                        workingSolution.getAvailabilityList()::remove);
+            }
+        }
+        if (!insertedAvailabilityList.isEmpty()) {
+            // The list may be shared with the last best solution, so never add to it in place
+            workingSolution.setAvailabilityList(new ArrayList<>(workingSolution.getAvailabilityList()));
+            for (Availability availability : insertedAvailabilityList) {
+                Availability workingAvailability = new Availability(
+                        problemChangeDirector.lookUpWorkingObjectOrFail(availability.getEmployee()),
+                        availability.getDate(), availability.getEndDate(), availability.getAvailabilityType());
+                workingAvailability.setId(availability.getId());
+                workingAvailability.setTenantId(availability.getTenantId());
+                problemChangeDirector.addProblemFact(workingAvailability, workingSolution.getAvailabilityList()::add);
+            }
+        }
+        for (Availability availability : updatedAvailabilityList) {
+            problemChangeDirector.changeProblemProperty(problemChangeDirector.lookUpWorkingObjectOrFail(availability),
+                    workingAvailability -> {
+                        workingAvailability.setDate(availability.getDate());
+                        workingAvailability.setEndDate(availability.getEndDate());
+                        workingAvailability.setAvailabilityType(availability.getAvailabilityType());
+                    });
+        }
+        if (!insertedShiftList.isEmpty()) {
+            workingSolution.setShiftList(new ArrayList<>(workingSolution.getShiftList()));
+            for (Shift shift : insertedShiftList) {
+                Shift workingShift = Shift.create(shift.getStart(), shift.getEnd(), shift.getLocation(), shift.getRequiredSkill(),
+                        shift.getEmployee() == null ? null : problemChangeDirector.lookUpWorkingObjectOrFail(shift.getEmployee()),
+                        shift.isOptional());
+                workingShift.setId(shift.getId());
+                workingShift.setTenantId(shift.getTenantId());
+                problemChangeDirector.addEntity(workingShift, workingSolution.getShiftList()::add);
+            }
+            // An imported shift may be another seat of an existing slot
+            workingSolution.linkSeats();
+        }
+    }
+}
@@ -17,6 +17,7 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Set;
+import java.util.EnumSet;
 import java.util.Collections;
 import java.util.stream.Collectors;
 import java.util.TreeSet;
@@ -27,11 +28,18 @@ import org.acme.employeescheduling.domain.Availability;
 import org.acme.employeescheduling.domain.AvailabilityType;
 import org.acme.employeescheduling.domain.Shift;
 import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.EdCoverShift;
+import org.acme.employeescheduling.domain.NightFloatBlock;
+import org.acme.employeescheduling.domain.PedsBlock;
+import org.acme.employeescheduling.domain.HistoricShiftSummary;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.ResidentYear;
 import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
 import ai.timefold.solver.core.api.score.stream.Constraint;
 import ai.timefold.solver.core.api.score.stream.ConstraintFactory;
 import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
 import ai.timefold.solver.core.api.score.stream.Joiners;
+import ai.timefold.solver.core.api.score.stream.bi.BiJoiner;
 
 import static ai.timefold.solver.core.api.score.stream.ConstraintCollectors.*;
 
@@ -69,6 +77,14 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         private static final int MAX_NF_SHIFTS_R3 = 9; // 12
         private static final int MAX_NF_SHIFTS_R2 = 12;
 
+        // The quotas above indexed by ResidentYear ordinal (R1, R2, R3, R4): R1 residents have none
+        private static final int[] MIN_WEEKDAY_SHIFTS = {0, MIN_WEEKDAY_SHIFTS_R2, MIN_WEEKDAY_SHIFTS_R3, MIN_WEEKDAY_SHIFTS_R4};
+        private static final int[] MAX_WEEKDAY_SHIFTS = {Integer.MAX_VALUE, MAX_WEEKDAY_SHIFTS_R2, MAX_WEEKDAY_SHIFTS_R3, MAX_WEEKDAY_SHIFTS_R4};
+        private static final int[] MIN_WEEKEND_SHIFTS = {0, MIN_WEEKEND_SHIFTS_R2, MIN_WEEKEND_SHIFTS_R3, MIN_WEEKEND_SHIFTS_R4};
+        private static final int[] MAX_WEEKEND_SHIFTS = {Integer.MAX_VALUE, MAX_WEEKEND_SHIFTS_R2, MAX_WEEKEND_SHIFTS_R3, MAX_WEEKEND_SHIFTS_R4};
+        private static final int[] MIN_NF_SHIFTS = {0, MIN_NF_SHIFTS_R2, MIN_NF_SHIFTS_R3, MIN_NF_SHIFTS_R4};
+        private static final int[] MAX_NF_SHIFTS = {Integer.MAX_VALUE, MAX_NF_SHIFTS_R2, MAX_NF_SHIFTS_R3, MAX_NF_SHIFTS_R4};
+
 
         private final List<LocalDate> holidays = List.of(
             // LocalDate.of(2024, Month.JULY, 4),
@@ -80,7 +96,7 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         );
 
 
-        private static final Set<String> requiredShiftTypes = Set.of("Night Shift", "ED cover", "Peds");
+        private static final Set<Location> requiredShiftTypes = EnumSet.of(Location.NIGHT_SHIFT, Location.ED_COVER, Location.PEDS);
 
         // Constants for shift start times, as defined in DemoDataGenerator
         static final LocalTime DAY_SHIFT_START_TIME = LocalTime.of(8, 0);  // Assuming this is the start time for day shift   
@@ -184,12 +200,11 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         }
 
         Constraint rewardConsecutiveNightBlocks(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEach(Shift.class)
-                    .filter(this::isNightShiftBlock) // Filter for night shifts.
+            return constraintFactory.forEach(NightFloatBlock.class)
                     .groupBy(Shift::getEmployee, toList()) // Group shifts by employee and collect them into a list.
                     .reward(HardMediumSoftScore.ONE_SOFT, (employee, shifts) -> {
                         // Sort shifts by start time to analyze them in sequence.
-                        List<Shift> sortedShifts = shifts.stream()
+                        List<NightFloatBlock> sortedShifts = shifts.stream()
                                                          .sorted(Comparator.comparing(Shift::getStart))
                                                          .collect(Collectors.toList());
 
@@ -236,34 +251,29 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
 
 
         Constraint noPediatricsForR4InJune(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEach(Shift.class)
-                    // Filter for pediatric shifts
-                    .filter(shift -> shift.getLocation().equals("Peds"))
+            return constraintFactory.forEach(PedsBlock.class)
                     // Ensure the shift is in June
                     .filter(shift -> shift.getStart().getMonth() == Month.JUNE)
                     // Ensure the employee is an R4 resident
-                    .filter(shift -> shift.getEmployee() != null && "R4".equals(shift.getEmployee().getEmployeeType()))
+                    .filter(shift -> shift.getEmployee() != null && shift.getEmployee().getEmployeeType() == ResidentYear.R4)
                     .penalize(HardMediumSoftScore.ONE_HARD, 
                               (shift) -> 1)
                     .asConstraint("Pediatric away shifts cannot be assigned to R4 residents during June due to transition to fellowship");
         }
 
         Constraint noPediatricsForR3InJune(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEach(Shift.class)
-                    // Filter for pediatric shifts
-                    .filter(shift -> shift.getLocation().equals("Peds"))
+            return constraintFactory.forEach(PedsBlock.class)
                     // Ensure the shift is in June
                     .filter(shift -> shift.getStart().getMonth() == Month.JUNE)
                     // Ensure the employee is an R3 resident
-                    .filter(shift -> shift.getEmployee() != null && "R3".equals(shift.getEmployee().getEmployeeType()))
+                    .filter(shift -> shift.getEmployee() != null && shift.getEmployee().getEmployeeType() == ResidentYear.R3)
                     .penalize(HardMediumSoftScore.ONE_HARD, 
                               (shift) -> 10)
                     .asConstraint("Pediatric away shifts cannot be assigned to R3 residents during June because of CORE");
         }        
 
         Constraint pediatricShiftsDuringHolidays(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEach(Shift.class)
-                    .filter(shift -> "Peds".equals(shift.getLocation())) // Assuming "Peds" identifies pediatric shifts
+            return constraintFactory.forEach(PedsBlock.class)
                     .filter(shift -> {
                         // Check if the shift date range includes any of the specified holidays
                         LocalDate shiftStart = shift.getStart().toLocalDate();
@@ -305,14 +315,33 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
                 .join(Shift.class, Joiners.equal(Function.identity(), Shift::getEmployee))
                 .groupBy((employee, shift) -> employee, // Group by employee to collect all their shifts
                          toSet((employee, shift) -> shift.getLocation())) // Collect unique shift types per employee
-                .filter((employee, shiftTypes) -> !requiredShiftTypes.stream().allMatch(shiftTypes::contains)) // Check if all required types are present
-                .penalize(HardMediumSoftScore.ONE_HARD, (employee, shiftTypes) -> 
-                    100 * (int) requiredShiftTypes.stream().filter(type -> !shiftTypes.contains(type)).count()) // Penalize for each missing type
+                .join(HistoricShiftSummary.class)
+                .filter((employee, shiftTypes, historicShiftSummary) ->
+                    countMissingRequiredShiftTypes(shiftTypes, historicShiftSummary.get(employee)) > 0) // Check if all required types are present
+                .penalize(HardMediumSoftScore.ONE_HARD, (employee, shiftTypes, historicShiftSummary) ->
+                    100 * countMissingRequiredShiftTypes(shiftTypes, historicShiftSummary.get(employee))) // Penalize for each missing type
                 .asConstraint("Ensure at least one shift per required type for all residents");
         }
 
+        // A required type the resident only worked in an archived year isn't missing
+        private int countMissingRequiredShiftTypes(Set<Location> shiftTypes, HistoricShiftSummary.Totals historicTotals) {
+            int missingCount = 0;
+            for (Location requiredShiftType : requiredShiftTypes) {
+                boolean archived = switch (requiredShiftType) {
+                    case NIGHT_SHIFT -> historicTotals.nightFloat() > 0;
+                    case ED_COVER -> historicTotals.weekend() + historicTotals.weekday() > 0;
+                    case PEDS -> historicTotals.peds() > 0;
+                    default -> false;
+                };
+                if (!archived && !shiftTypes.contains(requiredShiftType)) {
+                    missingCount++;
+                }
+            }
+            return missingCount;
+        }
+
         private boolean isEDDayShift(Shift shift) {
-            return shift.getLocation().equals("Day Shift");
+            return shift.getLocation() == Location.DAY_SHIFT;
         }
 
         // Custom method to calculate shift duration considering block shifts
@@ -367,11 +396,10 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         }
 
         Constraint noOverlappingPediatricShiftsBetweenDifferentResidents(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachUniquePair(Shift.class,
+            // Only pairs of Peds blocks, instead of every pair of overlapping shifts filtered down to Peds
+            return constraintFactory.forEachUniquePair(PedsBlock.class,
                             // This joiner ensures we're looking at shifts with overlapping times
                             Joiners.overlapping(Shift::getStart, Shift::getEnd))
-                    // Filter only pediatric shifts
-                    .filter((shift1, shift2) -> shift1.getLocation().equals("Peds") && shift2.getLocation().equals("Peds"))
                     // Ensure the shifts belong to different residents
                     .filter((shift1, shift2) -> !shift1.getEmployee().equals(shift2.getEmployee()))
                     .penalize(HardMediumSoftScore.ONE_MEDIUM.ofMedium(1)) // Apply a medium penalty of 1
@@ -379,42 +407,41 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         }  
 
         Constraint preventEDCoverBeforeSaturdayShift(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachUniquePair(Shift.class,
-                    Joiners.equal(Shift::getEmployee))
+            // An ED cover shift on Friday, then any shift on Saturday
+            return constraintFactory.forEach(EdCoverShift.class)
+                .filter(shift -> shift.getStart().getDayOfWeek() == DayOfWeek.FRIDAY)
+                .join(Shift.class, Joiners.equal(Shift::getEmployee, Shift::getEmployee))
                 .filter((shift1, shift2) -> {
-                    // Check if shift1 is an ED cover on Friday and shift2 is any shift on Saturday
-                    boolean shift1IsEDCoverOnFriday = isEDCover(shift1) && shift1.getStart().getDayOfWeek() == DayOfWeek.FRIDAY;
                     boolean shift2IsOnSaturday = shift2.getStart().getDayOfWeek() == DayOfWeek.SATURDAY;
                     // Ensure shift2 starts within the same week of shift1's start to prevent penalizing across different weeks
                     boolean withinSameWeek = shift1.getStart().toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
                         .isEqual(shift2.getStart().toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
 
-                    return shift1IsEDCoverOnFriday && shift2IsOnSaturday && withinSameWeek;
+                    return shift2IsOnSaturday && withinSameWeek;
                 })
                 .penalize(HardMediumSoftScore.ONE_MEDIUM)
                 .asConstraint("Prevent ED cover shifts on Friday with a proceeding shift on Saturday");
         }        
 
         Constraint preventEDCoverBeforeNightBlock(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachUniquePair(Shift.class,
-                    Joiners.equal(Shift::getEmployee))
-                .filter((shift1, shift2) -> {
-                    boolean shift1IsEDCoverEndingBeforeNight = isEDCover(shift1) && isNightShift(shift2) && shift1.getEnd().equals(shift2.getStart());
-                    boolean shift2IsEDCoverEndingBeforeNight = isEDCover(shift2) && isNightShift(shift1) && shift2.getEnd().equals(shift1.getStart());
-                    return shift1IsEDCoverEndingBeforeNight || shift2IsEDCoverEndingBeforeNight;
-                })
+            // An ED cover shift, then a night shift starting when it ends
+            return constraintFactory.forEach(EdCoverShift.class)
+                .join(Shift.class,
+                    Joiners.equal(Shift::getEmployee, Shift::getEmployee),
+                    Joiners.equal(Shift::getEnd, Shift::getStart))
+                .filter((edCoverShift, nightShift) -> isNightShift(nightShift))
                 .penalize(HardMediumSoftScore.ONE_HARD)
                 .asConstraint("Prevent ED cover shifts ending right before night block shifts");
         }
 
         private boolean isEDCover(Shift shift) {
-                return shift.getLocation().equals("ED cover"); // Check if the shift is an ED call shift
+                return shift instanceof EdCoverShift; // Check if the shift is an ED call shift
         }
 
         private boolean isBlockLocation(Shift shift) {
                 // Add your logic to determine if a shift is a block location shift
                 // For example, it could be a check against a set of block location names
-                return shift.getLocation().equals("IR"); // || shift.getLocation().equals("Peds"); // || shift.getLocation().equals("Day Shift");
+                return shift.getLocation() == Location.IR; // || shift.getLocation() == Location.PEDS; // || shift.getLocation() == Location.DAY_SHIFT;
         }
 
         Constraint atLeast10HoursBetweenTwoShifts(ConstraintFactory constraintFactory) {
@@ -432,54 +459,60 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
                         .asConstraint("At least 10 hours between 2 shifts");
         }
 
+        // Availability is a range of days, so every unavailable day the shift spans counts
         Constraint unavailableEmployee(ConstraintFactory constraintFactory) {
             return constraintFactory.forEach(Shift.class)
+                    .filter(shift -> !(shift instanceof PedsBlock)) // Exclude "Peds" shifts from this constraint
                     .join(Availability.class,
-                          Joiners.equal(Shift::getEmployee, Availability::getEmployee))
-                    .filter((shift, availability) -> 
-                        availability.getAvailabilityType() == AvailabilityType.UNAVAILABLE &&
-                        !shift.getLocation().equals("Peds") && // Exclude "Peds" shifts from this constraint
-                        (shift.getStart().toLocalDate().equals(availability.getDate()) ||
-                         shift.getEnd().toLocalDate().equals(availability.getDate()) ||
-                         (shift.getStart().toLocalDate().isBefore(availability.getDate()) &&
-                          shift.getEnd().toLocalDate().isAfter(availability.getDate()))))
-                    .penalize(HardMediumSoftScore.ONE_HARD, (shift, availability) -> 100)
+                          Joiners.equal(Shift::getEmployee, Availability::getEmployee),
+                          overlappingShiftDays())
+                    .filter((shift, availability) -> availability.getAvailabilityType() == AvailabilityType.UNAVAILABLE)
+                    .penalize(HardMediumSoftScore.ONE_HARD, (shift, availability) ->
+                        100 * availability.countOverlappingDays(shift.getStart().toLocalDate(), shift.getEnd().toLocalDate()))
                     .asConstraint("Unavailable employee including shift span, excluding Pediatrics");
         }
 
         Constraint unavailableEmployeeForPediatrics(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEach(Shift.class)
-                    .filter(shift -> shift.getLocation().equals("Peds")) // Focus on "Peds" shifts
+            return constraintFactory.forEach(PedsBlock.class)
                     .join(Availability.class,
                           Joiners.equal(Shift::getEmployee, Availability::getEmployee),
-                          Joiners.filtering((shift, availability) -> 
-                              availability.getAvailabilityType() == AvailabilityType.UNAVAILABLE &&
-                              (shift.getStart().toLocalDate().isBefore(availability.getDate()) &&
-                               shift.getEnd().toLocalDate().isAfter(availability.getDate()) ||
-                               shift.getStart().toLocalDate().isEqual(availability.getDate()) ||
-                               shift.getEnd().toLocalDate().isEqual(availability.getDate()))))
+                          overlappingShiftDays(),
+                          Joiners.filtering((shift, availability) ->
+                              availability.getAvailabilityType() == AvailabilityType.UNAVAILABLE))
                     .penalize(HardMediumSoftScore.ONE_HARD,
                               (shift, availability) -> calculateOverlapDays(shift, availability))
                     .asConstraint("Penalize Pediatrics shifts starting or ending on an unavailable employee day");
         }
 
+        // Shift days from the start date to the end date, both inclusive, against the days of an availability range
+        private static <S extends Shift> BiJoiner<S, Availability> overlappingShiftDays() {
+            return Joiners.overlapping((S shift) -> shift.getStart().toLocalDate(),
+                    shift -> shift.getEnd().toLocalDate().plusDays(1),
+                    Availability::getDate, Availability::getEndDateExclusive);
+        }
+
+        // Only the day a shift starts on, against the days of an availability range: indexed like overlappingShiftDays()
+        private static BiJoiner<Shift, Availability> shiftStartDay() {
+            return Joiners.overlapping((Shift shift) -> shift.getStart().toLocalDate(),
+                    shift -> shift.getStart().toLocalDate().plusDays(1),
+                    Availability::getDate, Availability::getEndDateExclusive);
+        }
+
+        // Only here the range is expanded per day: an unavailable day costs more the more of the block is left
         private int calculateOverlapDays(Shift shift, Availability availability) {
             LocalDate shiftStart = shift.getStart().toLocalDate();
             LocalDate shiftEnd = shift.getEnd().toLocalDate();
-            LocalDate unavailableDate = availability.getDate();
+            LocalDate from = availability.getDate().isAfter(shiftStart) ? availability.getDate() : shiftStart;
+            LocalDate to = availability.getEndDate().isBefore(shiftEnd) ? availability.getEndDate() : shiftEnd;
             int overlapDays = 0;
 
-            // Check if the unavailable date is within the shift period
-            if ((shiftStart.isBefore(unavailableDate) || shiftStart.isEqual(unavailableDate)) &&
-                (shiftEnd.isAfter(unavailableDate) || shiftEnd.isEqual(unavailableDate))) {
+            for (LocalDate unavailableDate = from; !unavailableDate.isAfter(to); unavailableDate = unavailableDate.plusDays(1)) {
                 // Calculate overlap considering the shift might span multiple days
                 if (shiftStart.isBefore(unavailableDate)) {
                     overlapDays += (int) ChronoUnit.DAYS.between(unavailableDate, shiftEnd.plusDays(1)); // +1 to include end date
-                } else if (shiftEnd.isAfter(unavailableDate)) {
-                    overlapDays += (int) ChronoUnit.DAYS.between(shiftStart, unavailableDate.plusDays(1)); // +1 for inclusive end
                 } else {
-                    // Shift starts and ends on the unavailable day
-                    overlapDays = 1;
+                    // The shift starts on the unavailable day
+                    overlapDays += 1;
                 }
             }
 
@@ -487,135 +520,69 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         }        
 
         Constraint penalize24HourShiftsAroundUnavailability(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEach(Shift.class)
+            // The 24-hour shifts are the weekend ED cover shifts, so night shift blocks never match
+            return constraintFactory.forEach(EdCoverShift.class)
+                .filter(this::isWeekend)
                 // Join shifts with unavailability to find overlaps
                 .join(Availability.class, Joiners.equal(Shift::getEmployee, Availability::getEmployee))
                 .filter((shift, availability) -> availability.getAvailabilityType() == AvailabilityType.UNAVAILABLE)
-                // Use isWeekendEDCoverShift to identify the 24-hour shifts (weekend ED cover shifts)
-                .filter((shift, availability) -> isWeekendEDCoverShift(shift))
-                // Exclude night shift blocks from this penalty
-                .filter((shift, availability) -> !isNightShiftBlock(shift))
-                .filter((shift, availability) -> {
-                    LocalDate shiftDate = shift.getStart().toLocalDate();
-                    LocalDate availabilityDate = availability.getDate();
-                    // Check if the shift is within 1 or 2 days before or after the unavailability date
-                    boolean isDayBeforeOrAfter48 = shiftDate.plusDays(2).equals(availabilityDate) ||
-                                                  shiftDate.minusDays(2).equals(availabilityDate) ||
-                                                  shiftDate.equals(availabilityDate);
-                    boolean isDayBeforeOrAfter24 = shiftDate.plusDays(1).equals(availabilityDate) ||
-                                                  shiftDate.minusDays(1).equals(availabilityDate) ||
-                                                  shiftDate.equals(availabilityDate);
-                    return isDayBeforeOrAfter48 || isDayBeforeOrAfter24;
-                })
-                .penalize(HardMediumSoftScore.ONE_HARD, (shift, availability) -> 1)
+                // Every unavailable day within 2 days before or after the shift date counts
+                .filter((shift, availability) -> countUnavailableDaysAround(shift, availability) > 0)
+                .penalize(HardMediumSoftScore.ONE_HARD, this::countUnavailableDaysAround)
                 .asConstraint("Penalize any 24-hour shifts 48 hours before or after unavailability for the same employee");
         }
 
-        Constraint noShiftAfter24HourSundayShift(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachUniquePair(Shift.class,
-                    Joiners.equal(Shift::getEmployee))
-                .filter((shift1, shift2) -> {
-                    // Check if shift1 is a night shift block ending on Saturday morning and shift2 is a 24-hour ED cover shift starting immediately after
-                    boolean shift1Monday = shift1.getStart().getDayOfWeek() == DayOfWeek.MONDAY;
-
-                    boolean shift2SundayShift = isWeekendEDCoverShift(shift2) &&
-                                                                    shift2.getStart().getDayOfWeek() == DayOfWeek.SUNDAY &&
-                                                                    shift2.getEnd().toLocalDate().isEqual(shift1.getStart().toLocalDate()); // Ensure shift1 starts on the same day shift2 ends
-
-                    // Reverse roles 
-
-                    boolean shift2Monday = shift2.getStart().getDayOfWeek() == DayOfWeek.MONDAY;
-
-                    boolean shift1SundayShift = isWeekendEDCoverShift(shift1) &&
-                                                                    shift1.getStart().getDayOfWeek() == DayOfWeek.SUNDAY &&
-                                                                    shift1.getEnd().toLocalDate().isEqual(shift2.getStart().toLocalDate()); // Ensure shift1 starts on the same day shift2 ends
+        private int countUnavailableDaysAround(Shift shift, Availability availability) {
+            LocalDate shiftDate = shift.getStart().toLocalDate();
+            return availability.countOverlappingDays(shiftDate.minusDays(2), shiftDate.plusDays(2));
+        }
 
-                    return (shift1Monday && shift2SundayShift) ||
-                           (shift2Monday && shift1SundayShift);
-                })
-                .penalize(HardMediumSoftScore.ONE_HARD, (shift1, shift2) -> 10)
+        Constraint noShiftAfter24HourSundayShift(ConstraintFactory constraintFactory) {
+            // A 24-hour Sunday ED cover shift, then any shift starting on the Monday it ends
+            return constraintFactory.forEach(EdCoverShift.class)
+                .filter(shift -> shift.getStart().getDayOfWeek() == DayOfWeek.SUNDAY)
+                .join(Shift.class,
+                    Joiners.equal(Shift::getEmployee, Shift::getEmployee),
+                    Joiners.equal(shift -> shift.getEnd().toLocalDate(), shift -> shift.getStart().toLocalDate()))
+                .filter((sundayShift, nextShift) -> nextShift.getStart().getDayOfWeek() == DayOfWeek.MONDAY)
+                .penalize(HardMediumSoftScore.ONE_HARD, (sundayShift, nextShift) -> 10)
                 .asConstraint("No shift after 24-hour sunday weekend shift");
         }    
 
         Constraint no24HourShiftAfter24HourShift(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachUniquePair(Shift.class,
-                    Joiners.equal(Shift::getEmployee))
-                .filter((shift1, shift2) -> {
-                    // Check if shift1 is a night shift block ending on Saturday morning and shift2 is a 24-hour ED cover shift starting immediately after
-                    boolean shift1SaturdayShiftEndingSunday = isWeekendEDCoverShift(shift1) && 
-                                                               shift1.getStart().getDayOfWeek() == DayOfWeek.SATURDAY; 
-
-                    boolean shift2SundayShift = isWeekendEDCoverShift(shift2) &&
-                                                                    shift2.getStart().getDayOfWeek() == DayOfWeek.SUNDAY &&
-                                                                    shift2.getStart().equals(shift1.getEnd()); // Ensuring shifts are sequential
-
-                    // Reverse roles if shift2 is the night shift block and shift1 is the 24-hour ED cover
-                    boolean shift2SaturdayShiftEndingSunday = isWeekendEDCoverShift(shift2) && 
-                                                              shift2.getStart().getDayOfWeek() == DayOfWeek.SATURDAY; 
-
-                    boolean shift1SundayShift = isWeekendEDCoverShift(shift1) &&
-                                                                    shift1.getStart().getDayOfWeek() == DayOfWeek.SUNDAY &&
-                                                                    shift1.getStart().equals(shift2.getEnd()); // Ensuring shifts are sequential
-
-                    return (shift1SaturdayShiftEndingSunday && shift2SundayShift) ||
-                           (shift2SaturdayShiftEndingSunday && shift1SundayShift);
-                })
-                .penalize(HardMediumSoftScore.ONE_HARD, (shift1, shift2) -> 10)
+            // A 24-hour Saturday ED cover shift, then the Sunday one starting when it ends
+            return constraintFactory.forEach(EdCoverShift.class)
+                .filter(shift -> shift.getStart().getDayOfWeek() == DayOfWeek.SATURDAY)
+                .join(EdCoverShift.class,
+                    Joiners.equal(Shift::getEmployee),
+                    Joiners.equal(Shift::getEnd, Shift::getStart))
+                .filter((saturdayShift, sundayShift) -> sundayShift.getStart().getDayOfWeek() == DayOfWeek.SUNDAY)
+                .penalize(HardMediumSoftScore.ONE_HARD, (saturdayShift, sundayShift) -> 10)
                 .asConstraint("No 24 shift after 24-hour weekend shift");
         }    
 
         Constraint noSunday24HourEDCoverShiftAfterNightShiftBlock(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachUniquePair(Shift.class,
-                    Joiners.equal(Shift::getEmployee))
-                .filter((shift1, shift2) -> {
-                    // Check if shift1 is a night shift block ending on Saturday morning and shift2 is a 24-hour ED cover shift on Sunday
-                    boolean shift1IsNightShiftEndingSaturday = isNightShiftBlock(shift1); // Assuming 8 AM as the end time
-
-                    boolean shift2Is24HourEDCoverStartingSunday= isWeekendEDCoverShift(shift2) &&
-                                                                    shift2.getStart().getDayOfWeek() == DayOfWeek.SUNDAY &&
-                                                                    shift2.getStart().equals(shift1.getEnd().plusDays(1)); // Ensuring shifts are sequential skipping the saturday shift
-
-                    // Reverse roles if shift2 is the night shift block and shift1 is the 24-hour ED cover
-                    boolean shift2IsNightShiftEndingSaturday = isNightShiftBlock(shift2);
-
-                    boolean shift1Is24HourEDCoverStartingSunday = isWeekendEDCoverShift(shift1) &&
-                                                                    shift1.getStart().getDayOfWeek() == DayOfWeek.SUNDAY &&
-                                                                    shift1.getStart().equals(shift2.getEnd().plusDays(1));
-
-                    return (shift1IsNightShiftEndingSaturday && shift2Is24HourEDCoverStartingSunday) ||
-                           (shift2IsNightShiftEndingSaturday && shift1Is24HourEDCoverStartingSunday);
-                })
-                .penalize(HardMediumSoftScore.ONE_MEDIUM, (shift1, shift2) -> 1)
+            // A night shift block, then a 24-hour Sunday ED cover shift a day after it ends (skipping the Saturday shift)
+            return constraintFactory.forEach(NightFloatBlock.class)
+                .join(EdCoverShift.class,
+                    Joiners.equal(Shift::getEmployee, Shift::getEmployee),
+                    Joiners.equal(nightShift -> nightShift.getEnd().plusDays(1), Shift::getStart))
+                .filter((nightShift, edCoverShift) -> edCoverShift.getStart().getDayOfWeek() == DayOfWeek.SUNDAY)
+                .penalize(HardMediumSoftScore.ONE_MEDIUM, (nightShift, edCoverShift) -> 1)
                 .asConstraint("Penalize 24-hour ED cover shift on Sunday directly after a night shift block");
         }        
 
 
         Constraint no24HourEDCoverShiftAfterNightShiftBlock(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachUniquePair(Shift.class,
-                    Joiners.equal(Shift::getEmployee))
-                .filter((shift1, shift2) -> {
-                    // Check if shift1 is a night shift block ending on Saturday morning and shift2 is a 24-hour ED cover shift starting immediately after
-                    boolean shift1IsNightShiftEndingSaturday = isNightShiftBlock(shift1) && 
-                                                               shift1.getEnd().getDayOfWeek() == DayOfWeek.SATURDAY &&
-                                                               shift1.getEnd().toLocalTime().equals(LocalTime.of(8, 0)); // Assuming 8 AM as the end time
-
-                    boolean shift2Is24HourEDCoverStartingSaturday = isWeekendEDCoverShift(shift2) &&
-                                                                    shift2.getStart().getDayOfWeek() == DayOfWeek.SATURDAY &&
-                                                                    shift2.getStart().equals(shift1.getEnd()); // Ensuring shifts are sequential
-
-                    // Reverse roles if shift2 is the night shift block and shift1 is the 24-hour ED cover
-                    boolean shift2IsNightShiftEndingSaturday = isNightShiftBlock(shift2) && 
-                                                               shift2.getEnd().getDayOfWeek() == DayOfWeek.SATURDAY &&
-                                                               shift2.getEnd().toLocalTime().equals(LocalTime.of(8, 0));
-
-                    boolean shift1Is24HourEDCoverStartingSaturday = isWeekendEDCoverShift(shift1) &&
-                                                                    shift1.getStart().getDayOfWeek() == DayOfWeek.SATURDAY &&
-                                                                    shift1.getStart().equals(shift2.getEnd());
-
-                    return (shift1IsNightShiftEndingSaturday && shift2Is24HourEDCoverStartingSaturday) ||
-                           (shift2IsNightShiftEndingSaturday && shift1Is24HourEDCoverStartingSaturday);
-                })
-                .penalize(HardMediumSoftScore.ONE_HARD, (shift1, shift2) -> 10)
+            // A night shift block ending on Saturday at 8 AM, then the 24-hour Saturday ED cover shift starting right after
+            return constraintFactory.forEach(NightFloatBlock.class)
+                .filter(nightShift -> nightShift.getEnd().getDayOfWeek() == DayOfWeek.SATURDAY
+                    && nightShift.getEnd().toLocalTime().equals(LocalTime.of(8, 0)))
+                .join(EdCoverShift.class,
+                    Joiners.equal(Shift::getEmployee, Shift::getEmployee),
+                    Joiners.equal(Shift::getEnd, Shift::getStart))
+                .filter((nightShift, edCoverShift) -> edCoverShift.getStart().getDayOfWeek() == DayOfWeek.SATURDAY)
+                .penalize(HardMediumSoftScore.ONE_HARD, (nightShift, edCoverShift) -> 10)
                 .asConstraint("No 24-hour ED cover shift on Saturday directly after a night shift block");
         }        
 
@@ -635,31 +602,23 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
 
 
         Constraint minimumNFShiftsForResidents(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachIncludingNullVars(Shift.class)
-                    // Ensure the shift is a Night Shift
-                    .filter(shift -> shift.getLocation() != null && shift.getLocation().equals("Night Shift"))
+            return constraintFactory.forEachIncludingNullVars(NightFloatBlock.class)
                     // Group by employee
                     .groupBy(Shift::getEmployee, count())
-                    .filter((employee, count) -> {
+                    // The archived shifts of earlier years count too
+                    .join(HistoricShiftSummary.class)
+                    .filter((employee, liveCount, historicShiftSummary) -> {
+                        int count = liveCount + historicShiftSummary.get(employee).nightFloat();
                         // Skip null employees since the focus is on ensuring minimum shifts for existing R2-R4 employees
                         if (employee == null) return false;
                         // Determine the minimum shift count based on employee type
-                        int minimumRequiredShifts = switch (employee.getEmployeeType()) {
-                            case "R2" -> MIN_NF_SHIFTS_R2;
-                            case "R3" -> MIN_NF_SHIFTS_R3;
-                            case "R4" -> MIN_NF_SHIFTS_R4;
-                            default -> 0; // This default case could potentially be removed if all employee types are covered
-                        };
+                        int minimumRequiredShifts = MIN_NF_SHIFTS[employee.getEmployeeType().ordinal()];
                         return count < minimumRequiredShifts;
                     })
-                    .penalize(HardMediumSoftScore.ONE_HARD, (employee, count) -> {
+                    .penalize(HardMediumSoftScore.ONE_HARD, (employee, liveCount, historicShiftSummary) -> {
+                        int count = liveCount + historicShiftSummary.get(employee).nightFloat();
                         // Calculate the shortfall and penalty
-                        int minimumRequiredShifts = switch (employee.getEmployeeType()) {
-                            case "R2" -> MIN_NF_SHIFTS_R2;
-                            case "R3" -> MIN_NF_SHIFTS_R3;
-                            case "R4" -> MIN_NF_SHIFTS_R4;
-                            default -> 0; // Again, this might not be necessary if you're sure of your employee types
-                        };
+                        int minimumRequiredShifts = MIN_NF_SHIFTS[employee.getEmployeeType().ordinal()];
                         int shortfall = (minimumRequiredShifts - count) * 10;
                         return Math.max(0, shortfall); // Ensure non-negative penalty
                     })
@@ -667,31 +626,22 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         }
 
         Constraint maximumNFShiftsForResidents(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachIncludingNullVars(Shift.class)
-                    // Ensure the shift is a Night Shift
-                    .filter(shift -> shift.getLocation() != null && shift.getLocation().equals("Night Shift"))
+            return constraintFactory.forEachIncludingNullVars(NightFloatBlock.class)
                     // Group by employee
                     .groupBy(Shift::getEmployee, count())
-                    .filter((employee, count) -> {
+                    .join(HistoricShiftSummary.class)
+                    .filter((employee, liveCount, historicShiftSummary) -> {
+                        int count = liveCount + historicShiftSummary.get(employee).nightFloat();
                         // Skip null employees since the focus is on enforcing maximum shifts for existing R2-R4 employees
                         if (employee == null) return false;
                         // Determine the maximum shift count based on employee type
-                        int maximumAllowedShifts = switch (employee.getEmployeeType()) {
-                            case "R2" -> MAX_NF_SHIFTS_R2;
-                            case "R3" -> MAX_NF_SHIFTS_R3;
-                            case "R4" -> MAX_NF_SHIFTS_R4;
-                            default -> Integer.MAX_VALUE; // Default to a very high number if the type is not covered
-                        };
+                        int maximumAllowedShifts = MAX_NF_SHIFTS[employee.getEmployeeType().ordinal()];
                         return count > maximumAllowedShifts;
                     })
-                    .penalize(HardMediumSoftScore.ONE_HARD, (employee, count) -> {
+                    .penalize(HardMediumSoftScore.ONE_HARD, (employee, liveCount, historicShiftSummary) -> {
+                        int count = liveCount + historicShiftSummary.get(employee).nightFloat();
                         // Calculate the excess and penalty
-                        int maximumAllowedShifts = switch (employee.getEmployeeType()) {
-                            case "R2" -> MAX_NF_SHIFTS_R2;
-                            case "R3" -> MAX_NF_SHIFTS_R3;
-                            case "R4" -> MAX_NF_SHIFTS_R4;
-                            default -> Integer.MAX_VALUE;
-                        };
+                        int maximumAllowedShifts = MAX_NF_SHIFTS[employee.getEmployeeType().ordinal()];
                         int excess = count - maximumAllowedShifts;
                         return Math.max(0, excess); // Ensure non-negative penalty
                     })
@@ -699,16 +649,17 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         }        
 
         Constraint maximumPedsShiftsForResidents(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachIncludingNullVars(Shift.class)
-                    // Ensure the shift is a Pediatric Shift
-                    .filter(shift -> shift.getLocation() != null && shift.getLocation().equals("Peds"))
+            return constraintFactory.forEachIncludingNullVars(PedsBlock.class)
                     // Group by employee
                     .groupBy(Shift::getEmployee, count())
-                    .filter((employee, count) -> {
+                    .join(HistoricShiftSummary.class)
+                    .filter((employee, liveCount, historicShiftSummary) -> {
+                        int count = liveCount + historicShiftSummary.get(employee).peds();
                         // Skip null employees and check if the count of Peds shifts is greater than 1
                         return employee != null && count > 1;
                     })
-                    .penalize(HardMediumSoftScore.ONE_HARD, (employee, count) -> {
+                    .penalize(HardMediumSoftScore.ONE_HARD, (employee, liveCount, historicShiftSummary) -> {
+                        int count = liveCount + historicShiftSummary.get(employee).peds();
                         // Calculate the excess and penalty
                         int excess = 10 * (count - 1); // Only 1 Peds shift is allowed
                         return Math.max(0, excess); // Ensure non-negative penalty
@@ -717,124 +668,94 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         }
 
         Constraint minimumWeekendShiftsForResidents(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachIncludingNullVars(Shift.class)
-                    .filter(shift -> shift.getLocation() != null && shift.getLocation().equals("ED cover"))
+            return constraintFactory.forEachIncludingNullVars(EdCoverShift.class)
                     .filter(shift -> isWeekend(shift)) // Only consider weekend shifts
                     .groupBy(Shift::getEmployee, count())
-                    .filter((employee, count) -> {
+                    .join(HistoricShiftSummary.class)
+                    .filter((employee, liveCount, historicShiftSummary) -> {
+                        int count = liveCount + historicShiftSummary.get(employee).weekend();
                         if (employee == null) return false;
-                        int minimumRequiredShifts = switch (employee.getEmployeeType()) {
-                            case "R2" -> MIN_WEEKEND_SHIFTS_R2;
-                            case "R3" -> MIN_WEEKEND_SHIFTS_R3;
-                            case "R4" -> MIN_WEEKEND_SHIFTS_R4;
-                            default -> 0;
-                        };
+                        int minimumRequiredShifts = MIN_WEEKEND_SHIFTS[employee.getEmployeeType().ordinal()];
                         return count < minimumRequiredShifts;
                     })
-                    .penalize(HardMediumSoftScore.ONE_HARD, (employee, count) -> { // Example of a higher penalty level for weekend shifts
-                        int minimumRequiredShifts = switch (employee.getEmployeeType()) {
-                            case "R2" -> MIN_WEEKEND_SHIFTS_R2;
-                            case "R3" -> MIN_WEEKEND_SHIFTS_R3;
-                            case "R4" -> MIN_WEEKEND_SHIFTS_R4;
-                            default -> 0;
-                        };
+                    .penalize(HardMediumSoftScore.ONE_HARD, (employee, liveCount, historicShiftSummary) -> { // Example of a higher penalty level for weekend shifts
+                        int count = liveCount + historicShiftSummary.get(employee).weekend();
+                        int minimumRequiredShifts = MIN_WEEKEND_SHIFTS[employee.getEmployeeType().ordinal()];
                         return (minimumRequiredShifts - count) * 5;
                     })
                     .asConstraint("Minimum weekend shifts for R2, R3, R4 residents");
         }
 
         Constraint maximumWeekendShiftsForResidents(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachIncludingNullVars(Shift.class)
-                    .filter(shift -> shift.getLocation() != null && shift.getLocation().equals("ED cover"))
+            return constraintFactory.forEachIncludingNullVars(EdCoverShift.class)
                     .filter(shift -> isWeekend(shift)) // Only consider weekend shifts
                     .groupBy(Shift::getEmployee, count())
-                    .filter((employee, count) -> {
+                    .join(HistoricShiftSummary.class)
+                    .filter((employee, liveCount, historicShiftSummary) -> {
+                        int count = liveCount + historicShiftSummary.get(employee).weekend();
                         if (employee == null) return false;
-                        int maximumAllowedShifts = switch (employee.getEmployeeType()) {
-                            case "R2" -> MAX_WEEKEND_SHIFTS_R2;
-                            case "R3" -> MAX_WEEKEND_SHIFTS_R3;
-                            case "R4" -> MAX_WEEKEND_SHIFTS_R4;
-                            default -> Integer.MAX_VALUE;
-                        };
+                        int maximumAllowedShifts = MAX_WEEKEND_SHIFTS[employee.getEmployeeType().ordinal()];
                         return count > maximumAllowedShifts;
                     })
-                    .penalize(HardMediumSoftScore.ONE_HARD, (employee, count) -> { // Example of a penalty level for exceeding weekend shifts
-                        int maximumAllowedShifts = switch (employee.getEmployeeType()) {
-                            case "R2" -> MAX_WEEKEND_SHIFTS_R2;
-                            case "R3" -> MAX_WEEKEND_SHIFTS_R3;
-                            case "R4" -> MAX_WEEKEND_SHIFTS_R4;
-                            default -> Integer.MAX_VALUE;
-                        };
+                    .penalize(HardMediumSoftScore.ONE_HARD, (employee, liveCount, historicShiftSummary) -> { // Example of a penalty level for exceeding weekend shifts
+                        int count = liveCount + historicShiftSummary.get(employee).weekend();
+                        int maximumAllowedShifts = MAX_WEEKEND_SHIFTS[employee.getEmployeeType().ordinal()];
                         return count - maximumAllowedShifts;
                     })
                     .asConstraint("Maximum weekend shifts for R2, R3, R4 residents");
         }        
 
         Constraint minimumWeekdayShiftsForResidents(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachIncludingNullVars(Shift.class)
-                    .filter(shift -> shift.getLocation() != null && shift.getLocation().equals("ED cover"))
+            return constraintFactory.forEachIncludingNullVars(EdCoverShift.class)
                     .filter(shift -> !isWeekend(shift)) // Only consider weekday shifts
                     .groupBy(Shift::getEmployee, count())
-                    .filter((employee, count) -> {
+                    .join(HistoricShiftSummary.class)
+                    .filter((employee, liveCount, historicShiftSummary) -> {
+                        int count = liveCount + historicShiftSummary.get(employee).weekday();
                         if (employee == null) return false;
-                        int minimumRequiredShifts = switch (employee.getEmployeeType()) {
-                            case "R2" -> MIN_WEEKDAY_SHIFTS_R2;
-                            case "R3" -> MIN_WEEKDAY_SHIFTS_R3;
-                            case "R4" -> MIN_WEEKDAY_SHIFTS_R4;
-                            default -> 0;
-                        };
+                        int minimumRequiredShifts = MIN_WEEKDAY_SHIFTS[employee.getEmployeeType().ordinal()];
                         return count < minimumRequiredShifts;
                     })
-                    .penalize(HardMediumSoftScore.ONE_MEDIUM, (employee, count) -> { // Example of a lower penalty level for weekday shifts
-                        int minimumRequiredShifts = switch (employee.getEmployeeType()) {
-                            case "R2" -> MIN_WEEKDAY_SHIFTS_R2;
-                            case "R3" -> MIN_WEEKDAY_SHIFTS_R3;
-                            case "R4" -> MIN_WEEKDAY_SHIFTS_R4;
-                            default -> 0;
-                        };
+                    .penalize(HardMediumSoftScore.ONE_MEDIUM, (employee, liveCount, historicShiftSummary) -> { // Example of a lower penalty level for weekday shifts
+                        int count = liveCount + historicShiftSummary.get(employee).weekday();
+                        int minimumRequiredShifts = MIN_WEEKDAY_SHIFTS[employee.getEmployeeType().ordinal()];
                         return minimumRequiredShifts - count;
                     })
                     .asConstraint("Minimum weekday shifts for R2, R3, R4 residents");
         }
 
         Constraint maximumWeekdayShiftsForResidents(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachIncludingNullVars(Shift.class)
-                    .filter(shift -> shift.getLocation() != null && shift.getLocation().equals("ED cover"))
+            return constraintFactory.forEachIncludingNullVars(EdCoverShift.class)
                     .filter(shift -> !isWeekend(shift)) // Only consider weekday shifts
                     .groupBy(Shift::getEmployee, count())
-                    .filter((employee, count) -> {
+                    .join(HistoricShiftSummary.class)
+                    .filter((employee, liveCount, historicShiftSummary) -> {
+                        int count = liveCount + historicShiftSummary.get(employee).weekday();
                         if (employee == null) return false;
-                        int maximumAllowedShifts = switch (employee.getEmployeeType()) {
-                            case "R2" -> MAX_WEEKDAY_SHIFTS_R2;
-                            case "R3" -> MAX_WEEKDAY_SHIFTS_R3;
-                            case "R4" -> MAX_WEEKDAY_SHIFTS_R4;
-                            default -> Integer.MAX_VALUE;
-                        };
+                        int maximumAllowedShifts = MAX_WEEKDAY_SHIFTS[employee.getEmployeeType().ordinal()];
                         return count > maximumAllowedShifts;
                     })
-                    .penalize(HardMediumSoftScore.ONE_MEDIUM, (employee, count) -> { // Penalty level for exceeding weekday shifts
-                        int maximumAllowedShifts = switch (employee.getEmployeeType()) {
-                            case "R2" -> MAX_WEEKDAY_SHIFTS_R2;
-                            case "R3" -> MAX_WEEKDAY_SHIFTS_R3;
-                            case "R4" -> MAX_WEEKDAY_SHIFTS_R4;
-                            default -> Integer.MAX_VALUE;
-                        };
+                    .penalize(HardMediumSoftScore.ONE_MEDIUM, (employee, liveCount, historicShiftSummary) -> { // Penalty level for exceeding weekday shifts
+                        int count = liveCount + historicShiftSummary.get(employee).weekday();
+                        int maximumAllowedShifts = MAX_WEEKDAY_SHIFTS[employee.getEmployeeType().ordinal()];
                         return count - maximumAllowedShifts;
                     })
                     .asConstraint("Maximum weekday shifts for R2, R3, R4 residents");
         }
 
         Constraint penalizeExcessFridayShiftsForR4s(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEachIncludingNullVars(Shift.class)
+            return constraintFactory.forEachIncludingNullVars(EdCoverShift.class)
                     .filter(shift -> shift.getStart().getDayOfWeek() == DayOfWeek.FRIDAY)
-                    .filter(shift -> "ED cover".equals(shift.getLocation()))
                     // Focus on R4 residents
-                    .filter(shift -> shift.getEmployee() != null && "R4".equals(shift.getEmployee().getEmployeeType()))
+                    .filter(shift -> shift.getEmployee() != null && shift.getEmployee().getEmployeeType() == ResidentYear.R4)
                     // Group by employee to count Friday shifts
                     .groupBy(Shift::getEmployee, count())
+                    .join(HistoricShiftSummary.class)
                     // Apply the penalty when the count of Friday shifts exceeds 5
-                    .filter((employee, count) -> count > 5)
-                    .penalize(HardMediumSoftScore.ONE_MEDIUM, (employee, count) -> {
+                    .filter((employee, liveCount, historicShiftSummary) ->
+                            liveCount + historicShiftSummary.get(employee).friday() > 5)
+                    .penalize(HardMediumSoftScore.ONE_MEDIUM, (employee, liveCount, historicShiftSummary) -> {
+                        int count = liveCount + historicShiftSummary.get(employee).friday();
                         // Penalty calculation: for each shift above the threshold of 5, apply a penalty
                         return (count - 5) * 1; // Example: if penaltyMultiplier is set to 1, then each shift above 5 incurs a penalty of 1 point.
                     })
@@ -905,21 +826,33 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         }
 
         Constraint fridayEDCoverShiftsBalancing(ConstraintFactory constraintFactory) {
-            return constraintFactory.forEach(Shift.class)
-                .filter(shift -> isEDCover(shift) && shift.getStart().getDayOfWeek() == DayOfWeek.FRIDAY)
+            return constraintFactory.forEach(EdCoverShift.class)
+                .filter(shift -> shift.getStart().getDayOfWeek() == DayOfWeek.FRIDAY)
                 .groupBy(shift -> shift.getEmployee().getEmployeeType(), toList())
+                .join(HistoricShiftSummary.class)
+                // All residents, so the archived ones of this year count without a live Friday shift too
+                .join(constraintFactory.forEach(Employee.class).groupBy(toList()))
                 .penalize(HardMediumSoftScore.ONE_SOFT,
-                    (employeeType, shiftList) -> calculateEDFShiftBalancePenalty(shiftList)) // Double the penalty for day shifts
+                    (employeeType, shiftList, historicShiftSummary, employeeList) ->
+                            calculateEDFShiftBalancePenalty(employeeType, shiftList, historicShiftSummary, employeeList))
                 .asConstraint("fridayEDCoverShiftsBalancing");
         }
 
  
-         private int calculateEDFShiftBalancePenalty(List<Shift> shifts) {
-            // Create a map to count shifts per employee
+         private int calculateEDFShiftBalancePenalty(ResidentYear employeeType, List<? extends Shift> shifts,
+                 HistoricShiftSummary historicShiftSummary, List<Employee> employeeList) {
+            // Create a map to count shifts per employee, starting from the archived Friday shifts
+            // of every resident of this year in the archive
             Map<String, Integer> shiftCounts = new HashMap<>();
+            for (Employee employee : employeeList) {
+                if (employee.getEmployeeType() == employeeType && historicShiftSummary.contains(employee)) {
+                    shiftCounts.put(employee.getName(), historicShiftSummary.get(employee).friday());
+                }
+            }
             for (Shift shift : shifts) {
-                String employeeName = shift.getEmployee().getName();
-                shiftCounts.merge(employeeName, 1, Integer::sum);
+                Employee employee = shift.getEmployee();
+                shiftCounts.computeIfAbsent(employee.getName(), name -> historicShiftSummary.get(employee).friday());
+                shiftCounts.merge(employee.getName(), 1, Integer::sum);
             }
 
             // Calculate the penalty based on the deviation from the balancing criterion
@@ -1034,17 +967,16 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
 
         private boolean isWeekendEDCoverShift(Shift shift) {
             DayOfWeek dayOfWeek = shift.getStart().getDayOfWeek();
-            return (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) && "ED cover".equals(shift.getLocation());
+            return (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) && shift instanceof EdCoverShift;
         }
 
         private boolean isNightShiftBlock(Shift shift) {
-            // Assuming "Night Shift" is used to denote night shifts
-            return "Night Shift".equals(shift.getLocation());
+            return shift instanceof NightFloatBlock;
         }
 
         private boolean isWeekdayEDCoverShift(Shift shift) {
             DayOfWeek dayOfWeek = shift.getStart().getDayOfWeek();
-            return (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY) && "ED cover".equals(shift.getLocation());
+            return (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY) && shift instanceof EdCoverShift;
         }
 
 
@@ -1055,8 +987,8 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
 
         Constraint desiredDayForEmployee(ConstraintFactory constraintFactory) {
                 return constraintFactory.forEach(Shift.class)
-                        .join(Availability.class, Joiners.equal((Shift shift) -> shift.getStart().toLocalDate(), Availability::getDate),
-                                Joiners.equal(Shift::getEmployee, Availability::getEmployee))
+                        .join(Availability.class, Joiners.equal(Shift::getEmployee, Availability::getEmployee),
+                                shiftStartDay())
                         .filter((shift, availability) -> availability.getAvailabilityType() == AvailabilityType.DESIRED)
                         .reward(HardMediumSoftScore.ONE_SOFT,
                                 (shift, availability) -> getShiftDurationInMinutes(shift))
@@ -1065,8 +997,8 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
 
         Constraint undesiredDayForEmployee(ConstraintFactory constraintFactory) {
                 return constraintFactory.forEach(Shift.class)
-                        .join(Availability.class, Joiners.equal((Shift shift) -> shift.getStart().toLocalDate(), Availability::getDate),
-                                Joiners.equal(Shift::getEmployee, Availability::getEmployee))
+                        .join(Availability.class, Joiners.equal(Shift::getEmployee, Availability::getEmployee),
+                                shiftStartDay())
                         .filter((shift, availability) -> availability.getAvailabilityType() == AvailabilityType.UNDESIRED)
                         .penalize(HardMediumSoftScore.ONE_SOFT,
                                 (shift, availability) -> getShiftDurationInMinutes(shift))
@@ -0,0 +1,79 @@
+package org.acme.employeescheduling.solver;
+
+import java.util.Map;
+
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.Shift;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.score.constraint.Indictment;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.impl.score.director.InnerScoreDirector;
+import ai.timefold.solver.core.impl.score.director.InnerScoreDirectorFactory;
+import ai.timefold.solver.core.impl.solver.DefaultSolverFactory;
+
+/**
+ * Keeps a working solution scored incrementally, like the solver does between moves:
+ * after a change only the constraints touching the changed shifts are recalculated.
+ * <p>
+ * Timefold has no public API for this yet. This is the only class touching its impl classes,
+ * IncrementalScoreDirectorTest fails as soon as they change.
+ */
+public final class IncrementalScoreDirector implements AutoCloseable {
+
+    private static final String EMPLOYEE_VARIABLE = "employee";
+
+    private final InnerScoreDirector<EmployeeSchedule, HardMediumSoftScore> scoreDirector;
+
+    private IncrementalScoreDirector(InnerScoreDirector<EmployeeSchedule, HardMediumSoftScore> scoreDirector) {
+        this.scoreDirector = scoreDirector;
+    }
+
+    // Works on a planning clone of the solution, with constraint matches enabled for the indictments
+    public static IncrementalScoreDirector open(SolverFactory<EmployeeSchedule> solverFactory, EmployeeSchedule solution) {
+        @SuppressWarnings("unchecked")
+        InnerScoreDirector<EmployeeSchedule, HardMediumSoftScore> scoreDirector =
+                (InnerScoreDirector<EmployeeSchedule, HardMediumSoftScore>) scoreDirectorFactory(solverFactory)
+                        .buildScoreDirector(false, true);
+        scoreDirector.setWorkingSolution(scoreDirector.cloneSolution(solution));
+        scoreDirector.calculateScore();
+        return new IncrementalScoreDirector(scoreDirector);
+    }
+
+    // A planning clone, for work that mustn't touch a solution other threads read (scoring sets its score)
+    public static EmployeeSchedule cloneSolution(SolverFactory<EmployeeSchedule> solverFactory, EmployeeSchedule solution) {
+        return scoreDirectorFactory(solverFactory).getSolutionDescriptor().getSolutionCloner().cloneSolution(solution);
+    }
+
+    private static InnerScoreDirectorFactory<EmployeeSchedule, ?> scoreDirectorFactory(
+            SolverFactory<EmployeeSchedule> solverFactory) {
+        return ((DefaultSolverFactory<EmployeeSchedule>) solverFactory).getScoreDirectorFactory();
+    }
+
+    public EmployeeSchedule getWorkingSolution() {
+        return scoreDirector.getWorkingSolution();
+    }
+
+    public HardMediumSoftScore calculateScore() {
+        return scoreDirector.calculateScore();
+    }
+
+    // The shift must belong to the working solution
+    public void changeEmployee(Shift shift, Employee employee) {
+        scoreDirector.beforeVariableChanged(shift, EMPLOYEE_VARIABLE);
+        shift.setEmployee(employee);
+        scoreDirector.afterVariableChanged(shift, EMPLOYEE_VARIABLE);
+        scoreDirector.triggerVariableListeners();
+    }
+
+    // As of the last calculateScore(). Timefold rebuilds it from all constraint matches after every change.
+    public Map<Object, Indictment<HardMediumSoftScore>> getIndictmentMap() {
+        return scoreDirector.getIndictmentMap();
+    }
+
+    @Override
+    public void close() {
+        scoreDirector.close();
+    }
+}
@@ -0,0 +1,31 @@
+package org.acme.employeescheduling.solver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+
+/**
+ * Latest best solution per schedule id, so reads during solving don't have to go to the database.
+ * The solver hands out a fresh clone for every best solution, so the solver never touches a published snapshot again.
+ */
+@ApplicationScoped
+public class ScheduleSnapshotCache {
+
+    private final Map<Long, EmployeeSchedule> snapshotMap = new ConcurrentHashMap<>();
+
+    public void publish(Long scheduleId, EmployeeSchedule solution) {
+        snapshotMap.put(scheduleId, solution);
+    }
+
+    public EmployeeSchedule get(Long scheduleId) {
+        return snapshotMap.get(scheduleId);
+    }
+
+    // Call whenever the persisted schedule changes outside of the solver (publish, manual edits)
+    public void evict(Long scheduleId) {
+        snapshotMap.remove(scheduleId);
+    }
+}
@@ -0,0 +1,42 @@
+package org.acme.employeescheduling.solver;
+
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.Shift;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.move.Move;
+import ai.timefold.solver.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.ChangeMove;
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.SwapMove;
+
+/**
+ * Keeps local search away from the moves between equivalent states of a multi-seat slot (see Shift.getPreviousSeat()),
+ * such as the 2 identical seats of a Peds block:
+ * <ul>
+ * <li>swapping the residents of 2 seats of one slot changes nothing,</li>
+ * <li>a resident joins a slot in its lowest free seat and leaves it from its highest taken seat,
+ * so "A in the first seat" and "A in the second seat" aren't both explored.</li>
+ * </ul>
+ * Configured on the change and swap move selectors in solverConfig.xml.
+ */
+public class SeatSymmetryMoveFilter implements SelectionFilter<EmployeeSchedule, Move<EmployeeSchedule>> {
+
+    @Override
+    public boolean accept(ScoreDirector<EmployeeSchedule> scoreDirector, Move<EmployeeSchedule> move) {
+        if (move instanceof SwapMove<EmployeeSchedule> swapMove) {
+            return !((Shift) swapMove.getLeftEntity()).isTwinOf((Shift) swapMove.getRightEntity());
+        }
+        if (move instanceof ChangeMove<EmployeeSchedule> changeMove) {
+            Shift shift = (Shift) changeMove.getEntity();
+            boolean assigned = shift.getEmployee() != null;
+            boolean toAssigned = changeMove.getToPlanningValue() != null;
+            if (!assigned && toAssigned) {
+                return shift.getPreviousSeat() == null || shift.getPreviousSeat().getEmployee() != null;
+            }
+            if (assigned && !toAssigned) {
+                return shift.getNextSeat() == null || shift.getNextSeat().getEmployee() == null;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,137 @@
+package org.acme.employeescheduling.solver;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.Transactional;
+
+import org.acme.employeescheduling.domain.ArchivedShift;
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.ResidentYear;
+import org.acme.employeescheduling.domain.ScheduleState;
+import org.acme.employeescheduling.domain.Shift;
+import org.acme.employeescheduling.domain.ShiftCountDto;
+import org.acme.employeescheduling.persistence.ArchivedShiftRepository;
+import org.acme.employeescheduling.persistence.ScheduleStateRepository;
+import org.acme.employeescheduling.persistence.ShiftRepository;
+
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Per-resident shift counters, maintained from the difference between consecutive persisted solutions
+ * (and manual edits) instead of recounting every shift on every read.
+ */
+@ApplicationScoped
+public class ShiftCountProjection {
+
+    @Inject
+    ShiftRepository shiftRepository;
+    @Inject
+    ScheduleStateRepository scheduleStateRepository;
+    @Inject
+    ArchivedShiftRepository archivedShiftRepository;
+
+    private final Map<Long, TenantCounts> tenantCountsMap = new ConcurrentHashMap<>();
+
+    // Runs after the DemoDataGenerator (default priority) has filled the database and the ShiftArchiver has run
+    @Transactional
+    void rebuildOnStartup(@Observes @Priority(Interceptor.Priority.APPLICATION + 600) StartupEvent startupEvent) {
+        for (ScheduleState scheduleState : scheduleStateRepository.listAll()) {
+            rebuild(scheduleState.getTenantId());
+        }
+    }
+
+    // The counts span every year, so the archived shifts count too (by the id they had, see ArchivedShift)
+    @Transactional
+    public void rebuild(Long tenantId) {
+        List<Shift> shiftList = new ArrayList<>(shiftRepository.listByTenant(tenantId));
+        for (ArchivedShift archivedShift : archivedShiftRepository.listByTenantReadOnly(tenantId)) {
+            shiftList.add(archivedShift.toShift());
+        }
+        rebuild(tenantId, shiftList);
+    }
+
+    public void rebuild(Long tenantId, List<Shift> shiftList) {
+        TenantCounts tenantCounts = new TenantCounts();
+        tenantCounts.apply(shiftList);
+        tenantCountsMap.put(tenantId, tenantCounts);
+    }
+
+    // Only shifts whose resident, location or start differ from the last applied state touch the counters
+    public void apply(Long tenantId, List<Shift> shiftList) {
+        tenantCountsMap.computeIfAbsent(tenantId, id -> new TenantCounts()).apply(shiftList);
+    }
+
+    public void apply(Long tenantId, Shift shift) {
+        apply(tenantId, List.of(shift));
+    }
+
+    public void remove(Long tenantId, Long shiftId) {
+        TenantCounts tenantCounts = tenantCountsMap.get(tenantId);
+        if (tenantCounts != null) {
+            tenantCounts.remove(shiftId);
+        }
+    }
+
+    public Map<String, ShiftCountDto> get(Long tenantId) {
+        TenantCounts tenantCounts = tenantCountsMap.get(tenantId);
+        return tenantCounts == null ? Map.of() : tenantCounts.copy();
+    }
+
+    private static final class TenantCounts {
+
+        private final Map<Long, AssignedShift> assignedShiftMap = new HashMap<>();
+        private final Map<String, ShiftCountDto> countMap = new HashMap<>();
+
+        private synchronized void apply(List<Shift> shiftList) {
+            for (Shift shift : shiftList) {
+                Employee employee = shift.getEmployee();
+                AssignedShift assignedShift = employee == null ? null
+                        : new AssignedShift(employee.getName(), employee.getEmployeeType(), shift.getLocation(), shift.getStart());
+                AssignedShift previous = assignedShift == null
+                        ? assignedShiftMap.remove(shift.getId())
+                        : assignedShiftMap.put(shift.getId(), assignedShift);
+                if (assignedShift != null && assignedShift.equals(previous)) {
+                    continue;
+                }
+                count(previous, -1);
+                count(assignedShift, 1);
+            }
+        }
+
+        private synchronized void remove(Long shiftId) {
+            count(assignedShiftMap.remove(shiftId), -1);
+        }
+
+        private void count(AssignedShift assignedShift, int delta) {
+            if (assignedShift == null) {
+                return;
+            }
+            ShiftCountDto countDto = countMap.computeIfAbsent(assignedShift.employeeName(),
+                    name -> new ShiftCountDto(assignedShift.employeeType()));
+            countDto.add(assignedShift.location(), assignedShift.start(), delta);
+            if (countDto.isEmpty()) {
+                countMap.remove(assignedShift.employeeName());
+            }
+        }
+
+        private synchronized Map<String, ShiftCountDto> copy() {
+            Map<String, ShiftCountDto> copy = new HashMap<>(countMap.size());
+            countMap.forEach((employeeName, countDto) -> copy.put(employeeName, new ShiftCountDto(countDto)));
+            return copy;
+        }
+    }
+
+    private record AssignedShift(String employeeName, ResidentYear employeeType, Location location, LocalDateTime start) {
+    }
+}
@@ -0,0 +1,274 @@
+package org.acme.employeescheduling.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.Shift;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.runtime.ShutdownEvent;
+
+/**
+ * Periodic on-disk checkpoints of the best solution, so a crashed JVM can resume solving where it was.
+ * <p>
+ * A checkpoint only holds the assignments (shift id, start and resident name), gzipped: the problem itself
+ * is reloaded from the database. It's written to a temporary file and renamed, so a crash mid-write never
+ * leaves a torn checkpoint behind. A marker file per schedule records that a solve is running: it's left in place
+ * when the solve is cut short by a crash or a shutdown, so the next start resumes it.
+ * <p>
+ * The problem only lines up with a checkpoint when the database survives the restart, so by default nothing
+ * is written (or resumed) on an in-memory or drop-and-create datasource, see {@link #isEnabled()}.
+ */
+@ApplicationScoped
+public class SolverCheckpointStore {
+
+    private static final Logger LOGGER = Logger.getLogger(SolverCheckpointStore.class);
+
+    private static final int MAGIC = 0x52534350; // "RSCP"
+    private static final int FORMAT_VERSION = 1;
+    private static final Pattern CHECKPOINT_FILE_PATTERN = Pattern.compile("schedule-(\\d+)-(\\d+)\\.ckpt\\.gz");
+
+    @ConfigProperty(name = "schedule.checkpoint.directory", defaultValue = "checkpoints")
+    Path directory;
+    @ConfigProperty(name = "schedule.checkpoint.retention", defaultValue = "3")
+    int retention;
+    @ConfigProperty(name = "schedule.checkpoint.resume")
+    Optional<Boolean> resume;
+    @ConfigProperty(name = "quarkus.datasource.jdbc.url")
+    Optional<String> jdbcUrl;
+    @ConfigProperty(name = "quarkus.hibernate-orm.database.generation", defaultValue = "none")
+    String databaseGeneration;
+
+    private volatile boolean shuttingDown = false;
+
+    public record Assignment(int startEpochMinute, String employeeName) {
+    }
+
+    public record Checkpoint(Long scheduleId, long createdMillis, String score, Map<Long, Assignment> assignmentMap) {
+    }
+
+    // Whether solves are checkpointed and resumed: schedule.checkpoint.resume, by default only on a persistent datasource
+    public boolean isEnabled() {
+        return resume.orElseGet(this::isPersistentDatasource);
+    }
+
+    public boolean isPersistentDatasource() {
+        return jdbcUrl.map(url -> !url.contains(":mem:")).orElse(false)
+                && !databaseGeneration.startsWith("drop-and-create");
+    }
+
+    public void write(Long scheduleId, EmployeeSchedule solution) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            long createdMillis = System.currentTimeMillis();
+            Path target = directory.resolve("schedule-" + scheduleId + "-" + createdMillis + ".ckpt.gz");
+            Path temp = Files.createTempFile(directory, "schedule-" + scheduleId + "-", ".tmp");
+            try {
+                try (FileOutputStream fileOut = new FileOutputStream(temp.toFile());
+                        GZIPOutputStream gzipOut = new GZIPOutputStream(fileOut);
+                        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzipOut))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeLong(scheduleId);
+                    out.writeLong(createdMillis);
+                    out.writeUTF(String.valueOf(solution.getScore()));
+                    out.writeInt(solution.getShiftList().size());
+                    for (Shift shift : solution.getShiftList()) {
+                        out.writeLong(shift.getId());
+                        out.writeInt(epochMinute(shift.getStart()));
+                        out.writeUTF(shift.getEmployee() == null ? "" : shift.getEmployee().getName());
+                    }
+                    out.flush();
+                    gzipOut.finish(); // Writes the last deflate block and the gzip trailer to fileOut
+                    fileOut.getFD().sync(); // On disk before the rename makes it visible
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                syncDirectory(directory);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            deleteOlderThanRetention(scheduleId);
+        } catch (IOException e) {
+            // A missed checkpoint only costs progress on a crash, it must not stop the solver
+            LOGGER.warnf(e, "Could not write a checkpoint for schedule (%d).", scheduleId);
+        }
+    }
+
+    // The newest checkpoint that can be read, a damaged one is skipped in favor of an older one
+    public Optional<Checkpoint> findLatest(Long scheduleId) {
+        for (Path path : listCheckpoints(scheduleId)) {
+            try {
+                return Optional.of(read(path));
+            } catch (IOException e) {
+                LOGGER.warnf(e, "Skipping unreadable checkpoint (%s).", path);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Applies the assignments to a freshly loaded problem. A shift is only matched on the same id and start,
+    // and a resident on the same name. Returns the number of shifts that got their checkpointed assignment.
+    public static int apply(Checkpoint checkpoint, EmployeeSchedule problem) {
+        Map<String, Employee> employeeMap = new HashMap<>();
+        problem.getEmployeeList().forEach(employee -> employeeMap.put(employee.getName(), employee));
+        int appliedCount = 0;
+        for (Shift shift : problem.getShiftList()) {
+            Assignment assignment = checkpoint.assignmentMap().get(shift.getId());
+            if (assignment == null || assignment.startEpochMinute() != epochMinute(shift.getStart())) {
+                continue;
+            }
+            Employee employee = assignment.employeeName().isEmpty() ? null : employeeMap.get(assignment.employeeName());
+            if (employee == null && !assignment.employeeName().isEmpty()) {
+                continue;
+            }
+            shift.setEmployee(employee);
+            appliedCount++;
+        }
+        return appliedCount;
+    }
+
+    public void markSolving(Long scheduleId) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(markerPath(scheduleId), Long.toString(System.currentTimeMillis()));
+        } catch (IOException e) {
+            LOGGER.warnf(e, "Could not mark schedule (%d) as solving, it won't resume after a crash.", scheduleId);
+        }
+    }
+
+    // Ignored during shutdown: the SolverManager terminates running solves then, which doesn't finish them
+    public void markFinished(Long scheduleId) {
+        if (shuttingDown || !isEnabled()) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(markerPath(scheduleId));
+        } catch (IOException e) {
+            LOGGER.warnf(e, "Could not unmark schedule (%d) as solving.", scheduleId);
+        }
+    }
+
+    // Schedules whose solve was still running when the JVM stopped
+    public List<Long> findUnfinished() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        Pattern markerPattern = Pattern.compile("schedule-(\\d+)\\.solving");
+        try (Stream<Path> pathStream = Files.list(directory)) {
+            return pathStream.map(path -> markerPattern.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.valueOf(matcher.group(1)))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void onShutdown(@Observes ShutdownEvent shutdownEvent) {
+        shuttingDown = true;
+    }
+
+    // The renamed file only survives a crash once the directory entry pointing to it is on disk too.
+    // Not every platform can open a directory (Windows can't), there it's left to the file system.
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            LOGGER.debugf(e, "Could not sync the checkpoint directory (%s).", directory);
+        }
+    }
+
+    private Path markerPath(Long scheduleId) {
+        return directory.resolve("schedule-" + scheduleId + ".solving");
+    }
+
+    private static Checkpoint read(Path path) throws IOException {
+        try (InputStream fileIn = Files.newInputStream(path);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(fileIn)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a checkpoint of this format version.");
+            }
+            Long scheduleId = in.readLong();
+            long createdMillis = in.readLong();
+            String score = in.readUTF();
+            int shiftCount = in.readInt();
+            Map<Long, Assignment> assignmentMap = new HashMap<>(shiftCount * 2);
+            for (int i = 0; i < shiftCount; i++) {
+                assignmentMap.put(in.readLong(), new Assignment(in.readInt(), in.readUTF()));
+            }
+            return new Checkpoint(scheduleId, createdMillis, score, assignmentMap);
+        }
+    }
+
+    // Newest first
+    private List<Path> listCheckpoints(Long scheduleId) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Path> pathList = new ArrayList<>();
+        try (Stream<Path> pathStream = Files.list(directory)) {
+            pathStream.forEach(path -> {
+                Matcher matcher = CHECKPOINT_FILE_PATTERN.matcher(path.getFileName().toString());
+                if (matcher.matches() && Long.valueOf(matcher.group(1)).equals(scheduleId)) {
+                    pathList.add(path);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pathList.sort(Comparator.comparingLong(SolverCheckpointStore::createdMillis).reversed());
+        return pathList;
+    }
+
+    private void deleteOlderThanRetention(Long scheduleId) throws IOException {
+        List<Path> pathList = listCheckpoints(scheduleId);
+        for (Path path : pathList.subList(Math.min(Math.max(retention, 1), pathList.size()), pathList.size())) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static long createdMillis(Path path) {
+        Matcher matcher = CHECKPOINT_FILE_PATTERN.matcher(path.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(2)) : 0L;
+    }
+
+    private static int epochMinute(LocalDateTime dateTime) {
+        return (int) (dateTime.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+}
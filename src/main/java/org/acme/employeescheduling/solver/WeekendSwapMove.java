@@ -0,0 +1,106 @@
+package org.acme.employeescheduling.solver;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.acme.employeescheduling.domain.EdCoverShift;
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.Shift;
+import org.acme.employeescheduling.domain.WeekendPair;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.move.AbstractMove;
+
+/**
+ * Swaps 2 whole weekends (see WeekendPair): the Saturday residents swap and so do the Sunday residents.
+ * A plain swap move can only do this in 2 steps, the first of which usually breaks a weekend rule.
+ * Its own undo move.
+ */
+public class WeekendSwapMove extends AbstractMove<EmployeeSchedule> {
+
+    private final WeekendPair left;
+    private final WeekendPair right;
+
+    public WeekendSwapMove(WeekendPair left, WeekendPair right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    public boolean isMoveDoable(ScoreDirector<EmployeeSchedule> scoreDirector) {
+        return !left.equals(right) && !left.isTwinOf(right)
+                && (!Objects.equals(left.saturday().getEmployee(), right.saturday().getEmployee())
+                        || !Objects.equals(left.sunday().getEmployee(), right.sunday().getEmployee()));
+    }
+
+    @Override
+    protected WeekendSwapMove createUndoMove(ScoreDirector<EmployeeSchedule> scoreDirector) {
+        return new WeekendSwapMove(right, left);
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<EmployeeSchedule> scoreDirector) {
+        swapEmployees(scoreDirector, left.saturday(), right.saturday());
+        swapEmployees(scoreDirector, left.sunday(), right.sunday());
+    }
+
+    private static void swapEmployees(ScoreDirector<EmployeeSchedule> scoreDirector, Shift leftShift, Shift rightShift) {
+        Employee leftEmployee = leftShift.getEmployee();
+        Employee rightEmployee = rightShift.getEmployee();
+        if (Objects.equals(leftEmployee, rightEmployee)) {
+            return;
+        }
+        scoreDirector.beforeVariableChanged(leftShift, "employee");
+        leftShift.setEmployee(rightEmployee);
+        scoreDirector.afterVariableChanged(leftShift, "employee");
+        scoreDirector.beforeVariableChanged(rightShift, "employee");
+        rightShift.setEmployee(leftEmployee);
+        scoreDirector.afterVariableChanged(rightShift, "employee");
+    }
+
+    @Override
+    public WeekendSwapMove rebase(ScoreDirector<EmployeeSchedule> destinationScoreDirector) {
+        return new WeekendSwapMove(rebasePair(destinationScoreDirector, left), rebasePair(destinationScoreDirector, right));
+    }
+
+    private static WeekendPair rebasePair(ScoreDirector<EmployeeSchedule> destinationScoreDirector, WeekendPair pair) {
+        return new WeekendPair(destinationScoreDirector.lookUpWorkingObject(pair.saturday()),
+                destinationScoreDirector.lookUpWorkingObject(pair.sunday()));
+    }
+
+    @Override
+    public Collection<EdCoverShift> getPlanningEntities() {
+        return List.of(left.saturday(), left.sunday(), right.saturday(), right.sunday());
+    }
+
+    @Override
+    public Collection<Employee> getPlanningValues() {
+        // Unassigned seats are null, which List.of() doesn't allow
+        return Arrays.asList(left.saturday().getEmployee(), left.sunday().getEmployee(),
+                right.saturday().getEmployee(), right.sunday().getEmployee());
+    }
+
+    @Override
+    public String getSimpleMoveTypeDescription() {
+        return "WeekendSwapMove(EdCoverShift.employee)";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof WeekendSwapMove other && left.equals(other.left) && right.equals(other.right);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(left, right);
+    }
+
+    @Override
+    public String toString() {
+        return left.saturday() + " {" + left.saturday().getEmployee() + ", " + left.sunday().getEmployee() + "} <-> "
+                + right.saturday() + " {" + right.saturday().getEmployee() + ", " + right.sunday().getEmployee() + "}";
+    }
+}
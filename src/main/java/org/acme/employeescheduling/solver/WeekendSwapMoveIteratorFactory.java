@@ -0,0 +1,100 @@
+package org.acme.employeescheduling.solver;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.ShiftPinningFilter;
+import org.acme.employeescheduling.domain.WeekendPair;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.selector.move.factory.MoveIteratorFactory;
+
+/**
+ * The WeekendSwapMoves between the weekends of the draft period, configured in solverConfig.xml.
+ * Off unless schedule.solver.weekend-moves=true: without it the weekend days only move one shift at a time.
+ * The weekends are read from the working solution per step: they're linked when the schedule is built,
+ * so this is one pass over the shifts.
+ */
+public class WeekendSwapMoveIteratorFactory implements MoveIteratorFactory<EmployeeSchedule, WeekendSwapMove> {
+
+    private final boolean enabled = ConfigProvider.getConfig()
+            .getOptionalValue("schedule.solver.weekend-moves", Boolean.class).orElse(false);
+    private final ShiftPinningFilter pinningFilter = new ShiftPinningFilter();
+
+    @Override
+    public long getSize(ScoreDirector<EmployeeSchedule> scoreDirector) {
+        long pairCount = listMovablePairs(scoreDirector).size();
+        return pairCount * (pairCount - 1) / 2;
+    }
+
+    @Override
+    public Iterator<WeekendSwapMove> createOriginalMoveIterator(ScoreDirector<EmployeeSchedule> scoreDirector) {
+        List<WeekendPair> pairList = listMovablePairs(scoreDirector);
+        return new Iterator<>() {
+            private int leftIndex = 0;
+            private int rightIndex = 1;
+
+            @Override
+            public boolean hasNext() {
+                return rightIndex < pairList.size();
+            }
+
+            @Override
+            public WeekendSwapMove next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                WeekendSwapMove move = new WeekendSwapMove(pairList.get(leftIndex), pairList.get(rightIndex));
+                rightIndex++;
+                if (rightIndex == pairList.size()) {
+                    leftIndex++;
+                    rightIndex = leftIndex + 1;
+                }
+                return move;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<WeekendSwapMove> createRandomMoveIterator(ScoreDirector<EmployeeSchedule> scoreDirector,
+            Random workingRandom) {
+        List<WeekendPair> pairList = listMovablePairs(scoreDirector);
+        if (pairList.size() < 2) {
+            return Collections.emptyIterator();
+        }
+        // Never ending, like the other random move selectors
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public WeekendSwapMove next() {
+                int leftIndex = workingRandom.nextInt(pairList.size());
+                int rightIndex = workingRandom.nextInt(pairList.size() - 1);
+                if (rightIndex >= leftIndex) {
+                    rightIndex++;
+                }
+                return new WeekendSwapMove(pairList.get(leftIndex), pairList.get(rightIndex));
+            }
+        };
+    }
+
+    // Published weekends are pinned: neither of their days may move
+    private List<WeekendPair> listMovablePairs(ScoreDirector<EmployeeSchedule> scoreDirector) {
+        if (!enabled) {
+            return List.of();
+        }
+        EmployeeSchedule schedule = scoreDirector.getWorkingSolution();
+        return WeekendPair.list(schedule.getShiftList()).stream()
+                .filter(pair -> !pinningFilter.accept(schedule, pair.saturday())
+                        && !pinningFilter.accept(schedule, pair.sunday()))
+                .toList();
+    }
+}
@@ -0,0 +1,253 @@
+package org.acme.employeescheduling.solver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.Shift;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.score.constraint.ConstraintMatch;
+import ai.timefold.solver.core.api.score.constraint.Indictment;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+
+/**
+ * Scores proposed manual reassignments against a warm working solution per schedule.
+ * The proposals go through the incremental score director (only the constraints touching the changed shifts are
+ * recalculated) and are undone right after, so the working solution is reused until the schedule changes.
+ * <p>
+ * The appeared and disappeared matches only come from the indictments of the proposed shifts and of the residents
+ * they move between, so comparing them doesn't grow with the schedule. Timefold does rebuild its indictment map
+ * from every constraint match after a change, so a what-if still walks all matches twice, it just doesn't copy them.
+ */
+@ApplicationScoped
+public class WhatIfScorer {
+
+    @Inject
+    SolverFactory<EmployeeSchedule> solverFactory;
+
+    private final Map<Long, Session> sessionMap = new ConcurrentHashMap<>();
+    // Bumped by every evict(), a session of an older generation may hold data from before the change
+    private final Map<Long, AtomicLong> generationMap = new ConcurrentHashMap<>();
+
+    public record Proposal(Long shiftId, String employee) {
+    }
+
+    public record Match(String constraint, String score, List<String> justifications) {
+    }
+
+    public record Result(String scoreBefore, String scoreAfter, String scoreDelta, List<Match> appeared,
+            List<Match> disappeared) {
+    }
+
+    private record MatchKey(String constraintId, List<Object> indictedObjectList) {
+    }
+
+    private static final class Session {
+
+        private final long generation;
+        private final IncrementalScoreDirector scoreDirector;
+        private final Map<Long, Shift> shiftMap = new HashMap<>();
+        private final Map<String, Employee> employeeMap = new HashMap<>();
+        private EmployeeSchedule syncedSolution; // Guarded by the session itself, like the fields below
+        private boolean closed = false;
+
+        private Session(long generation, EmployeeSchedule solution, IncrementalScoreDirector scoreDirector) {
+            this.generation = generation;
+            this.scoreDirector = scoreDirector;
+            this.syncedSolution = solution;
+            EmployeeSchedule workingSolution = scoreDirector.getWorkingSolution();
+            workingSolution.getShiftList().forEach(shift -> shiftMap.put(shift.getId(), shift));
+            workingSolution.getEmployeeList().forEach(employee -> employeeMap.put(employee.getName(), employee));
+        }
+
+        // Catches up with a newer best solution of the same problem by replaying only the assignments that differ.
+        // False if its shifts or residents aren't the working solution's anymore.
+        private boolean sync(EmployeeSchedule solution) {
+            if (solution == syncedSolution) {
+                return true;
+            }
+            if (solution.getShiftList().size() != shiftMap.size()) {
+                return false;
+            }
+            List<Shift> changedShiftList = new ArrayList<>();
+            List<Employee> changedEmployeeList = new ArrayList<>();
+            for (Shift shift : solution.getShiftList()) {
+                Shift workingShift = shiftMap.get(shift.getId());
+                Employee employee = shift.getEmployee() == null ? null : employeeMap.get(shift.getEmployee().getName());
+                if (workingShift == null || (shift.getEmployee() != null && employee == null)) {
+                    return false;
+                }
+                if (workingShift.getEmployee() != employee) {
+                    changedShiftList.add(workingShift);
+                    changedEmployeeList.add(employee);
+                }
+            }
+            for (int i = 0; i < changedShiftList.size(); i++) {
+                scoreDirector.changeEmployee(changedShiftList.get(i), changedEmployeeList.get(i));
+            }
+            scoreDirector.calculateScore();
+            syncedSolution = solution;
+            return true;
+        }
+
+        // Waits for a what-if that is still running on it
+        private synchronized void close() {
+            closed = true;
+            scoreDirector.close();
+        }
+    }
+
+    // Scores against the latest best solution while solving (null otherwise), else against the loaded schedule.
+    // A session lives until evict(): a newer best solution only replays its changed assignments into it,
+    // so a running solve publishing every 500ms doesn't rebuild it. The loader is only called for a new session.
+    // Throws IllegalArgumentException for an unknown shift or resident.
+    public Result score(Long scheduleId, EmployeeSchedule bestSolution, Supplier<EmployeeSchedule> solutionLoader,
+            List<Proposal> proposalList) {
+        while (true) {
+            // Read before loading, so an evict() while loading makes the next what-if reload instead of reusing stale data
+            long generation = generationMap.computeIfAbsent(scheduleId, id -> new AtomicLong()).get();
+            Session session = sessionMap.get(scheduleId);
+            if (session == null || session.generation != generation) {
+                // Loaded outside the map: inside compute() the database load would block the map for other schedules
+                EmployeeSchedule solution = bestSolution != null ? bestSolution : solutionLoader.get();
+                Session newSession = new Session(generation, solution, IncrementalScoreDirector.open(solverFactory, solution));
+                boolean installed = session == null
+                        ? sessionMap.putIfAbsent(scheduleId, newSession) == null
+                        : sessionMap.replace(scheduleId, session, newSession);
+                if (!installed) {
+                    // Another what-if installed its session first
+                    newSession.close();
+                    continue;
+                }
+                if (session != null) {
+                    session.close();
+                }
+                session = newSession;
+            }
+            // A score director is single threaded
+            synchronized (session) {
+                if (!session.closed) {
+                    if (bestSolution == null || session.sync(bestSolution)) {
+                        return score(session, proposalList);
+                    }
+                    // The solver's problem changed under it (a bulk import), start over from the best solution
+                    sessionMap.remove(scheduleId, session);
+                    session.close();
+                }
+            }
+            // Replaced or evicted in the meantime
+        }
+    }
+
+    private static Result score(Session session, List<Proposal> proposalList) {
+        IncrementalScoreDirector scoreDirector = session.scoreDirector;
+        // Resolve everything first, so an unknown id or name can't leave the working solution half changed
+        List<Shift> shiftList = new ArrayList<>(proposalList.size());
+        List<Employee> employeeList = new ArrayList<>(proposalList.size());
+        for (Proposal proposal : proposalList) {
+            Shift shift = session.shiftMap.get(proposal.shiftId());
+            if (shift == null) {
+                throw new IllegalArgumentException("There is no shift (" + proposal.shiftId() + ").");
+            }
+            Employee employee = null;
+            if (proposal.employee() != null && !proposal.employee().isBlank()) {
+                employee = session.employeeMap.get(proposal.employee().strip());
+                if (employee == null) {
+                    throw new IllegalArgumentException("There is no resident (" + proposal.employee().strip() + ").");
+                }
+            }
+            shiftList.add(shift);
+            employeeList.add(employee);
+        }
+
+        // Every match a proposal can make appear or disappear indicts one of its shifts or residents
+        Set<Object> touchedSet = new LinkedHashSet<>(shiftList);
+        shiftList.forEach(shift -> touchedSet.add(shift.getEmployee()));
+        touchedSet.addAll(employeeList);
+        touchedSet.remove(null);
+
+        HardMediumSoftScore scoreBefore = scoreDirector.calculateScore();
+        Map<MatchKey, ConstraintMatch<HardMediumSoftScore>> matchMapBefore = matchMap(scoreDirector, touchedSet);
+        List<Employee> originalEmployeeList = new ArrayList<>(shiftList.size());
+        HardMediumSoftScore scoreAfter;
+        Map<MatchKey, ConstraintMatch<HardMediumSoftScore>> matchMapAfter;
+        try {
+            for (int i = 0; i < shiftList.size(); i++) {
+                Shift shift = shiftList.get(i);
+                originalEmployeeList.add(shift.getEmployee());
+                scoreDirector.changeEmployee(shift, employeeList.get(i));
+            }
+            scoreAfter = scoreDirector.calculateScore();
+            matchMapAfter = matchMap(scoreDirector, touchedSet);
+        } finally {
+            // Roll back in reverse order, so a shift proposed twice ends up with its original employee
+            for (int i = originalEmployeeList.size() - 1; i >= 0; i--) {
+                scoreDirector.changeEmployee(shiftList.get(i), originalEmployeeList.get(i));
+            }
+            scoreDirector.calculateScore();
+        }
+
+        return new Result(scoreBefore.toString(), scoreAfter.toString(), scoreAfter.subtract(scoreBefore).toString(),
+                difference(matchMapAfter, matchMapBefore), difference(matchMapBefore, matchMapAfter));
+    }
+
+    // Keyed by the indicted working objects themselves (identity), because twin Peds shifts look identical.
+    // A match indicting several touched objects is only kept once.
+    private static Map<MatchKey, ConstraintMatch<HardMediumSoftScore>> matchMap(IncrementalScoreDirector scoreDirector,
+            Set<Object> touchedSet) {
+        Map<Object, Indictment<HardMediumSoftScore>> indictmentMap = scoreDirector.getIndictmentMap();
+        Map<MatchKey, ConstraintMatch<HardMediumSoftScore>> matchMap = new LinkedHashMap<>();
+        for (Object touched : touchedSet) {
+            Indictment<HardMediumSoftScore> indictment = indictmentMap.get(touched);
+            if (indictment == null) {
+                continue;
+            }
+            for (ConstraintMatch<HardMediumSoftScore> constraintMatch : indictment.getConstraintMatchSet()) {
+                matchMap.put(new MatchKey(constraintMatch.getConstraintId(), constraintMatch.getIndictedObjectList()),
+                        constraintMatch);
+            }
+        }
+        return matchMap;
+    }
+
+    private static List<Match> difference(Map<MatchKey, ConstraintMatch<HardMediumSoftScore>> matchMap,
+            Map<MatchKey, ConstraintMatch<HardMediumSoftScore>> otherMatchMap) {
+        List<Match> matchList = new ArrayList<>();
+        matchMap.forEach((key, constraintMatch) -> {
+            if (!otherMatchMap.containsKey(key)) {
+                matchList.add(new Match(constraintMatch.getConstraintName(), constraintMatch.getScore().toString(),
+                        key.indictedObjectList().stream().map(String::valueOf).toList()));
+            }
+        });
+        return matchList;
+    }
+
+    // Call whenever the schedule changes outside of the solver (edits, imports, publish): only then is the session rebuilt
+    public void evict(Long scheduleId) {
+        generationMap.computeIfAbsent(scheduleId, id -> new AtomicLong()).incrementAndGet();
+        Session session = sessionMap.remove(scheduleId);
+        if (session != null) {
+            session.close();
+        }
+    }
+
+    @PreDestroy
+    void closeSessions() {
+        sessionMap.values().forEach(Session::close);
+        sessionMap.clear();
+    }
+}
@@ -1,4 +1,7 @@
 let autoRefreshIntervalId = null;
+// Each residency program is a tenant, pick one with ?tenant=<id>
+const tenantId = new URLSearchParams(window.location.search).get("tenant") ?? "1";
+const scheduleUrl = "/schedules/" + encodeURIComponent(tenantId);
 const zoomMin = 2 * 1000 * 60 * 60 * 24 // 2 day in milliseconds
 const zoomMax = 4 * 7 * 1000 * 60 * 60 * 24 // 4 weeks in milliseconds
 
@@ -74,6 +77,7 @@ $(document).ready(function () {
     });
 
     $("#refreshButton").click(function () {
+        scheduleLoaded = false;
         refreshSchedule();
     });
     $("#solveButton").click(function () {
@@ -125,10 +129,20 @@ function getShiftColor(shift, availabilityMap) {
     }
 }
 
+let scheduleLoaded = false;
+
 function refreshSchedule() {
-    $.getJSON("/schedule", function (schedule) {
+    // After the first load only the visible window is fetched, see ScheduleFilter
+    const url = (scheduleLoaded ? scheduleUrl + "?from=" + windowStart + "&to=" + windowEnd + "&" : scheduleUrl + "?")
+            + "format=compact";
+    $.getJSON(url, function (compactSchedule) {
+        const schedule = decodeCompactSchedule(compactSchedule);
+        scheduleLoaded = true;
         refreshSolvingButtons(schedule.solverStatus != null && schedule.solverStatus !== "NOT_SOLVING");
-        $("#score").text("Score: " + (schedule.score == null ? "?" : schedule.score));
+        // A windowed read isn't scored unless it comes from the solver, keep the last known score
+        if (schedule.score != null || $("#score").text() === "") {
+            $("#score").text("Score: " + (schedule.score == null ? "?" : schedule.score));
+        }
 
         const unassignedShifts = $("#unassignedShifts");
         const groups = [];
@@ -156,13 +170,16 @@ function refreshSchedule() {
         byLocationTimeline.setCustomTime(schedule.scheduleState.firstDraftDate, 'draft');
 
         schedule.availabilityList.forEach((availability, index) => {
+            // One background item per range, but the shift colors look up single days
             const availabilityDate = JSJoda.LocalDate.parse(availability.date);
+            const availabilityEndDate = JSJoda.LocalDate.parse(availability.endDate || availability.date);
             const start = availabilityDate.atStartOfDay().toString();
-            const end = availabilityDate.plusDays(1).atStartOfDay().toString();
+            const end = availabilityEndDate.plusDays(1).atStartOfDay().toString();
             const byEmployeeShiftElement = $(`<div/>`)
                     .append($(`<h5 class="card-title mb-1"/>`).text(availability.availabilityType));
-            const mapKey = availability.employee.name + '-' + availabilityDate.toString();
-            availabilityMap.set(mapKey, availability.availabilityType);
+            for (let date = availabilityDate; !date.isAfter(availabilityEndDate); date = date.plusDays(1)) {
+                availabilityMap.set(availability.employee.name + '-' + date.toString(), availability.availabilityType);
+            }
             byEmployeeItemDataSet.add({
                 id : 'availability-' + index, group: availability.employee.name,
                 content: byEmployeeShiftElement.html(),
@@ -252,6 +269,37 @@ function refreshSchedule() {
     });
 }
 
+// Turns the columnar payload (see CompactSchedule.java) back into the regular EmployeeSchedule JSON shape
+function decodeCompactSchedule(compact) {
+    const toLocalDateTime = epochMinute => JSJoda.LocalDateTime.ofEpochSecond(epochMinute * 60, 0, JSJoda.ZoneOffset.UTC).toString();
+    const employeeAt = index => index === -1 ? null : compact.employees[index];
+    const shifts = compact.shifts;
+    const availabilities = compact.availabilities;
+    return {
+        scheduleState: compact.scheduleState,
+        score: compact.score,
+        solverStatus: compact.solverStatus,
+        employeeList: compact.employees,
+        shiftCounts: compact.shiftCounts,
+        shiftList: shifts.id.map((id, i) => ({
+            id: id,
+            start: toLocalDateTime(shifts.start[i]),
+            end: toLocalDateTime(shifts.end[i]),
+            location: compact.locations[shifts.location[i]],
+            requiredSkill: compact.skills[shifts.requiredSkill[i]],
+            employee: employeeAt(shifts.employee[i]),
+            optional: shifts.optional[i],
+        })),
+        availabilityList: availabilities.id.map((id, i) => ({
+            id: id,
+            date: JSJoda.LocalDate.ofEpochDay(availabilities.date[i]).toString(),
+            endDate: JSJoda.LocalDate.ofEpochDay(availabilities.endDate[i]).toString(),
+            employee: employeeAt(availabilities.employee[i]),
+            availabilityType: compact.availabilityTypes[availabilities.availabilityType[i]],
+        })),
+    };
+}
+
 function displayShiftCounts(shiftCounts) {
     let tableBody = $("#shiftCountsTableBody");
     tableBody.empty();
@@ -283,7 +331,7 @@ function displayShiftCounts(shiftCounts) {
 }
 
 function solve() {
-    $.post("/schedule/solve", function () {
+    $.post(scheduleUrl + "/solve", function () {
         refreshSolvingButtons(true);
     }).fail(function (xhr, ajaxOptions, thrownError) {
         showError("Start solving failed.", xhr);
@@ -291,7 +339,7 @@ function solve() {
 }
 
 function publish() {
-    $.post("/schedule/publish", function () {
+    $.post(scheduleUrl + "/publish", function () {
         refreshSolvingButtons(true);
     }).fail(function (xhr, ajaxOptions, thrownError) {
         showError("Publish failed.", xhr);
@@ -316,7 +364,7 @@ function refreshSolvingButtons(solving) {
 }
 
 function stopSolving() {
-    $.post("/schedule/stopSolving", function () {
+    $.post(scheduleUrl + "/stopSolving", function () {
         refreshSolvingButtons(false);
         refreshSchedule();
     }).fail(function (xhr, ajaxOptions, thrownError) {
@@ -0,0 +1,92 @@
+package org.acme.employeescheduling.bootstrap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.acme.employeescheduling.bootstrap.SyntheticDataGenerator.Holiday;
+import org.acme.employeescheduling.bootstrap.SyntheticDataGenerator.Parameters;
+import org.acme.employeescheduling.bootstrap.SyntheticDataGenerator.SyntheticProgram;
+import org.acme.employeescheduling.domain.Availability;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.ResidentYear;
+import org.acme.employeescheduling.domain.Shift;
+import org.junit.jupiter.api.Test;
+
+public class SyntheticDataGeneratorTest {
+
+    @Test
+    public void programsScaleWithTheParameters() {
+        Parameters parameters = new Parameters(new int[] { 6, 5, 4 }, 2, 0.1, EnumSet.allOf(Holiday.class), 3, 1L,
+                DemoDataGenerator.START_DATE, 37L);
+        List<SyntheticProgram> programList = SyntheticDataGenerator.generate(parameters);
+        assertEquals(3, programList.size());
+        for (SyntheticProgram program : programList) {
+            assertEquals(15, program.employeeList().size());
+            assertEquals(6, program.employeeList().stream().filter(employee -> employee.getEmployeeType() == ResidentYear.R2).count());
+
+            Map<Location, List<Shift>> shiftMap = program.shiftList().stream().collect(Collectors.groupingBy(Shift::getLocation));
+            // 730 days from 2024-07-01 to 2026-07-01, minus 6 holidays per year
+            assertEquals(730 - 12, shiftMap.get(Location.ED_COVER).size());
+            assertTrue(shiftMap.get(Location.ED_COVER).stream().noneMatch(shift -> shift.getStart().toLocalDate()
+                    .equals(Holiday.THANKSGIVING.inAcademicYear(2025))));
+            assertEquals(2 * 52, shiftMap.get(Location.NIGHT_SHIFT).size());
+            assertEquals(0, shiftMap.get(Location.PEDS).size() % 2);
+            assertTrue(program.shiftList().stream().allMatch(shift -> shift.getEmployee() == null));
+
+            // 37 leave days per year, plus at most one holiday off per resident and year
+            Map<String, Long> leaveDaysMap = program.availabilityList().stream()
+                    .collect(Collectors.groupingBy(availability -> availability.getEmployee().getName(),
+                            Collectors.summingLong(availability -> availability.countOverlappingDays(LocalDate.MIN, LocalDate.MAX))));
+            for (long leaveDays : leaveDaysMap.values()) {
+                assertTrue(leaveDays >= 74 && leaveDays <= 76, "Leave days (" + leaveDays + ")");
+            }
+            LocalDate endDate = DemoDataGenerator.START_DATE.plusYears(2);
+            Map<String, List<Availability>> rangeMap = program.availabilityList().stream()
+                    .collect(Collectors.groupingBy(availability -> availability.getEmployee().getName()));
+            for (List<Availability> rangeList : rangeMap.values()) {
+                for (int i = 0; i < rangeList.size(); i++) {
+                    Availability availability = rangeList.get(i);
+                    assertTrue(!availability.getDate().isBefore(DemoDataGenerator.START_DATE)
+                            && availability.getEndDate().isBefore(endDate));
+                    // Runs are maximal: the next range starts after a gap
+                    if (i > 0) {
+                        assertTrue(availability.getDate().isAfter(rangeList.get(i - 1).getEndDate().plusDays(1)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sameSeedGeneratesIdenticalPrograms() {
+        Parameters parameters = new Parameters(new int[] { 4, 4, 4 }, 1, 0.08, EnumSet.allOf(Holiday.class), 4, 1L,
+                DemoDataGenerator.START_DATE, 37L);
+        String first = fingerprint(SyntheticDataGenerator.generate(parameters));
+        assertEquals(first, fingerprint(SyntheticDataGenerator.generate(parameters)));
+        Parameters otherSeed = new Parameters(new int[] { 4, 4, 4 }, 1, 0.08, EnumSet.allOf(Holiday.class), 4, 1L,
+                DemoDataGenerator.START_DATE, 38L);
+        assertNotEquals(first, fingerprint(SyntheticDataGenerator.generate(otherSeed)));
+    }
+
+    private static String fingerprint(List<SyntheticProgram> programList) {
+        StringBuilder fingerprint = new StringBuilder();
+        for (SyntheticProgram program : programList) {
+            fingerprint.append(program.scheduleState().getTenantId()).append('\n');
+            program.employeeList().forEach(employee -> fingerprint.append(employee.getName()).append(' ')
+                    .append(employee.getEmployeeType()).append('\n'));
+            program.availabilityList().forEach(availability -> fingerprint.append(availability.getEmployee().getName())
+                    .append(' ').append(availability.getDate()).append(' ').append(availability.getEndDate())
+                    .append(' ').append(availability.getAvailabilityType()).append('\n'));
+            program.shiftList().forEach(shift -> fingerprint.append(shift.getLocation()).append(' ').append(shift.getStart())
+                    .append(' ').append(shift.getEnd()).append(' ').append(shift.isOptional()).append('\n'));
+        }
+        return fingerprint.toString();
+    }
+}
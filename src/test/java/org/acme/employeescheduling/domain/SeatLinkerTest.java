@@ -0,0 +1,53 @@
+package org.acme.employeescheduling.domain;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class SeatLinkerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 6, 30, 10, 0);
+    private static final LocalDateTime END = START.plusDays(13).plusHours(10);
+
+    @Test
+    public void twinPedsSeatsAreLinkedInIdOrder() {
+        Shift secondSeat = seat(new PedsBlock(START, END, "RESIDENT", null, true), 2L);
+        Shift firstSeat = seat(new PedsBlock(START, END, "RESIDENT", null, true), 1L);
+        Shift staggered = seat(new PedsBlock(START.plusWeeks(1), END.plusWeeks(1), "RESIDENT", null, true), 3L);
+        // Same times, but another type of shift
+        Shift edCover = seat(new EdCoverShift(START, END, "RESIDENT", null, true), 4L);
+        EmployeeSchedule schedule = new EmployeeSchedule(null, List.of(), List.of(),
+                new ArrayList<>(List.of(secondSeat, staggered, firstSeat, edCover)));
+
+        assertNull(firstSeat.getPreviousSeat());
+        assertSame(secondSeat, firstSeat.getNextSeat());
+        assertSame(firstSeat, secondSeat.getPreviousSeat());
+        assertNull(secondSeat.getNextSeat());
+        assertTrue(firstSeat.isTwinOf(secondSeat));
+        assertTrue(secondSeat.isTwinOf(firstSeat));
+        assertFalse(firstSeat.isTwinOf(firstSeat));
+        assertFalse(firstSeat.isTwinOf(staggered));
+        assertFalse(firstSeat.isTwinOf(edCover));
+        assertNull(staggered.getPreviousSeat());
+        assertNull(staggered.getNextSeat());
+
+        // A seat added to the working solution later joins its slot
+        Shift thirdSeat = seat(new PedsBlock(START, END, "RESIDENT", null, true), 5L);
+        schedule.getShiftList().add(thirdSeat);
+        schedule.linkSeats();
+        assertSame(thirdSeat, secondSeat.getNextSeat());
+        assertTrue(firstSeat.isTwinOf(thirdSeat));
+    }
+
+    private static Shift seat(Shift shift, Long id) {
+        shift.setId(id);
+        return shift;
+    }
+}
@@ -0,0 +1,60 @@
+package org.acme.employeescheduling.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class ShiftTemplateTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 7, 1);
+
+    @Test
+    public void weekdayPatternSkipsExcludedDates() {
+        ShiftTemplate template = new ShiftTemplate("ED cover weekday evening", Location.ED_COVER,
+                EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), LocalTime.of(14, 0), Duration.ofHours(6), MONDAY);
+        template.setExcludedDates(Set.of(LocalDate.of(2024, 7, 4)));
+        List<LocalDateTime> startList = template.listStarts(MONDAY, MONDAY.plusWeeks(2));
+        assertEquals(9, startList.size());
+        assertFalse(startList.contains(LocalDate.of(2024, 7, 4).atTime(14, 0)));
+        assertTrue(startList.stream().allMatch(start -> start.toLocalTime().equals(LocalTime.of(14, 0))));
+
+        Shift shift = template.createShift(startList.get(0));
+        assertEquals(MONDAY.atTime(20, 0), shift.getEnd());
+        assertTrue(template.matches(shift));
+        template.setStartTime(LocalTime.of(15, 0));
+        assertFalse(template.matches(shift));
+    }
+
+    @Test
+    public void everyOtherWeekUpToTheLastDate() {
+        ShiftTemplate template = new ShiftTemplate("Peds", Location.PEDS, EnumSet.of(DayOfWeek.SUNDAY), LocalTime.of(10, 0),
+                Duration.ofDays(13).plusHours(10), MONDAY.minusDays(1));
+        template.setEveryWeeks(2);
+        template.setLastDate(MONDAY.plusWeeks(5));
+        // The window starts after the first date, the phase still counts from it
+        assertEquals(List.of(MONDAY.plusDays(13).atTime(10, 0), MONDAY.plusDays(27).atTime(10, 0)),
+                template.listStarts(MONDAY, MONDAY.plusYears(1)));
+        // Expanded as the entity type of its location
+        assertInstanceOf(PedsBlock.class, template.createShift(MONDAY.plusDays(13).atTime(10, 0)));
+    }
+
+    @Test
+    public void invalidTemplate() {
+        ShiftTemplate template = new ShiftTemplate("Night Shift", Location.NIGHT_SHIFT, EnumSet.of(DayOfWeek.MONDAY),
+                LocalTime.of(20, 0), Duration.ZERO, MONDAY);
+        assertThrows(IllegalArgumentException.class, template::validate);
+    }
+}
@@ -0,0 +1,85 @@
+package org.acme.employeescheduling.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class WeekendPairTest {
+
+    private static final LocalDate SATURDAY = LocalDate.of(2024, 7, 6);
+
+    @Test
+    public void saturdayAndSundayOfAWeekendArePaired() {
+        EdCoverShift saturday = edCover(SATURDAY, 24, 1L);
+        EdCoverShift sunday = edCover(SATURDAY.plusDays(1), 24, 2L);
+        EdCoverShift friday = edCover(SATURDAY.minusDays(1), 6, 3L);
+        // A Saturday whose Sunday isn't in the schedule
+        EdCoverShift loneSaturday = edCover(SATURDAY.plusWeeks(1), 24, 4L);
+        List<Shift> shiftList = new ArrayList<>(List.of(sunday, friday, saturday, loneSaturday));
+        new EmployeeSchedule(null, List.of(), List.of(), shiftList);
+
+        assertSame(sunday, saturday.getWeekendPartner());
+        assertSame(saturday, sunday.getWeekendPartner());
+        assertNull(friday.getWeekendPartner());
+        assertNull(loneSaturday.getWeekendPartner());
+        assertEquals(List.of(new WeekendPair(saturday, sunday)), WeekendPair.list(shiftList));
+    }
+
+    @Test
+    public void weekendWithTwoSeatsPerDayIsPairedSeatBySeat() {
+        EdCoverShift firstSaturday = edCover(SATURDAY, 24, 1L);
+        EdCoverShift secondSaturday = edCover(SATURDAY, 24, 2L);
+        EdCoverShift firstSunday = edCover(SATURDAY.plusDays(1), 24, 3L);
+        EdCoverShift secondSunday = edCover(SATURDAY.plusDays(1), 24, 4L);
+        List<Shift> shiftList = new ArrayList<>(List.of(secondSunday, secondSaturday, firstSunday, firstSaturday));
+        new EmployeeSchedule(null, List.of(), List.of(), shiftList);
+
+        assertSame(firstSunday, firstSaturday.getWeekendPartner());
+        assertSame(secondSunday, secondSaturday.getWeekendPartner());
+        List<WeekendPair> pairList = WeekendPair.list(shiftList);
+        assertEquals(2, pairList.size());
+        // Swapping the 2 seats of one weekend changes nothing
+        assertTrue(pairList.get(0).isTwinOf(pairList.get(1)));
+        assertFalse(pairList.get(0).isTwinOf(pairList.get(0)));
+    }
+
+    @Test
+    public void relinkingDropsPartnersThatAreGone() {
+        EdCoverShift saturday = edCover(SATURDAY, 24, 1L);
+        EdCoverShift sunday = edCover(SATURDAY.plusDays(1), 24, 2L);
+        WeekendPair.link(List.of(saturday, sunday));
+        assertSame(sunday, saturday.getWeekendPartner());
+
+        // The Sunday was deleted
+        WeekendPair.link(List.of(saturday));
+        assertNull(saturday.getWeekendPartner());
+    }
+
+    @Test
+    public void onlyTheSundayStartingWhenTheSaturdayEndsIsItsPartner() {
+        EdCoverShift saturday = edCover(SATURDAY, 24, 1L);
+        // Starts 2 hours after the Saturday ends
+        EdCoverShift lateSunday = new EdCoverShift(SATURDAY.plusDays(1).atTime(10, 0),
+                SATURDAY.plusDays(2).atTime(10, 0), "RESIDENT", null);
+        lateSunday.setId(2L);
+        EdCoverShift shortSunday = edCover(SATURDAY.plusDays(1), 12, 3L);
+        WeekendPair.link(List.of(saturday, lateSunday, shortSunday));
+        assertNull(saturday.getWeekendPartner());
+        assertNull(lateSunday.getWeekendPartner());
+        assertNull(shortSunday.getWeekendPartner());
+    }
+
+    private static EdCoverShift edCover(LocalDate date, int hours, Long id) {
+        EdCoverShift shift = new EdCoverShift(date.atTime(8, 0), date.atTime(8, 0).plusHours(hours), "RESIDENT", null);
+        shift.setId(id);
+        return shift;
+    }
+}
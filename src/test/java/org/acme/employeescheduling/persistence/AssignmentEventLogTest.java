@@ -0,0 +1,87 @@
+package org.acme.employeescheduling.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.acme.employeescheduling.persistence.AssignmentEventLog.Cause;
+import org.acme.employeescheduling.persistence.AssignmentEventLog.Change;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AssignmentEventLogTest {
+
+    private static final Long TENANT_ID = 1L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void replayedStateMatchesEveryVersion() throws IOException {
+        AssignmentEventLog eventLog = open(1024); // Small segments, so versions span several of them
+        Random random = new Random(37);
+        Map<Long, Long> assignmentMap = new HashMap<>();
+        List<Map<Long, Long>> expectedList = new ArrayList<>();
+        expectedList.add(Map.of());
+        for (int version = 1; version <= 100; version++) {
+            List<Change> changeList = new ArrayList<>();
+            for (int change = 0; change < 5; change++) {
+                Long shiftId = (long) random.nextInt(20);
+                Long employeeId = random.nextInt(4) == 0 ? null : (long) random.nextInt(6);
+                changeList.add(new Change(shiftId, assignmentMap.get(shiftId), employeeId));
+                assignmentMap.put(shiftId, employeeId);
+            }
+            assertEquals(version, eventLog.append(TENANT_ID, Cause.SOLVER, changeList));
+            expectedList.add(new HashMap<>(assignmentMap));
+        }
+        eventLog.close();
+
+        AssignmentEventLog reopenedLog = open(1024);
+        assertEquals(100, reopenedLog.getVersion(TENANT_ID));
+        for (int version = 0; version <= 100; version++) {
+            assertEquals(expectedList.get(version), reopenedLog.getAssignmentsAt(TENANT_ID, version));
+        }
+        assertEquals(101, reopenedLog.append(TENANT_ID, Cause.MANUAL_EDIT, List.of(new Change(3L, assignmentMap.get(3L), 5L))));
+        List<AssignmentEventLog.Event> eventList = reopenedLog.listByShift(TENANT_ID, 3L);
+        assertEquals(Cause.MANUAL_EDIT, eventList.get(eventList.size() - 1).cause());
+        assertEquals(5L, eventList.get(eventList.size() - 1).newEmployeeId());
+        reopenedLog.close();
+    }
+
+    @Test
+    public void tornRecordIsCutOff() throws IOException {
+        AssignmentEventLog eventLog = open(1 << 20);
+        eventLog.append(TENANT_ID, Cause.SOLVER, List.of(new Change(1L, null, 2L)));
+        eventLog.close();
+        Path segment;
+        try (Stream<Path> pathStream = Files.list(directory.resolve("schedule-" + TENANT_ID))) {
+            segment = pathStream.findFirst().orElseThrow();
+        }
+        // Like a crash halfway through the next append
+        Files.write(segment, new byte[AssignmentEventLog.RECORD_SIZE / 2], StandardOpenOption.APPEND);
+
+        AssignmentEventLog reopenedLog = open(1 << 20);
+        assertEquals(1, reopenedLog.getVersion(TENANT_ID));
+        assertEquals(AssignmentEventLog.RECORD_SIZE, Files.size(segment));
+        assertEquals(2, reopenedLog.append(TENANT_ID, Cause.SOLVER, List.of(new Change(1L, 2L, null))));
+        assertEquals(Map.of(1L, 2L), reopenedLog.getAssignmentsAt(TENANT_ID, 1));
+        reopenedLog.close();
+    }
+
+    private AssignmentEventLog open(long segmentSize) {
+        AssignmentEventLog eventLog = new AssignmentEventLog();
+        eventLog.directory = directory;
+        eventLog.segmentSize = segmentSize;
+        eventLog.open();
+        return eventLog;
+    }
+}
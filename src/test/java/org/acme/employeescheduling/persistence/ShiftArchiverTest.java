@@ -0,0 +1,61 @@
+package org.acme.employeescheduling.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.HistoricShiftSummary;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.ResidentYear;
+import org.acme.employeescheduling.domain.ScheduleState;
+import org.junit.jupiter.api.Test;
+
+public class ShiftArchiverTest {
+
+    @Test
+    public void archiveDateIsTheAcademicYearStartMinusTheLookBack() {
+        // Mid-year draft: the academic year started on July 1 of the year before
+        assertEquals(LocalDate.of(2024, 6, 17),
+                ShiftArchiver.getArchiveDate(scheduleState(LocalDate.of(2025, 3, 1), LocalDate.of(2024, 12, 1))));
+        // A draft starting on July 1, with nothing published, starts a new academic year
+        assertEquals(LocalDate.of(2025, 6, 17),
+                ShiftArchiver.getArchiveDate(scheduleState(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 1))));
+        // Published shifts of an earlier academic year aren't archived
+        assertEquals(LocalDate.of(2024, 5, 17),
+                ShiftArchiver.getArchiveDate(scheduleState(LocalDate.of(2025, 7, 1), LocalDate.of(2024, 5, 31))));
+    }
+
+    @Test
+    public void summaryCountsLikeTheConstraints() {
+        assertEquals(DayOfWeek.SUNDAY, ArchivedShiftRepository.toDayOfWeek(1));
+        assertEquals(DayOfWeek.FRIDAY, ArchivedShiftRepository.toDayOfWeek(6));
+        assertEquals(DayOfWeek.SATURDAY, ArchivedShiftRepository.toDayOfWeek(7));
+
+        Employee employee = new Employee("R2a A", Set.of("RESIDENT"), ResidentYear.R2);
+        employee.setId(7L);
+        HistoricShiftSummary summary = new HistoricShiftSummary();
+        summary.add(7L, Location.ED_COVER, DayOfWeek.SATURDAY, 3);
+        summary.add(7L, Location.ED_COVER, DayOfWeek.SUNDAY, 2);
+        summary.add(7L, Location.ED_COVER, DayOfWeek.FRIDAY, 4);
+        summary.add(7L, Location.ED_COVER, DayOfWeek.MONDAY, 5);
+        summary.add(7L, Location.NIGHT_SHIFT, DayOfWeek.MONDAY, 6);
+        summary.add(7L, Location.PEDS, DayOfWeek.SUNDAY, 1);
+        summary.add(8L, Location.PEDS, DayOfWeek.SUNDAY, 1);
+        assertEquals(new HistoricShiftSummary.Totals(5, 9, 6, 4, 1), summary.get(employee));
+
+        // Not archived at all, or not persisted yet
+        assertEquals(HistoricShiftSummary.Totals.EMPTY, summary.get(new Employee("R3a P", Set.of("RESIDENT"), ResidentYear.R3)));
+        assertEquals(HistoricShiftSummary.Totals.EMPTY, summary.get(null));
+    }
+
+    private static ScheduleState scheduleState(LocalDate firstDraftDate, LocalDate firstPublishedDate) {
+        ScheduleState scheduleState = new ScheduleState();
+        scheduleState.setTenantId(1L);
+        scheduleState.setFirstDraftDate(firstDraftDate);
+        scheduleState.setLastHistoricDate(firstPublishedDate.minusDays(1));
+        return scheduleState;
+    }
+}
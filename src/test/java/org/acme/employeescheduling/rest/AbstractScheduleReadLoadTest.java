@@ -0,0 +1,82 @@
+package org.acme.employeescheduling.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.inject.Inject;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+
+// 200 readers polling the schedule during a solve, logging the reads/s and p50/p99.
+// ScheduleReadLoadTest runs it on virtual threads, ClassicWorkerThreadsReadLoadTest on the worker thread pool.
+// Abstract, because Quarkus makes every test class a bean: a concrete superclass would be an ambiguous one.
+public abstract class AbstractScheduleReadLoadTest {
+
+    private static final Logger LOGGER = Logger.getLogger(AbstractScheduleReadLoadTest.class);
+
+    private static final int READER_COUNT = 200;
+    private static final int READS_PER_READER = 25;
+
+    @Inject
+    EmployeeScheduleResource employeeScheduleResource;
+
+    @TestHTTPResource("/schedules/1")
+    URI scheduleUri;
+
+    @Test
+    @Timeout(600)
+    public void concurrentReadersDuringSolve() throws InterruptedException {
+        employeeScheduleResource.solve(EmployeeScheduleResource.DEFAULT_TENANT_ID);
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            long[] latencyNanos = new long[READER_COUNT * READS_PER_READER];
+            AtomicInteger readIndex = new AtomicInteger();
+            AtomicInteger failureCount = new AtomicInteger();
+            long start = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int reader = 0; reader < READER_COUNT; reader++) {
+                    executor.submit(() -> {
+                        for (int read = 0; read < READS_PER_READER; read++) {
+                            long readStart = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = client.send(HttpRequest.newBuilder(scheduleUri).GET().build(),
+                                        HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() != 200) {
+                                    failureCount.incrementAndGet();
+                                    LOGGER.warnf("Read failed with status %d.", response.statusCode());
+                                }
+                            } catch (Exception e) {
+                                failureCount.incrementAndGet();
+                                LOGGER.warnf(e, "Read failed.");
+                            }
+                            latencyNanos[readIndex.getAndIncrement()] = System.nanoTime() - readStart;
+                        }
+                    });
+                }
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            Arrays.sort(latencyNanos);
+            LOGGER.infof("%s: %d readers, %d reads: %.1f reads/s, p50 %d ms, p99 %d ms.",
+                    threadingLabel(), READER_COUNT, latencyNanos.length, latencyNanos.length * 1e9 / elapsedNanos,
+                    latencyNanos[latencyNanos.length / 2] / 1_000_000,
+                    latencyNanos[(int) (latencyNanos.length * 0.99)] / 1_000_000);
+            assertEquals(0, failureCount.get());
+        } finally {
+            employeeScheduleResource.stopSolving(EmployeeScheduleResource.DEFAULT_TENANT_ID);
+        }
+    }
+
+    protected abstract String threadingLabel();
+}
@@ -0,0 +1,31 @@
+package org.acme.employeescheduling.rest;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+// The baseline for ScheduleReadLoadTest: with virtual threads disabled, @RunOnVirtualThread endpoints
+// run on the worker thread pool, as the classic RESTEasy endpoints did.
+// Run with: mvn test -Pload
+@QuarkusTest
+@TestProfile(ClassicWorkerThreadsReadLoadTest.WorkerThreadsProfile.class)
+@Tag("load")
+public class ClassicWorkerThreadsReadLoadTest extends AbstractScheduleReadLoadTest {
+
+    @Override
+    protected String threadingLabel() {
+        return "Worker threads";
+    }
+
+    public static class WorkerThreadsProfile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.virtual-threads.enabled", "false");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.acme.employeescheduling.rest;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -8,29 +9,58 @@ import jakarta.inject.Inject;
 
 import org.acme.employeescheduling.domain.EmployeeSchedule;
 import org.acme.employeescheduling.domain.Shift;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.Timeout;
 import ai.timefold.solver.core.api.solver.SolverStatus;
 
 import io.quarkus.test.junit.QuarkusTest;
 
 @QuarkusTest
+// The statement count runs first, before a solve leaves the pipeline writing in the background
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class EmployeeScheduleResourceTest {
 
     @Inject
     EmployeeScheduleResource employeeScheduleResource;
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    @Order(1)
+    public void repeatedLoadOnlySelectsAvailabilitiesAndShifts() {
+        Statistics statistics = sessionFactory.getStatistics();
+        // At most ScheduleState, employees with their skill sets, availabilities, shifts
+        // and the archived shift summary: no select per employee
+        statistics.clear();
+        employeeScheduleResource.findById(EmployeeScheduleResource.DEFAULT_TENANT_ID);
+        assertTrue(statistics.getPrepareStatementCount() <= 5);
+        // ScheduleState and the employees now come from the second-level cache,
+        // leaving the availabilities, the shifts and the archived shift summary
+        statistics.clear();
+        EmployeeSchedule employeeSchedule = employeeScheduleResource.findById(EmployeeScheduleResource.DEFAULT_TENANT_ID);
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+        assertFalse(employeeSchedule.getEmployeeList().isEmpty());
+        assertFalse(employeeSchedule.getEmployeeList().get(0).getSkillSet().isEmpty());
+    }
 
     @Test
+    @Order(2)
     @Timeout(600_000)
     public void solveDemoDataUntilFeasible() throws InterruptedException {
-        employeeScheduleResource.solve();
-        EmployeeSchedule employeeSchedule = employeeScheduleResource.getSchedule();
+        employeeScheduleResource.solve(EmployeeScheduleResource.DEFAULT_TENANT_ID);
+        EmployeeSchedule employeeSchedule = employeeScheduleResource.getSchedule(EmployeeScheduleResource.DEFAULT_TENANT_ID);
         while (employeeSchedule.getSolverStatus() != SolverStatus.NOT_SOLVING
                 || !employeeSchedule.getScore().isFeasible()) {
             // Quick polling (not a Test Thread Sleep anti-pattern)
             // Test is still fast on fast machines and doesn't randomly fail on slow machines.
             Thread.sleep(20L);
-            employeeSchedule = employeeScheduleResource.getSchedule();
+            employeeSchedule = employeeScheduleResource.getSchedule(EmployeeScheduleResource.DEFAULT_TENANT_ID);
         }
         assertFalse(employeeSchedule.getShiftList().isEmpty());
         for (Shift shift : employeeSchedule.getShiftList()) {
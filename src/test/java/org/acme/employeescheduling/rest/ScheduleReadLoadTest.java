@@ -0,0 +1,17 @@
+package org.acme.employeescheduling.rest;
+
+import org.junit.jupiter.api.Tag;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+// The schedule reads on virtual threads (@RunOnVirtualThread), see ClassicWorkerThreadsReadLoadTest for the baseline.
+// Run with: mvn test -Pload
+@QuarkusTest
+@Tag("load")
+public class ScheduleReadLoadTest extends AbstractScheduleReadLoadTest {
+
+    @Override
+    protected String threadingLabel() {
+        return "Virtual threads";
+    }
+}
@@ -0,0 +1,84 @@
+package org.acme.employeescheduling.rest;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import jakarta.inject.Inject;
+
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.Shift;
+import org.acme.employeescheduling.solver.EmployeeSchedulingConstraintProvider;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import ai.timefold.solver.core.api.solver.Solver;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.heuristic.selector.move.MoveSelectorConfig;
+import ai.timefold.solver.core.config.heuristic.selector.move.composite.UnionMoveSelectorConfig;
+import ai.timefold.solver.core.config.localsearch.LocalSearchPhaseConfig;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import ai.timefold.solver.core.impl.solver.DefaultSolver;
+import ai.timefold.solver.core.impl.solver.scope.SolverScope;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+// Solves the demo data with solverConfig.xml as is and without the SeatSymmetryMoveFilter, per random seed,
+// logging the score calculations per new best solution and when the solve got feasible.
+// Run with: mvn test -Pload (-Dbenchmark.seconds=120 for longer solves)
+@QuarkusTest
+@Tag("load")
+public class SeatSymmetryFilterBenchmarkTest {
+
+    private static final Logger LOGGER = Logger.getLogger(SeatSymmetryFilterBenchmarkTest.class);
+
+    private static final long[] SEEDS = { 0L, 1L, 2L };
+
+    @Inject
+    EmployeeScheduleResource employeeScheduleResource;
+
+    @Test
+    @Timeout(3600)
+    public void solveWithAndWithoutTheFilter() {
+        long secondsSpentLimit = Long.getLong("benchmark.seconds", 60L);
+        // Warm up the JIT, so the first measured solve isn't the slowest
+        solve(-1L, true, 20L);
+        for (long seed : SEEDS) {
+            solve(seed, true, secondsSpentLimit);
+            solve(seed, false, secondsSpentLimit);
+        }
+    }
+
+    private void solve(long seed, boolean filtered, long secondsSpentLimit) {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml")
+                .withSolutionClass(EmployeeSchedule.class)
+                .withEntityClasses(Shift.class)
+                .withConstraintProviderClass(EmployeeSchedulingConstraintProvider.class)
+                .withRandomSeed(seed)
+                .withTerminationConfig(new TerminationConfig().withSecondsSpentLimit(secondsSpentLimit));
+        if (!filtered) {
+            LocalSearchPhaseConfig localSearchPhaseConfig = (LocalSearchPhaseConfig) solverConfig.getPhaseConfigList().get(1);
+            for (MoveSelectorConfig<?> moveSelectorConfig : ((UnionMoveSelectorConfig) localSearchPhaseConfig
+                    .getMoveSelectorConfig()).getMoveSelectorConfigList()) {
+                moveSelectorConfig.setFilterClass(null);
+            }
+        }
+        Solver<EmployeeSchedule> solver = SolverFactory.<EmployeeSchedule> create(solverConfig).buildSolver();
+        long[] newBestCount = { 0L };
+        long[] feasibleMillis = { -1L };
+        solver.addEventListener(event -> {
+            newBestCount[0]++;
+            if (feasibleMillis[0] < 0L && event.getNewBestScore().isFeasible()) {
+                feasibleMillis[0] = event.getTimeMillisSpent();
+            }
+        });
+        EmployeeSchedule solution = solver.solve(employeeScheduleResource.findById(EmployeeScheduleResource.DEFAULT_TENANT_ID));
+        assertNotNull(solution.getScore());
+        SolverScope<EmployeeSchedule> solverScope = ((DefaultSolver<EmployeeSchedule>) solver).getSolverScope();
+        LOGGER.infof("Seed %d, %s: best %s, %d score calculations (%d/s), %d per new best, feasible %s.",
+                seed, filtered ? "filtered" : "unfiltered", solution.getScore(), solverScope.getScoreCalculationCount(),
+                solverScope.getScoreCalculationSpeed(), solverScope.getScoreCalculationCount() / Math.max(1L, newBestCount[0]),
+                feasibleMillis[0] < 0L ? "never" : "after " + feasibleMillis[0] + " ms");
+    }
+}
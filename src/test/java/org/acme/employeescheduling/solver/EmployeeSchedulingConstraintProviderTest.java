@@ -1,5 +1,6 @@
 package org.acme.employeescheduling.solver;
 
+import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -11,7 +12,13 @@ import jakarta.inject.Inject;
 import org.acme.employeescheduling.domain.Availability;
 import org.acme.employeescheduling.domain.AvailabilityType;
 import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.EdCoverShift;
 import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.HistoricShiftSummary;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.NightFloatBlock;
+import org.acme.employeescheduling.domain.PedsBlock;
+import org.acme.employeescheduling.domain.ResidentYear;
 import org.acme.employeescheduling.domain.Shift;
 import org.junit.jupiter.api.Test;
 import ai.timefold.solver.test.api.score.stream.ConstraintVerifier;
@@ -27,188 +34,422 @@ public class EmployeeSchedulingConstraintProviderTest {
     private static final LocalDateTime AFTERNOON_START_TIME = DAY_1.atTime(LocalTime.of(13, 0));
     private static final LocalDateTime AFTERNOON_END_TIME = DAY_1.atTime(LocalTime.of(21, 0));
 
+    // DAY_1 is a Monday
+    private static final LocalDateTime FRIDAY_MORNING = DAY_1.plusDays(4).atTime(LocalTime.of(8, 0));
+    private static final LocalDateTime FRIDAY_NIGHT = DAY_1.plusDays(4).atTime(LocalTime.of(20, 0));
+    private static final LocalDateTime SATURDAY_MORNING = DAY_1.plusDays(5).atTime(LocalTime.of(8, 0));
+    private static final LocalDateTime SUNDAY_MORNING = DAY_1.plusDays(6).atTime(LocalTime.of(8, 0));
+    private static final LocalDateTime MONDAY_MORNING = DAY_1.plusDays(7).atTime(LocalTime.of(8, 0));
+
     @Inject
     ConstraintVerifier<EmployeeSchedulingConstraintProvider, EmployeeSchedule> constraintVerifier;
 
-    @Test
-    public void testRequiredSkill() {
-        Employee employee = new Employee("Amy", Set.of());
-        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::requiredSkill)
-                .given(employee,
-                       new Shift(DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee))
-                .penalizes(1);
-
-        employee = new Employee("Beth", Set.of("Skill"));
-        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::requiredSkill)
-                .given(employee,
-                       new Shift(DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee))
-                .penalizes(0);
-    }
-
     @Test
     public void testOverlappingShifts() {
-        Employee employee1 = new Employee("Amy", Set.of("Skill"));
-        Employee employee2 = new Employee("Beth", Set.of("Skill"));
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        Employee employee2 = new Employee("Beth", Set.of("Skill"), ResidentYear.R2);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noOverlappingShifts)
                 .given(employee1,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1),
-                       new Shift(2L, DAY_START_TIME, DAY_END_TIME, "Location 2", "Skill", employee1))
-                .penalizesBy((int) Duration.ofHours(8).toMinutes());
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1),
+                       shift(2L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1))
+                .penalizesBy(1);
 
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noOverlappingShifts)
                 .given(employee1,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1),
-                       new Shift(2L, DAY_START_TIME, DAY_END_TIME, "Location 2", "Skill", employee2))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1),
+                       shift(2L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee2))
                 .penalizes(0);
 
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noOverlappingShifts)
                 .given(employee1,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1),
-                       new Shift(2L, AFTERNOON_START_TIME, AFTERNOON_END_TIME, "Location 2", "Skill", employee1))
-                .penalizesBy((int) Duration.ofHours(4).toMinutes());
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1),
+                       shift(2L, AFTERNOON_START_TIME, AFTERNOON_END_TIME, Location.DAY_SHIFT, "Skill", employee1))
+                .penalizesBy(1);
     }
 
     @Test
     public void testOneShiftPerDay() {
-        Employee employee1 = new Employee("Amy", Set.of("Skill"));
-        Employee employee2 = new Employee("Beth", Set.of("Skill"));
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        Employee employee2 = new Employee("Beth", Set.of("Skill"), ResidentYear.R2);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noOverlappingShifts)
                 .given(employee1,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1),
-                       new Shift(2L, DAY_START_TIME, DAY_END_TIME, "Location 2", "Skill", employee1))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1),
+                       shift(2L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1))
                 .penalizes(1);
 
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noOverlappingShifts)
                 .given(employee1,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1),
-                       new Shift(2L, DAY_START_TIME, DAY_END_TIME, "Location 2", "Skill", employee2))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1),
+                       shift(2L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee2))
                 .penalizes(0);
 
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noOverlappingShifts)
                 .given(employee1,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1),
-                       new Shift(2L, AFTERNOON_START_TIME, AFTERNOON_END_TIME, "Location 2", "Skill", employee1))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1),
+                       shift(2L, AFTERNOON_START_TIME, AFTERNOON_END_TIME, Location.DAY_SHIFT, "Skill", employee1))
                 .penalizes(1);
 
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noOverlappingShifts)
                 .given(employee1,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1),
-                       new Shift(2L, DAY_START_TIME.plusDays(1), DAY_END_TIME.plusDays(1), "Location 2", "Skill", employee1))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1),
+                       shift(2L, DAY_START_TIME.plusDays(1), DAY_END_TIME.plusDays(1), Location.DAY_SHIFT, "Skill", employee1))
                 .penalizes(0);
     }
 
     @Test
     public void testAtLeast10HoursBetweenConsecutiveShifts() {
-        Employee employee1 = new Employee("Amy", Set.of("Skill"));
-        Employee employee2 = new Employee("Beth", Set.of("Skill"));
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        Employee employee2 = new Employee("Beth", Set.of("Skill"), ResidentYear.R2);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::atLeast10HoursBetweenTwoShifts)
                 .given(employee1,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1),
-                       new Shift(2L, AFTERNOON_END_TIME, DAY_START_TIME.plusDays(1), "Location 2", "Skill", employee1))
-                .penalizesBy(360);
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1),
+                       shift(2L, AFTERNOON_END_TIME, DAY_START_TIME.plusDays(1), Location.DAY_SHIFT, "Skill", employee1))
+                .penalizesBy(6);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::atLeast10HoursBetweenTwoShifts)
                 .given(employee1,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1),
-                       new Shift(2L, DAY_END_TIME, DAY_START_TIME.plusDays(1), "Location 2", "Skill", employee1))
-                .penalizesBy(600);
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1),
+                       shift(2L, DAY_END_TIME, DAY_START_TIME.plusDays(1), Location.DAY_SHIFT, "Skill", employee1))
+                .penalizesBy(10);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::atLeast10HoursBetweenTwoShifts)
                 .given(employee1,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1),
-                       new Shift(2L, DAY_END_TIME.plusHours(10), DAY_START_TIME.plusDays(1), "Location 2", "Skill", employee1))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1),
+                       shift(2L, DAY_END_TIME.plusHours(10), DAY_START_TIME.plusDays(1), Location.DAY_SHIFT, "Skill", employee1))
                 .penalizes(0);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::atLeast10HoursBetweenTwoShifts)
                 .given(employee1,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1),
-                       new Shift(2L, AFTERNOON_END_TIME, DAY_START_TIME.plusDays(1), "Location 2", "Skill", employee2))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1),
+                       shift(2L, AFTERNOON_END_TIME, DAY_START_TIME.plusDays(1), Location.DAY_SHIFT, "Skill", employee2))
                 .penalizes(0);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noOverlappingShifts)
                 .given(employee1,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1),
-                       new Shift(2L, DAY_START_TIME.plusDays(1), DAY_END_TIME.plusDays(1), "Location 2", "Skill", employee1))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1),
+                       shift(2L, DAY_START_TIME.plusDays(1), DAY_END_TIME.plusDays(1), Location.DAY_SHIFT, "Skill", employee1))
                 .penalizes(0);
     }
 
     @Test
     public void testUnavailableEmployee() {
-        Employee employee1 = new Employee("Amy", Set.of("Skill"));
-        Employee employee2 = new Employee("Beth", Set.of("Skill"));
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        Employee employee2 = new Employee("Beth", Set.of("Skill"), ResidentYear.R2);
         Availability unavailability = new Availability(employee1, DAY_1, AvailabilityType.UNAVAILABLE);
         Availability desired = new Availability(employee1, DAY_1, AvailabilityType.DESIRED);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::unavailableEmployee)
                 .given(employee1,
                        unavailability,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1))
-                .penalizesBy((int) Duration.ofHours(8).toMinutes());
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1))
+                .penalizesBy(100);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::unavailableEmployee)
                 .given(employee1,
                        unavailability,
-                       new Shift(1L, DAY_START_TIME.plusDays(1), DAY_END_TIME.plusDays(1), "Location", "Skill", employee1))
+                       shift(1L, DAY_START_TIME.plusDays(1), DAY_END_TIME.plusDays(1), Location.DAY_SHIFT, "Skill", employee1))
                 .penalizes(0);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::unavailableEmployee)
                 .given(employee1,
                        unavailability,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee2))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee2))
                 .penalizes(0);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::unavailableEmployee)
                 .given(employee1,
                        desired,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1))
                 .penalizes(0);
     }
 
+    @Test
+    public void testUnavailableEmployeeRange() {
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        // The shift spans DAY_1 to DAY_1 + 2, the range covers two of those days
+        Availability unavailability = new Availability(employee1, DAY_1.minusDays(1), DAY_1.plusDays(1),
+                AvailabilityType.UNAVAILABLE);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::unavailableEmployee)
+                .given(employee1,
+                       unavailability,
+                       new Shift(DAY_START_TIME, DAY_END_TIME.plusDays(2), Location.DAY_SHIFT, "Skill", employee1))
+                .penalizesBy(200);
+        // Same as one row per day: DAY_1 + 1 weighs 3 days left of the block, DAY_1 + 2 weighs 2
+        Availability pedsUnavailability = new Availability(employee1, DAY_1.plusDays(1), DAY_1.plusDays(2),
+                AvailabilityType.UNAVAILABLE);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::unavailableEmployeeForPediatrics)
+                .given(employee1,
+                       pedsUnavailability,
+                       new PedsBlock(DAY_START_TIME, DAY_END_TIME.plusDays(3), "Skill", employee1))
+                .penalizesBy(500);
+    }
+
     @Test
     public void testDesiredDayForEmployee() {
-        Employee employee1 = new Employee("Amy", Set.of("Skill"));
-        Employee employee2 = new Employee("Beth", Set.of("Skill"));
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        Employee employee2 = new Employee("Beth", Set.of("Skill"), ResidentYear.R2);
         Availability unavailability = new Availability(employee1, DAY_1, AvailabilityType.UNAVAILABLE);
         Availability desired = new Availability(employee1, DAY_1, AvailabilityType.DESIRED);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::desiredDayForEmployee)
                 .given(employee1,
                        desired,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1))
                 .rewardsWith((int) Duration.ofHours(8).toMinutes());
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::desiredDayForEmployee)
                 .given(employee1,
                        desired,
-                       new Shift(1L, DAY_START_TIME.plusDays(1), DAY_END_TIME.plusDays(1), "Location", "Skill", employee1))
+                       shift(1L, DAY_START_TIME.plusDays(1), DAY_END_TIME.plusDays(1), Location.DAY_SHIFT, "Skill", employee1))
                 .rewards(0);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::desiredDayForEmployee)
                 .given(employee1,
                        desired,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee2))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee2))
                 .rewards(0);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::desiredDayForEmployee)
                 .given(employee1,
                        unavailability,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1))
                 .rewards(0);
     }
 
     @Test
     public void testUndesiredDayForEmployee() {
-        Employee employee1 = new Employee("Amy", Set.of("Skill"));
-        Employee employee2 = new Employee("Beth", Set.of("Skill"));
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        Employee employee2 = new Employee("Beth", Set.of("Skill"), ResidentYear.R2);
         Availability unavailability = new Availability(employee1, DAY_1, AvailabilityType.UNAVAILABLE);
         Availability undesired = new Availability(employee1, DAY_1, AvailabilityType.UNDESIRED);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::undesiredDayForEmployee)
                 .given(employee1,
                        undesired,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1))
                 .penalizesBy((int) Duration.ofHours(8).toMinutes());
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::undesiredDayForEmployee)
                 .given(employee1,
                        undesired,
-                       new Shift(1L, DAY_START_TIME.plusDays(1), DAY_END_TIME.plusDays(1), "Location", "Skill", employee1))
+                       shift(1L, DAY_START_TIME.plusDays(1), DAY_END_TIME.plusDays(1), Location.DAY_SHIFT, "Skill", employee1))
                 .penalizes(0);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::undesiredDayForEmployee)
                 .given(employee1,
                        undesired,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee2))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee2))
                 .penalizes(0);
         constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::undesiredDayForEmployee)
                 .given(employee1,
                        unavailability,
-                       new Shift(1L, DAY_START_TIME, DAY_END_TIME, "Location", "Skill", employee1))
+                       shift(1L, DAY_START_TIME, DAY_END_TIME, Location.DAY_SHIFT, "Skill", employee1))
+                .penalizes(0);
+    }
+
+    @Test
+    public void testMaximumPedsShiftsWithArchivedShifts() {
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        employee1.setId(1L);
+        Shift pedsShift = new PedsBlock(DAY_START_TIME, DAY_END_TIME.plusDays(13), "Skill", employee1);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::maximumPedsShiftsForResidents)
+                .given(employee1, new HistoricShiftSummary(), pedsShift)
+                .penalizes(0);
+        // A Peds block of an archived year is the one allowed
+        HistoricShiftSummary historicShiftSummary = new HistoricShiftSummary();
+        historicShiftSummary.add(1L, Location.PEDS, DayOfWeek.SUNDAY, 1);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::maximumPedsShiftsForResidents)
+                .given(employee1, historicShiftSummary, pedsShift)
+                .penalizesBy(10);
+    }
+
+    @Test
+    public void testFridayEDCoverBalancingWithArchivedShifts() {
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        employee1.setId(1L);
+        Employee employee2 = new Employee("Beth", Set.of("Skill"), ResidentYear.R2);
+        employee2.setId(2L);
+        Shift fridayShift = withId(1L, new EdCoverShift(FRIDAY_MORNING, SATURDAY_MORNING, "Skill", employee1));
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::fridayEDCoverShiftsBalancing)
+                .given(employee1, employee2, new HistoricShiftSummary(), fridayShift)
+                .penalizesBy(0);
+        // Beth has no live Friday shift, her archived ones still count against Amy's single one
+        HistoricShiftSummary historicShiftSummary = new HistoricShiftSummary();
+        historicShiftSummary.add(2L, Location.ED_COVER, DayOfWeek.FRIDAY, 3);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::fridayEDCoverShiftsBalancing)
+                .given(employee1, employee2, historicShiftSummary, fridayShift)
+                .penalizesBy(2);
+    }
+
+    @Test
+    public void testPreventEDCoverBeforeSaturdayShift() {
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        Employee employee2 = new Employee("Beth", Set.of("Skill"), ResidentYear.R2);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::preventEDCoverBeforeSaturdayShift)
+                .given(employee1,
+                       withId(1L, new EdCoverShift(FRIDAY_MORNING, SATURDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(SATURDAY_MORNING, SUNDAY_MORNING, "Skill", employee1)))
+                .penalizes(1);
+        // The unique pair only matched with the Friday shift first: a Saturday shift with the lower id went unpenalized
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::preventEDCoverBeforeSaturdayShift)
+                .given(employee1,
+                       withId(2L, new EdCoverShift(FRIDAY_MORNING, SATURDAY_MORNING, "Skill", employee1)),
+                       withId(1L, new EdCoverShift(SATURDAY_MORNING, SUNDAY_MORNING, "Skill", employee1)))
+                .penalizes(1);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::preventEDCoverBeforeSaturdayShift)
+                .given(employee1,
+                       withId(1L, new EdCoverShift(FRIDAY_MORNING, SATURDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(SATURDAY_MORNING, SUNDAY_MORNING, "Skill", employee2)))
+                .penalizes(0);
+        // The Saturday of the next week
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::preventEDCoverBeforeSaturdayShift)
+                .given(employee1,
+                       withId(1L, new EdCoverShift(FRIDAY_MORNING, SATURDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(SATURDAY_MORNING.plusWeeks(1), SUNDAY_MORNING.plusWeeks(1), "Skill",
+                               employee1)))
+                .penalizes(0);
+        // Only an ED cover shift on Friday counts
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::preventEDCoverBeforeSaturdayShift)
+                .given(employee1,
+                       shift(1L, FRIDAY_MORNING, FRIDAY_NIGHT, Location.DAY_SHIFT, "Skill", employee1),
+                       withId(2L, new EdCoverShift(SATURDAY_MORNING, SUNDAY_MORNING, "Skill", employee1)))
+                .penalizes(0);
+    }
+
+    @Test
+    public void testPreventEDCoverBeforeNightBlock() {
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        Employee employee2 = new Employee("Beth", Set.of("Skill"), ResidentYear.R2);
+        LocalDateTime nightBlockEnd = FRIDAY_NIGHT.plusDays(7).withHour(8);
+        // Either id order, as with the unique pair
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::preventEDCoverBeforeNightBlock)
+                .given(employee1,
+                       withId(1L, new EdCoverShift(FRIDAY_MORNING.withHour(14), FRIDAY_NIGHT, "Skill", employee1)),
+                       withId(2L, new NightFloatBlock(FRIDAY_NIGHT, nightBlockEnd, "Skill", employee1)))
+                .penalizes(1);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::preventEDCoverBeforeNightBlock)
+                .given(employee1,
+                       withId(2L, new EdCoverShift(FRIDAY_MORNING.withHour(14), FRIDAY_NIGHT, "Skill", employee1)),
+                       withId(1L, new NightFloatBlock(FRIDAY_NIGHT, nightBlockEnd, "Skill", employee1)))
+                .penalizes(1);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::preventEDCoverBeforeNightBlock)
+                .given(employee1,
+                       withId(1L, new EdCoverShift(FRIDAY_MORNING.withHour(14), FRIDAY_NIGHT, "Skill", employee1)),
+                       withId(2L, new NightFloatBlock(FRIDAY_NIGHT, nightBlockEnd, "Skill", employee2)))
                 .penalizes(0);
+        // The night block starts a day later
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::preventEDCoverBeforeNightBlock)
+                .given(employee1,
+                       withId(1L, new EdCoverShift(FRIDAY_MORNING.withHour(14), FRIDAY_NIGHT, "Skill", employee1)),
+                       withId(2L, new NightFloatBlock(FRIDAY_NIGHT.plusDays(1), nightBlockEnd, "Skill", employee1)))
+                .penalizes(0);
+    }
+
+    @Test
+    public void testNoShiftAfter24HourSundayShift() {
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        Employee employee2 = new Employee("Beth", Set.of("Skill"), ResidentYear.R2);
+        LocalDateTime mondayEvening = MONDAY_MORNING.withHour(14);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noShiftAfter24HourSundayShift)
+                .given(employee1,
+                       withId(1L, new EdCoverShift(SUNDAY_MORNING, MONDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(mondayEvening, mondayEvening.plusHours(6), "Skill", employee1)))
+                .penalizesBy(10);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noShiftAfter24HourSundayShift)
+                .given(employee1,
+                       withId(2L, new EdCoverShift(SUNDAY_MORNING, MONDAY_MORNING, "Skill", employee1)),
+                       withId(1L, new EdCoverShift(mondayEvening, mondayEvening.plusHours(6), "Skill", employee1)))
+                .penalizesBy(10);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noShiftAfter24HourSundayShift)
+                .given(employee1,
+                       withId(1L, new EdCoverShift(SUNDAY_MORNING, MONDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(mondayEvening, mondayEvening.plusHours(6), "Skill", employee2)))
+                .penalizes(0);
+        // Tuesday is fine
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noShiftAfter24HourSundayShift)
+                .given(employee1,
+                       withId(1L, new EdCoverShift(SUNDAY_MORNING, MONDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(mondayEvening.plusDays(1), mondayEvening.plusDays(1).plusHours(6),
+                               "Skill", employee1)))
+                .penalizes(0);
+    }
+
+    @Test
+    public void testNo24HourShiftAfter24HourShift() {
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        Employee employee2 = new Employee("Beth", Set.of("Skill"), ResidentYear.R2);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::no24HourShiftAfter24HourShift)
+                .given(employee1,
+                       withId(1L, new EdCoverShift(SATURDAY_MORNING, SUNDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(SUNDAY_MORNING, MONDAY_MORNING, "Skill", employee1)))
+                .penalizesBy(10);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::no24HourShiftAfter24HourShift)
+                .given(employee1,
+                       withId(2L, new EdCoverShift(SATURDAY_MORNING, SUNDAY_MORNING, "Skill", employee1)),
+                       withId(1L, new EdCoverShift(SUNDAY_MORNING, MONDAY_MORNING, "Skill", employee1)))
+                .penalizesBy(10);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::no24HourShiftAfter24HourShift)
+                .given(employee1,
+                       withId(1L, new EdCoverShift(SATURDAY_MORNING, SUNDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(SUNDAY_MORNING, MONDAY_MORNING, "Skill", employee2)))
+                .penalizes(0);
+        // Friday then Saturday is another constraint
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::no24HourShiftAfter24HourShift)
+                .given(employee1,
+                       withId(1L, new EdCoverShift(FRIDAY_MORNING, SATURDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(SATURDAY_MORNING, SUNDAY_MORNING, "Skill", employee1)))
+                .penalizes(0);
+    }
+
+    @Test
+    public void testNoSunday24HourEDCoverShiftAfterNightShiftBlock() {
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        Employee employee2 = new Employee("Beth", Set.of("Skill"), ResidentYear.R2);
+        LocalDateTime nightBlockStart = SATURDAY_MORNING.minusDays(6).withHour(20);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noSunday24HourEDCoverShiftAfterNightShiftBlock)
+                .given(employee1,
+                       withId(1L, new NightFloatBlock(nightBlockStart, SATURDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(SUNDAY_MORNING, MONDAY_MORNING, "Skill", employee1)))
+                .penalizes(1);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noSunday24HourEDCoverShiftAfterNightShiftBlock)
+                .given(employee1,
+                       withId(2L, new NightFloatBlock(nightBlockStart, SATURDAY_MORNING, "Skill", employee1)),
+                       withId(1L, new EdCoverShift(SUNDAY_MORNING, MONDAY_MORNING, "Skill", employee1)))
+                .penalizes(1);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noSunday24HourEDCoverShiftAfterNightShiftBlock)
+                .given(employee1,
+                       withId(1L, new NightFloatBlock(nightBlockStart, SATURDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(SUNDAY_MORNING, MONDAY_MORNING, "Skill", employee2)))
+                .penalizes(0);
+        // The Saturday right after is another constraint
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::noSunday24HourEDCoverShiftAfterNightShiftBlock)
+                .given(employee1,
+                       withId(1L, new NightFloatBlock(nightBlockStart, SATURDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(SATURDAY_MORNING, SUNDAY_MORNING, "Skill", employee1)))
+                .penalizes(0);
+    }
+
+    @Test
+    public void testNo24HourEDCoverShiftAfterNightShiftBlock() {
+        Employee employee1 = new Employee("Amy", Set.of("Skill"), ResidentYear.R2);
+        Employee employee2 = new Employee("Beth", Set.of("Skill"), ResidentYear.R2);
+        LocalDateTime nightBlockStart = SATURDAY_MORNING.minusDays(6).withHour(20);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::no24HourEDCoverShiftAfterNightShiftBlock)
+                .given(employee1,
+                       withId(1L, new NightFloatBlock(nightBlockStart, SATURDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(SATURDAY_MORNING, SUNDAY_MORNING, "Skill", employee1)))
+                .penalizesBy(10);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::no24HourEDCoverShiftAfterNightShiftBlock)
+                .given(employee1,
+                       withId(2L, new NightFloatBlock(nightBlockStart, SATURDAY_MORNING, "Skill", employee1)),
+                       withId(1L, new EdCoverShift(SATURDAY_MORNING, SUNDAY_MORNING, "Skill", employee1)))
+                .penalizesBy(10);
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::no24HourEDCoverShiftAfterNightShiftBlock)
+                .given(employee1,
+                       withId(1L, new NightFloatBlock(nightBlockStart, SATURDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(SATURDAY_MORNING, SUNDAY_MORNING, "Skill", employee2)))
+                .penalizes(0);
+        // A night block ending on Friday
+        constraintVerifier.verifyThat(EmployeeSchedulingConstraintProvider::no24HourEDCoverShiftAfterNightShiftBlock)
+                .given(employee1,
+                       withId(1L, new NightFloatBlock(nightBlockStart.minusDays(1), FRIDAY_MORNING, "Skill", employee1)),
+                       withId(2L, new EdCoverShift(FRIDAY_MORNING, SATURDAY_MORNING, "Skill", employee1)))
+                .penalizes(0);
+    }
+
+    // Unique pairs order the shifts by their planning id
+    private static Shift shift(Long id, LocalDateTime start, LocalDateTime end, Location location, String requiredSkill,
+            Employee employee) {
+        return withId(id, new Shift(start, end, location, requiredSkill, employee));
+    }
+
+    private static <S extends Shift> S withId(Long id, S shift) {
+        shift.setId(id);
+        return shift;
     }
 }
@@ -0,0 +1,105 @@
+package org.acme.employeescheduling.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.inject.Inject;
+
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.ResidentYear;
+import org.acme.employeescheduling.domain.Shift;
+import org.junit.jupiter.api.Test;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+// Guards the Timefold impl classes IncrementalScoreDirector relies on: an upgrade changing them fails here
+@QuarkusTest
+public class IncrementalScoreDirectorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 7, 1, 8, 0);
+
+    @Inject
+    SolverFactory<EmployeeSchedule> solverFactory;
+    @Inject
+    SolutionManager<EmployeeSchedule, HardMediumSoftScore> solutionManager;
+
+    private final Employee amy = employee(1L, "Amy", ResidentYear.R2);
+    private final Employee beth = employee(2L, "Beth", ResidentYear.R3);
+
+    @Test
+    public void incrementalScoreMatchesAFullRecalculation() {
+        EmployeeSchedule solution = schedule(amy, amy);
+        try (IncrementalScoreDirector scoreDirector = IncrementalScoreDirector.open(solverFactory, solution)) {
+            EmployeeSchedule workingSolution = scoreDirector.getWorkingSolution();
+            assertNotSame(solution, workingSolution);
+            assertEquals(solutionManager.update(schedule(amy, amy)), scoreDirector.calculateScore());
+
+            Shift workingShift = workingSolution.getShiftList().get(1);
+            Employee workingBeth = workingSolution.getEmployeeList().get(1);
+            scoreDirector.changeEmployee(workingShift, workingBeth);
+            assertEquals(solutionManager.update(schedule(amy, beth)), scoreDirector.calculateScore());
+            // The solution it was opened with stays as it was
+            assertSame(amy, solution.getShiftList().get(1).getEmployee());
+
+            scoreDirector.changeEmployee(workingShift, null);
+            assertEquals(solutionManager.update(schedule(amy, null)), scoreDirector.calculateScore());
+        }
+    }
+
+    @Test
+    public void overlappingShiftsAreIndicted() {
+        try (IncrementalScoreDirector scoreDirector = IncrementalScoreDirector.open(solverFactory, schedule(amy, amy))) {
+            scoreDirector.calculateScore();
+            Shift workingShift = scoreDirector.getWorkingSolution().getShiftList().get(0);
+            assertTrue(scoreDirector.getIndictmentMap().get(workingShift).getConstraintMatchSet().stream()
+                    .anyMatch(constraintMatch -> constraintMatch.getConstraintName().equals("Overlapping shift")));
+        }
+    }
+
+    @Test
+    public void cloneSolutionCopiesTheShiftsOnly() {
+        EmployeeSchedule solution = schedule(amy, beth);
+        solution.setScore(HardMediumSoftScore.ZERO);
+        EmployeeSchedule clone = IncrementalScoreDirector.cloneSolution(solverFactory, solution);
+        assertNotSame(solution.getShiftList().get(0), clone.getShiftList().get(0));
+        assertSame(beth, clone.getShiftList().get(1).getEmployee());
+        clone.setScore(null);
+        assertEquals(HardMediumSoftScore.ZERO, solution.getScore());
+        assertNull(clone.getScore());
+    }
+
+    // 2 overlapping day shifts, so assigning both to one resident breaks a hard constraint
+    private EmployeeSchedule schedule(Employee firstEmployee, Employee secondEmployee) {
+        List<Shift> shiftList = new ArrayList<>();
+        shiftList.add(shift(1L, firstEmployee));
+        shiftList.add(shift(2L, secondEmployee));
+        return new EmployeeSchedule(null, List.of(), List.of(amy, beth), shiftList);
+    }
+
+    // Cloning looks facts up by their planning id
+    private static Employee employee(Long id, String name, ResidentYear residentYear) {
+        Employee employee = new Employee(name, Set.of("Skill"), residentYear);
+        employee.setId(id);
+        return employee;
+    }
+
+    private static Shift shift(Long id, Employee employee) {
+        Shift shift = new Shift(START, START.plusHours(10), Location.DAY_SHIFT, "Skill", employee);
+        shift.setId(id);
+        return shift;
+    }
+}
@@ -0,0 +1,124 @@
+package org.acme.employeescheduling.solver;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.acme.employeescheduling.domain.EdCoverShift;
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.PedsBlock;
+import org.acme.employeescheduling.domain.ResidentYear;
+import org.acme.employeescheduling.domain.Shift;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ai.timefold.solver.core.impl.domain.solution.descriptor.SolutionDescriptor;
+import ai.timefold.solver.core.impl.domain.variable.descriptor.GenuineVariableDescriptor;
+import ai.timefold.solver.core.impl.heuristic.move.Move;
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.ChangeMove;
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.SwapMove;
+
+public class SeatSymmetryMoveFilterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 6, 30, 10, 0);
+    private static final LocalDateTime END = START.plusDays(13).plusHours(10);
+
+    private static final GenuineVariableDescriptor<EmployeeSchedule> EMPLOYEE_VARIABLE =
+            SolutionDescriptor.buildSolutionDescriptor(EmployeeSchedule.class, Shift.class)
+                    .findEntityDescriptorOrFail(Shift.class).getGenuineVariableDescriptor("employee");
+
+    private final SeatSymmetryMoveFilter filter = new SeatSymmetryMoveFilter();
+
+    private final Employee amy = new Employee("Amy", Set.of("RESIDENT"), ResidentYear.R2);
+    private final Employee beth = new Employee("Beth", Set.of("RESIDENT"), ResidentYear.R3);
+
+    // 3 seats of one Peds slot, a staggered Peds block and an ED cover shift, linked like a working solution
+    private final Shift firstSeat = seat(new PedsBlock(START, END, "RESIDENT", null, true), 1L);
+    private final Shift secondSeat = seat(new PedsBlock(START, END, "RESIDENT", null, true), 2L);
+    private final Shift thirdSeat = seat(new PedsBlock(START, END, "RESIDENT", null, true), 3L);
+    private final Shift staggered = seat(new PedsBlock(START.plusWeeks(1), END.plusWeeks(1), "RESIDENT", null, true), 4L);
+    private final Shift edCover = seat(new EdCoverShift(START, START.plusHours(24), "RESIDENT", null), 5L);
+
+    @BeforeEach
+    public void linkSeats() {
+        new EmployeeSchedule(null, List.of(), List.of(amy, beth),
+                new ArrayList<>(List.of(firstSeat, secondSeat, thirdSeat, staggered, edCover)));
+    }
+
+    @Test
+    public void twinSwapsAreRejected() {
+        firstSeat.setEmployee(amy);
+        secondSeat.setEmployee(beth);
+        assertFalse(accepts(swap(firstSeat, secondSeat)));
+        assertFalse(accepts(swap(secondSeat, firstSeat)));
+        assertFalse(accepts(swap(firstSeat, thirdSeat)));
+
+        staggered.setEmployee(beth);
+        assertTrue(accepts(swap(firstSeat, staggered)));
+        edCover.setEmployee(beth);
+        assertTrue(accepts(swap(firstSeat, edCover)));
+    }
+
+    @Test
+    public void assigningASeatWhileALowerSeatIsFreeIsRejected() {
+        assertFalse(accepts(change(secondSeat, amy)));
+        assertFalse(accepts(change(thirdSeat, amy)));
+        assertTrue(accepts(change(firstSeat, amy)));
+
+        firstSeat.setEmployee(amy);
+        assertTrue(accepts(change(secondSeat, beth)));
+        assertFalse(accepts(change(thirdSeat, beth)));
+    }
+
+    @Test
+    public void unassigningASeatWhileAHigherSeatIsTakenIsRejected() {
+        firstSeat.setEmployee(amy);
+        secondSeat.setEmployee(beth);
+        assertFalse(accepts(change(firstSeat, null)));
+        assertTrue(accepts(change(secondSeat, null)));
+
+        thirdSeat.setEmployee(amy);
+        assertFalse(accepts(change(secondSeat, null)));
+        assertTrue(accepts(change(thirdSeat, null)));
+    }
+
+    @Test
+    public void otherMovesAreAccepted() {
+        // Reassigning a taken seat
+        firstSeat.setEmployee(amy);
+        secondSeat.setEmployee(beth);
+        assertTrue(accepts(change(firstSeat, beth)));
+        assertTrue(accepts(change(secondSeat, amy)));
+        // Leaving a free seat free
+        assertTrue(accepts(change(thirdSeat, null)));
+        // Shifts without twins
+        assertTrue(accepts(change(staggered, amy)));
+        assertTrue(accepts(change(edCover, amy)));
+        edCover.setEmployee(amy);
+        assertTrue(accepts(change(edCover, null)));
+        staggered.setEmployee(beth);
+        assertTrue(accepts(swap(staggered, edCover)));
+    }
+
+    private boolean accepts(Move<EmployeeSchedule> move) {
+        return filter.accept(null, move);
+    }
+
+    private static ChangeMove<EmployeeSchedule> change(Shift shift, Employee employee) {
+        return new ChangeMove<>(EMPLOYEE_VARIABLE, shift, employee);
+    }
+
+    private static SwapMove<EmployeeSchedule> swap(Shift left, Shift right) {
+        return new SwapMove<>(List.of(EMPLOYEE_VARIABLE), left, right);
+    }
+
+    private static Shift seat(Shift shift, Long id) {
+        shift.setId(id);
+        return shift;
+    }
+}
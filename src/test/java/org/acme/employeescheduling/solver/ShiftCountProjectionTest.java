@@ -0,0 +1,136 @@
+package org.acme.employeescheduling.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.ResidentYear;
+import org.acme.employeescheduling.domain.Shift;
+import org.acme.employeescheduling.domain.ShiftCountDto;
+import org.junit.jupiter.api.Test;
+
+public class ShiftCountProjectionTest {
+
+    private static final Long TENANT_ID = 1L;
+    private static final LocalDate START_DATE = LocalDate.of(2024, 7, 1);
+
+    @Test
+    public void incrementalCountsMatchFullRecalculation() {
+        List<Employee> employeeList = List.of(
+                new Employee("R2a A", Set.of("RESIDENT"), ResidentYear.R2),
+                new Employee("R3a P", Set.of("RESIDENT"), ResidentYear.R3),
+                new Employee("R4a RC", Set.of("RESIDENT"), ResidentYear.R4));
+        List<Shift> shiftList = new ArrayList<>();
+        for (int day = 0; day < 60; day++) {
+            LocalDate date = START_DATE.plusDays(day);
+            boolean weekend = date.getDayOfWeek().getValue() >= 6;
+            LocalDateTime start = weekend ? date.atTime(8, 0) : date.atTime(14, 0);
+            shiftList.add(shift(shiftList.size(), start, start.plusHours(weekend ? 24 : 6), Location.ED_COVER));
+            if (day % 7 == 0) {
+                shiftList.add(shift(shiftList.size(), date.atTime(20, 0), date.plusDays(5).atTime(8, 0), Location.NIGHT_SHIFT));
+                shiftList.add(shift(shiftList.size(), date.atTime(10, 0), date.plusDays(13).atTime(20, 0), Location.PEDS));
+            }
+        }
+
+        ShiftCountProjection projection = new ShiftCountProjection();
+        projection.rebuild(TENANT_ID, shiftList);
+        assertSameCounts(recalculate(shiftList), projection.get(TENANT_ID));
+
+        Random random = new Random(37);
+        for (int solution = 0; solution < 50; solution++) {
+            // Like a new best solution: a few reassignments and unassignments, applied as a whole list
+            for (int move = 0; move < 5; move++) {
+                Shift shift = shiftList.get(random.nextInt(shiftList.size()));
+                int employeeIndex = random.nextInt(employeeList.size() + 1);
+                shift.setEmployee(employeeIndex == employeeList.size() ? null : employeeList.get(employeeIndex));
+            }
+            projection.apply(TENANT_ID, shiftList);
+            assertSameCounts(recalculate(shiftList), projection.get(TENANT_ID));
+        }
+
+        // Like a manual edit: a single shift
+        Shift editedShift = shiftList.get(0);
+        editedShift.setEmployee(employeeList.get(2));
+        projection.apply(TENANT_ID, editedShift);
+        assertSameCounts(recalculate(shiftList), projection.get(TENANT_ID));
+    }
+
+    private static Shift shift(long id, LocalDateTime start, LocalDateTime end, Location location) {
+        Shift shift = new Shift(start, end, location, "RESIDENT");
+        shift.setId(id);
+        shift.setTenantId(TENANT_ID);
+        return shift;
+    }
+
+    // Full recount of every shift, the reference the incremental counters must agree with
+    private static Map<String, ShiftCountDto> recalculate(List<Shift> shifts) {
+        Map<String, ShiftCountDto> shiftCounts = new HashMap<>();
+        for (Shift shift : shifts) {
+            Employee employee = shift.getEmployee();
+            if (employee == null) {
+                continue;
+            }
+            ShiftCountDto countDto = shiftCounts.computeIfAbsent(employee.getName(), k -> new ShiftCountDto(employee.getEmployeeType()));
+            countDto.incrementShiftsByLocation(shift.getLocation());
+
+            if (shift.getLocation() == Location.NIGHT_SHIFT) {
+                countDto.incrementNightShifts();
+            }
+            if (shift.getLocation() == Location.DAY_SHIFT) {
+                countDto.incrementDayShifts();
+            }
+            if (shift.getLocation() == Location.IR) {
+                countDto.incrementIRShifts();
+            }
+            if (shift.getLocation() == Location.PEDS) {
+                countDto.incrementPedsShifts();
+            }
+            DayOfWeek dayOfWeek = shift.getStart().getDayOfWeek();
+            if (shift.getLocation() == Location.ED_COVER && dayOfWeek == DayOfWeek.SATURDAY) {
+                countDto.incrementSaturdayShifts();
+            }
+            if (shift.getLocation() == Location.ED_COVER && dayOfWeek == DayOfWeek.SUNDAY) {
+                countDto.incrementSundayShifts();
+            }
+            if (shift.getLocation() == Location.ED_COVER && dayOfWeek == DayOfWeek.FRIDAY) {
+                countDto.incrementFridayShifts();
+            }
+            if (shift.getStart().toLocalTime().equals(ShiftCountDto.EVENING_SHIFT_START_TIME)) {
+                countDto.incrementEveningShifts();
+            }
+            if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+                countDto.incrementWeekendShifts();
+            }
+        }
+        return shiftCounts;
+    }
+
+    private static void assertSameCounts(Map<String, ShiftCountDto> expected, Map<String, ShiftCountDto> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((employeeName, expectedCounts) -> {
+            ShiftCountDto actualCounts = actual.get(employeeName);
+            assertEquals(expectedCounts.getEmployeeType(), actualCounts.getEmployeeType(), employeeName);
+            assertEquals(expectedCounts.getShiftsByLocation(), actualCounts.getShiftsByLocation(), employeeName);
+            assertEquals(expectedCounts.getTotalShifts(), actualCounts.getTotalShifts(), employeeName);
+            assertEquals(expectedCounts.getEveningShifts(), actualCounts.getEveningShifts(), employeeName);
+            assertEquals(expectedCounts.getWeekendShifts(), actualCounts.getWeekendShifts(), employeeName);
+            assertEquals(expectedCounts.getPedsShifts(), actualCounts.getPedsShifts(), employeeName);
+            assertEquals(expectedCounts.getNightShifts(), actualCounts.getNightShifts(), employeeName);
+            assertEquals(expectedCounts.getDayShifts(), actualCounts.getDayShifts(), employeeName);
+            assertEquals(expectedCounts.getIRShifts(), actualCounts.getIRShifts(), employeeName);
+            assertEquals(expectedCounts.getSaturdayShifts(), actualCounts.getSaturdayShifts(), employeeName);
+            assertEquals(expectedCounts.getSundayShifts(), actualCounts.getSundayShifts(), employeeName);
+            assertEquals(expectedCounts.getFridayShifts(), actualCounts.getFridayShifts(), employeeName);
+        });
+    }
+}
@@ -0,0 +1,161 @@
+package org.acme.employeescheduling.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.inject.Inject;
+
+import org.acme.employeescheduling.domain.EdCoverShift;
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.ResidentYear;
+import org.acme.employeescheduling.domain.Shift;
+import org.acme.employeescheduling.domain.WeekendPair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.impl.heuristic.move.Move;
+import ai.timefold.solver.core.impl.score.director.InnerScoreDirector;
+import ai.timefold.solver.core.impl.solver.DefaultSolverFactory;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class WeekendSwapMoveTest {
+
+    private static final LocalDate SATURDAY = LocalDate.of(2024, 7, 6);
+
+    @Inject
+    SolverFactory<EmployeeSchedule> solverFactory;
+    @Inject
+    SolutionManager<EmployeeSchedule, HardMediumSoftScore> solutionManager;
+
+    private final Employee amy = employee(1L, "Amy", ResidentYear.R2);
+    private final Employee beth = employee(2L, "Beth", ResidentYear.R3);
+    private final Employee cleo = employee(3L, "Cleo", ResidentYear.R4);
+
+    private final List<InnerScoreDirector<EmployeeSchedule, HardMediumSoftScore>> scoreDirectorList = new ArrayList<>();
+
+    @AfterEach
+    public void close() {
+        scoreDirectorList.forEach(InnerScoreDirector::close);
+    }
+
+    @Test
+    public void swapsThatChangeNothingAreNotDoable() {
+        // 2 weekends, the second one with 2 seats
+        EmployeeSchedule solution = schedule(amy, beth, cleo, amy, beth, cleo);
+        InnerScoreDirector<EmployeeSchedule, HardMediumSoftScore> scoreDirector = scoreDirector(solution);
+        List<WeekendPair> pairList = WeekendPair.list(solution.getShiftList());
+        WeekendPair first = pairList.get(0);
+        WeekendPair secondSeat = pairList.get(1);
+        WeekendPair otherSeat = pairList.get(2);
+
+        assertFalse(new WeekendSwapMove(first, first).isMoveDoable(scoreDirector));
+        // The 2 seats of one weekend
+        assertFalse(new WeekendSwapMove(secondSeat, otherSeat).isMoveDoable(scoreDirector));
+        assertTrue(new WeekendSwapMove(first, secondSeat).isMoveDoable(scoreDirector));
+
+        // Same residents on both weekends
+        solution = schedule(amy, beth, amy, beth, null, null);
+        scoreDirector = scoreDirector(solution);
+        pairList = WeekendPair.list(solution.getShiftList());
+        assertFalse(new WeekendSwapMove(pairList.get(0), pairList.get(1)).isMoveDoable(scoreDirector));
+        assertTrue(new WeekendSwapMove(pairList.get(0), pairList.get(2)).isMoveDoable(scoreDirector));
+    }
+
+    @Test
+    public void doSwapsBothDaysAndUndoRestoresThem() {
+        EmployeeSchedule solution = schedule(amy, beth, cleo, null, null, null);
+        InnerScoreDirector<EmployeeSchedule, HardMediumSoftScore> scoreDirector = scoreDirector(solution);
+        HardMediumSoftScore scoreBefore = scoreDirector.calculateScore();
+        List<WeekendPair> pairList = WeekendPair.list(solution.getShiftList());
+        WeekendSwapMove move = new WeekendSwapMove(pairList.get(0), pairList.get(1));
+
+        Move<EmployeeSchedule> undoMove = move.doMove(scoreDirector);
+        assertAssignments(solution, cleo, null, amy, beth);
+        assertEquals(solutionManager.update(schedule(cleo, null, amy, beth, null, null)), scoreDirector.calculateScore());
+
+        undoMove.doMove(scoreDirector);
+        assertAssignments(solution, amy, beth, cleo, null);
+        assertEquals(scoreBefore, scoreDirector.calculateScore());
+    }
+
+    @Test
+    public void rebaseMovesTheWeekendsOfTheOtherSolution() {
+        EmployeeSchedule solution = schedule(amy, beth, cleo, null, null, null);
+        InnerScoreDirector<EmployeeSchedule, HardMediumSoftScore> scoreDirector = scoreDirector(solution);
+        InnerScoreDirector<EmployeeSchedule, HardMediumSoftScore> destinationScoreDirector =
+                scoreDirector(scoreDirector.cloneWorkingSolution());
+        EmployeeSchedule destination = destinationScoreDirector.getWorkingSolution();
+        List<WeekendPair> pairList = WeekendPair.list(solution.getShiftList());
+
+        WeekendSwapMove rebasedMove = new WeekendSwapMove(pairList.get(0), pairList.get(1))
+                .rebase(destinationScoreDirector);
+        List<Shift> destinationShiftList = destination.getShiftList();
+        assertEquals(new WeekendSwapMove(WeekendPair.list(destinationShiftList).get(0),
+                WeekendPair.list(destinationShiftList).get(1)), rebasedMove);
+        for (Object entity : rebasedMove.getPlanningEntities()) {
+            assertTrue(destinationShiftList.stream().anyMatch(shift -> shift == entity));
+        }
+
+        rebasedMove.doMove(destinationScoreDirector);
+        assertSame(cleo, destinationShiftList.get(0).getEmployee());
+        // The source solution stays as it was
+        assertAssignments(solution, amy, beth, cleo, null);
+    }
+
+    // With look-ups, like the score directors of the move threads rebase() is called for
+    private InnerScoreDirector<EmployeeSchedule, HardMediumSoftScore> scoreDirector(EmployeeSchedule solution) {
+        @SuppressWarnings("unchecked")
+        InnerScoreDirector<EmployeeSchedule, HardMediumSoftScore> scoreDirector =
+                (InnerScoreDirector<EmployeeSchedule, HardMediumSoftScore>) ((DefaultSolverFactory<EmployeeSchedule>) solverFactory)
+                        .getScoreDirectorFactory().buildScoreDirector(true, false);
+        scoreDirector.setWorkingSolution(solution);
+        scoreDirector.calculateScore();
+        scoreDirectorList.add(scoreDirector);
+        return scoreDirector;
+    }
+
+    private static void assertAssignments(EmployeeSchedule solution, Employee... employees) {
+        for (int i = 0; i < employees.length; i++) {
+            assertSame(employees[i], solution.getShiftList().get(i).getEmployee());
+        }
+    }
+
+    // A weekend, then the next one with 2 seats per day, in Saturday, Sunday order per seat
+    private EmployeeSchedule schedule(Employee firstSaturday, Employee firstSunday, Employee secondSaturday,
+            Employee secondSunday, Employee otherSaturday, Employee otherSunday) {
+        List<Shift> shiftList = new ArrayList<>();
+        shiftList.add(edCover(1L, SATURDAY, firstSaturday));
+        shiftList.add(edCover(2L, SATURDAY.plusDays(1), firstSunday));
+        shiftList.add(edCover(3L, SATURDAY.plusWeeks(1), secondSaturday));
+        shiftList.add(edCover(4L, SATURDAY.plusWeeks(1).plusDays(1), secondSunday));
+        shiftList.add(edCover(5L, SATURDAY.plusWeeks(1), otherSaturday));
+        shiftList.add(edCover(6L, SATURDAY.plusWeeks(1).plusDays(1), otherSunday));
+        return new EmployeeSchedule(null, List.of(), List.of(amy, beth, cleo), shiftList);
+    }
+
+    // Cloning looks facts up by their planning id
+    private static Employee employee(Long id, String name, ResidentYear residentYear) {
+        Employee employee = new Employee(name, Set.of("RESIDENT"), residentYear);
+        employee.setId(id);
+        return employee;
+    }
+
+    private static EdCoverShift edCover(Long id, LocalDate date, Employee employee) {
+        EdCoverShift shift = new EdCoverShift(date.atTime(8, 0), date.atTime(8, 0).plusHours(24), "RESIDENT", employee);
+        shift.setId(id);
+        return shift;
+    }
+}
@@ -0,0 +1,122 @@
+package org.acme.employeescheduling.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import jakarta.inject.Inject;
+
+import org.acme.employeescheduling.domain.Employee;
+import org.acme.employeescheduling.domain.EmployeeSchedule;
+import org.acme.employeescheduling.domain.Location;
+import org.acme.employeescheduling.domain.ResidentYear;
+import org.acme.employeescheduling.domain.Shift;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class WhatIfScorerTest {
+
+    // Not a persisted schedule, so no other test shares its session
+    private static final Long SCHEDULE_ID = -1L;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 7, 1, 8, 0);
+
+    @Inject
+    WhatIfScorer whatIfScorer;
+    @Inject
+    SolutionManager<EmployeeSchedule, HardMediumSoftScore> solutionManager;
+
+    private final Employee amy = employee(1L, "Amy");
+    private final Employee beth = employee(2L, "Beth");
+
+    @AfterEach
+    public void evict() {
+        whatIfScorer.evict(SCHEDULE_ID);
+    }
+
+    @Test
+    public void movingAnOverlappingShiftAwayMakesItsMatchDisappear() {
+        EmployeeSchedule solution = schedule(amy, amy);
+        WhatIfScorer.Result result = whatIfScorer.score(SCHEDULE_ID, null, () -> solution,
+                List.of(new WhatIfScorer.Proposal(2L, "Beth")));
+        assertEquals(solutionManager.update(schedule(amy, amy)).toString(), result.scoreBefore());
+        assertEquals(solutionManager.update(schedule(amy, beth)).toString(), result.scoreAfter());
+        assertTrue(result.disappeared().stream().anyMatch(match -> match.constraint().equals("Overlapping shift")));
+        assertTrue(result.appeared().stream().noneMatch(match -> match.constraint().equals("Overlapping shift")));
+        // Nothing is kept: the proposal is undone, and the solution it was loaded from is never touched
+        assertSame(amy, solution.getShiftList().get(1).getEmployee());
+        WhatIfScorer.Result again = whatIfScorer.score(SCHEDULE_ID, null, () -> solution,
+                List.of(new WhatIfScorer.Proposal(2L, "Beth")));
+        assertEquals(result.scoreBefore(), again.scoreBefore());
+    }
+
+    @Test
+    public void newerBestSolutionIsReplayedIntoTheSession() {
+        AtomicInteger loadCount = new AtomicInteger();
+        Supplier<EmployeeSchedule> loader = () -> {
+            loadCount.incrementAndGet();
+            return schedule(amy, amy);
+        };
+        WhatIfScorer.Result result = whatIfScorer.score(SCHEDULE_ID, schedule(amy, amy), loader,
+                List.of(new WhatIfScorer.Proposal(1L, "Amy")));
+        assertEquals(solutionManager.update(schedule(amy, amy)).toString(), result.scoreBefore());
+        // The solver found a better one: same shifts, other assignments
+        result = whatIfScorer.score(SCHEDULE_ID, schedule(amy, beth), loader,
+                List.of(new WhatIfScorer.Proposal(1L, "Amy")));
+        assertEquals(solutionManager.update(schedule(amy, beth)).toString(), result.scoreBefore());
+        // A best solution with other shifts (a bulk import reached the solver) starts over from it
+        result = whatIfScorer.score(SCHEDULE_ID, withThirdShift(schedule(amy, beth)), loader,
+                List.of(new WhatIfScorer.Proposal(3L, "Amy")));
+        assertEquals(solutionManager.update(withThirdShift(schedule(amy, beth))).toString(), result.scoreBefore());
+        assertEquals(0, loadCount.get());
+    }
+
+    @Test
+    public void unknownShiftOrResidentIsRejected() {
+        EmployeeSchedule solution = schedule(amy, null);
+        assertThrows(IllegalArgumentException.class, () -> whatIfScorer.score(SCHEDULE_ID, null, () -> solution,
+                List.of(new WhatIfScorer.Proposal(3L, "Beth"))));
+        assertThrows(IllegalArgumentException.class, () -> whatIfScorer.score(SCHEDULE_ID, null, () -> solution,
+                List.of(new WhatIfScorer.Proposal(2L, "Cleo"))));
+    }
+
+    // 2 overlapping day shifts, so assigning both to one resident breaks a hard constraint
+    private EmployeeSchedule schedule(Employee firstEmployee, Employee secondEmployee) {
+        List<Shift> shiftList = new ArrayList<>();
+        shiftList.add(shift(1L, firstEmployee));
+        shiftList.add(shift(2L, secondEmployee));
+        return new EmployeeSchedule(null, List.of(), List.of(amy, beth), shiftList);
+    }
+
+    private static EmployeeSchedule withThirdShift(EmployeeSchedule solution) {
+        List<Shift> shiftList = new ArrayList<>(solution.getShiftList());
+        shiftList.add(shift(3L, null));
+        solution.setShiftList(shiftList);
+        return solution;
+    }
+
+    private static Employee employee(Long id, String name) {
+        Employee employee = new Employee(name, Set.of("Skill"), ResidentYear.R2);
+        employee.setId(id);
+        return employee;
+    }
+
+    private static Shift shift(Long id, Employee employee) {
+        Shift shift = new Shift(START, START.plusHours(10), Location.DAY_SHIFT, "Skill", employee);
+        shift.setId(id);
+        return shift;
+    }
+}